@@ -0,0 +1,86 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Regressionstest: ein Tick im eingeschwungenen Zustand
+ * darf keine Objekte anlegen. Gemessen wird mit
+ * ThreadMXBean.getThreadAllocatedBytes im Thread, der
+ * die Ticks ausführt.
+ *
+ * Geprüft wird der Ruhezustand nach dem Start und eine
+ * aufgefahrene Weiche, deren Lampen dauerhaft blinken.
+ * Vor jeder Messung laufen genügend Ticks, damit der JIT
+ * die Pfade übersetzt hat. Zwischen den Ticks wird kurz
+ * gewartet, damit die Emulatoren ihre Telegramme senden.
+ *
+ * Wird beim Bauen mit mvn -f bench/pom.xml verify
+ * ausgeführt und endet bei einem Fehler mit Status 1.
+ *
+ * @author matthias
+ */
+public class AllocationCheck {
+    private static final int WARMUP_TICKS = 20000;
+    private static final int TICKS = 2000;
+    private static final long PAUSE = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+    private final BenchConfig config;
+
+    AllocationCheck(BenchConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Führt die Ticks aus und liefert die dabei angelegten
+     * Bytes.
+     *
+     * @param ticks
+     * @return
+     */
+    long run(int ticks) {
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ticks; i++) {
+            config.ticker.step();
+            LockSupport.parkNanos(PAUSE);
+        }
+
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    /**
+     * Misst einen Zustand und gibt das Ergebnis aus.
+     *
+     * @param name
+     * @return true wenn kein Byte angelegt wurde.
+     */
+    boolean check(String name) {
+        run(WARMUP_TICKS);
+        long bytes = run(TICKS);
+        System.err.println(name + ": " + bytes + " bytes in " + TICKS + " ticks"
+                + ((bytes == 0) ? "" : " FAILED"));
+        return bytes == 0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = BenchConfig.create();
+        var check = new AllocationCheck(config);
+        // Der erste Aufruf legt selbst Objekte an.
+        check.run(1);
+
+        boolean ok = check.check("idle");
+
+        config.commands.submit(count -> config.weichen[0].setStoerung());
+        ok &= check.check("blinking switch");
+
+        System.exit(ok ? 0 : 1);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.AlertCategory;
+import de.mmth.drs2.Config;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Vollständig initialisierte Config für die Benchmarks.
+ * Die Platinen werden durch die Emulatoren ersetzt, der
+ * Ticker Thread wird nicht gestartet, die Benchmarks
+ * rufen Ticker.step selbst auf.
+ *
+ * Die Ausgaben der Steuerung auf System.out werden
+ * verworfen. Der Aufbau der Texte wird also weiterhin
+ * gemessen, nur das Schreiben auf die Konsole nicht.
+ *
+ * @author matthias
+ */
+public class BenchConfig extends Config {
+    private static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+
+    /**
+     * Legt die Config an und initialisiert sie, die IO
+     * Platine spricht das ASCII Protokoll.
+     *
+     * @return
+     * @throws Exception
+     */
+    public static BenchConfig create() throws Exception {
+        return create(false);
+    }
+
+    /**
+     * Legt die Config an und initialisiert sie.
+     *
+     * @param binaryIo true: die IO Platine verwendet das BinaryProtocol
+     * @return
+     * @throws Exception
+     */
+    public static BenchConfig create(boolean binaryIo) throws Exception {
+        System.setProperty("drs2.transport", "emulator");
+        System.setProperty("drs2.io.binary", Boolean.toString(binaryIo));
+        System.setProperty("drs2.emulator.baud", "0");
+        System.setProperty("drs2.profile.log", "0");
+        silence();
+
+        var config = new BenchConfig();
+        config.init();
+        config.connector.init(config);
+        // Warten bis die Emulatoren ihren ersten Status
+        // gesendet haben
+        Thread.sleep(200);
+        config.ticker.step();
+        return config;
+    }
+
+    /**
+     * Verwirft alle Ausgaben auf System.out.
+     */
+    public static void silence() {
+        System.setOut(NULL_OUT);
+    }
+
+    /**
+     * Ohne Oberfläche werden die Meldungen verworfen.
+     *
+     * @param message
+     */
+    @Override
+    public void alert(AlertCategory category, String message) {
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.io.Connector;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * setOut und isInSet des Connectors mit angemeldeten
+ * Platinen. Die Ports und Werte kommen aus einer festen
+ * Zufallsfolge, etwa jeder vierte Aufruf ändert den
+ * Ausgang tatsächlich, wie beim Umschalten der Signale
+ * und Fahrwegmarker.
+ *
+ * @author matthias
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectorBench {
+    private static final int SEQUENCE = 1024;
+
+    private Connector connector;
+    private final int[] outPorts = new int[SEQUENCE];
+    private final boolean[] outValues = new boolean[SEQUENCE];
+    private final int[] inPorts = new int[SEQUENCE];
+    private int pos;
+
+    @Setup
+    public void setup() throws Exception {
+        var config = BenchConfig.create();
+        connector = config.connector;
+        var random = new Random(4711);
+        boolean[] state = new boolean[Connector.OUTPUT_COUNT];
+        for (int i = 0; i < SEQUENCE; i++) {
+            int port = random.nextInt(Connector.OUTPUT_COUNT);
+            if (random.nextInt(4) == 0) {
+                state[port] = !state[port];
+            }
+            outPorts[i] = port;
+            outValues[i] = state[port];
+            inPorts[i] = random.nextInt(Connector.INPUT_COUNT);
+        }
+    }
+
+    /**
+     * Ein Aufruf von setOut.
+     */
+    @Benchmark
+    public void setOut() {
+        int i = pos++ & (SEQUENCE - 1);
+        connector.setOut(outPorts[i], outValues[i]);
+    }
+
+    /**
+     * Ein Aufruf von isInSet.
+     *
+     * @return
+     */
+    @Benchmark
+    public boolean isInSet() {
+        int i = pos++ & (SEQUENCE - 1);
+        return connector.isInSet(inPorts[i]);
+    }
+
+    /**
+     * Ein Aufruf von setOut gefolgt von vier Abfragen
+     * der Eingänge, etwa das Verhältnis in einem Tick.
+     *
+     * @return
+     */
+    @Benchmark
+    public int mixed() {
+        int i = pos++ & (SEQUENCE - 1);
+        connector.setOut(outPorts[i], outValues[i]);
+        int n = 0;
+        for (int j = 0; j < 4; j++) {
+            if (connector.isInSet(inPorts[(i + j) & (SEQUENCE - 1)])) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.io.BinaryFrameParser;
+import de.mmth.drs2.io.BinaryProtocol;
+import de.mmth.drs2.io.FrameParser;
+import de.mmth.drs2.io.FrameQueue;
+import de.mmth.drs2.io.UartFrame;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Zerlegen der Telegramme im ASCII und im binären
+ * Protokoll sowie das Kodieren im BinaryProtocol, ohne
+ * Uart und ohne Threads. Das Kodieren der vollständigen
+ * Ausgabetelegramme misst UartBench.
+ *
+ * @author matthias
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBench {
+    private static final int FRAMES = 16;
+
+    private final FrameQueue asciiQueue = new FrameQueue(64);
+    private final FrameParser asciiParser = new FrameParser((byte) 'B', (byte) 'X', 6, asciiQueue);
+    private final byte[] asciiStream = new byte[FRAMES * 8];
+
+    private final FrameQueue binaryQueue = new FrameQueue(64);
+    private final BinaryFrameParser binaryParser = new BinaryFrameParser((byte) 'Z', (byte) 'T', 6, binaryQueue);
+    private final byte[] binaryStream = new byte[FRAMES * 8];
+    private int binaryLen;
+
+    private final byte[] encodeBuffer = new byte[BinaryProtocol.MAX_DATA + BinaryProtocol.OVERHEAD];
+    private int value;
+
+    @Setup
+    public void setup() {
+        // DRS2 Statustelegramme: 'B', 6 Bytes Eingänge, 'X'
+        for (int i = 0; i < FRAMES; i++) {
+            int p = i * 8;
+            asciiStream[p] = 'B';
+            for (int j = 1; j < 7; j++) {
+                asciiStream[p + j] = (byte) (i * 7 + j);
+            }
+            asciiStream[p + 7] = 'X';
+        }
+
+        // Eingänge der IO Platine im binären Protokoll
+        var frame = new byte[encodeBuffer.length];
+        for (int i = 0; i < FRAMES; i++) {
+            int len = BinaryProtocol.encode16(frame, BinaryProtocol.TYPE_INPUTS, i, i * 0x1111);
+            System.arraycopy(frame, 0, binaryStream, binaryLen, len);
+            binaryLen += len;
+        }
+    }
+
+    /**
+     * 16 DRS2 Statustelegramme im ASCII Protokoll.
+     *
+     * @param bh
+     */
+    @Benchmark
+    public void parseAscii(Blackhole bh) {
+        asciiParser.feed(asciiStream, 0, asciiStream.length, 0);
+        drain(asciiQueue, bh);
+    }
+
+    /**
+     * 16 Eingangstelegramme der IO Platine im binären
+     * Protokoll einschließlich CRC Prüfung.
+     *
+     * @param bh
+     */
+    @Benchmark
+    public void parseBinary(Blackhole bh) {
+        binaryParser.feed(binaryStream, 0, binaryLen, 0);
+        drain(binaryQueue, bh);
+    }
+
+    private static void drain(FrameQueue queue, Blackhole bh) {
+        UartFrame frame;
+        while ((frame = queue.peek()) != null) {
+            bh.consume(frame.getData()[0]);
+            queue.release();
+        }
+    }
+
+    /**
+     * Ein Ausgabetelegramm der IO Platine im binären
+     * Protokoll.
+     *
+     * @return
+     */
+    @Benchmark
+    public int encodeBinary() {
+        value++;
+        return BinaryProtocol.encode16(encodeBuffer, BinaryProtocol.TYPE_OUTPUTS, value, value);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.parts.Rangierfahrt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Eine vollständige Rangierfahrt vom Industriegleis über
+ * drei Weichen nach Gleis 1. Jeder Aufruf von tick führt
+ * einen Schritt aus, die Wartezeiten zwischen den
+ * Schritten werden übersprungen.
+ *
+ * @author matthias
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangierfahrtBench {
+    private static final String FAHRWEG = "GS4 W3 W4 W5 GZ1 Z";
+    private static final int STEPS = 10;
+    private static final int STEP_TICKS = 100;
+
+    private BenchConfig config;
+    private Rangierfahrt fahrt;
+    private int count;
+
+    @Setup
+    public void setup() throws Exception {
+        config = BenchConfig.create();
+        fahrt = new Rangierfahrt();
+        fahrt.init(config, "Bench", FAHRWEG);
+    }
+
+    /**
+     * Start und alle Schritte bis zum Ziel.
+     */
+    @Benchmark
+    public void fahrt() {
+        fahrt.start();
+        for (int i = 0; i < STEPS; i++) {
+            count += STEP_TICKS;
+            fahrt.tick(count);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.log.EventLog;
+import de.mmth.drs2.parts.ColorMarker;
+import de.mmth.drs2.parts.state.RedWhiteList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RedWhiteList.tick mit vielen wartenden Einträgen.
+ * Die Einträge laufen erst nach Integer.MAX_VALUE ab,
+ * es wird also nur die Liste durchsucht. expire fügt
+ * zusätzlich in jedem Aufruf einen ablaufenden Eintrag
+ * hinzu, der im selben Tick wieder entfernt wird.
+ *
+ * @author matthias
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedWhiteListBench {
+    @Param({"10", "100", "1000"})
+    public int entries;
+
+    private RedWhiteList list;
+    private final Marker marker = new Marker();
+    private int count;
+
+    /**
+     * Ein Fahrwegmarker ohne Lampen.
+     */
+    static class Marker implements ColorMarker {
+        int changes;
+
+        @Override
+        public void white() {
+            changes++;
+        }
+
+        @Override
+        public void red() {
+            changes++;
+        }
+
+        @Override
+        public void clear() {
+            changes++;
+        }
+
+        @Override
+        public String getName() {
+            return "Bench";
+        }
+
+        @Override
+        public boolean isRed() {
+            return false;
+        }
+
+        @Override
+        public boolean hasMarker() {
+            return true;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        BenchConfig.silence();
+        list = new RedWhiteList(new EventLog());
+        for (int i = 0; i < entries; i++) {
+            list.add(Integer.MAX_VALUE, marker, (i & 1) == 0);
+        }
+    }
+
+    /**
+     * Tick, in dem kein Eintrag abläuft.
+     */
+    @Benchmark
+    public void scan() {
+        list.tick(count++);
+    }
+
+    /**
+     * Ein neuer Eintrag, der im nächsten Tick abläuft.
+     */
+    @Benchmark
+    public void expire() {
+        list.add(count - 1, marker, true);
+        list.tick(count++);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ein vollständiger Tick über die initialisierte Config
+ * mit allen Phasen, vom Einlesen der Telegramme bis zum
+ * Snapshot. Die Platinen sind durch die Emulatoren
+ * ersetzt.
+ *
+ * @author matthias
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickerBench {
+    @Param({"true", "false"})
+    public boolean profile;
+
+    private BenchConfig config;
+    private int lamp;
+
+    @Setup
+    public void setup() throws Exception {
+        config = BenchConfig.create();
+        config.ticker.getProfiler().setEnabled(profile);
+        config.connector.getTracer().setEnabled(profile);
+    }
+
+    /**
+     * Tick ohne Änderungen, der Normalfall im Betrieb.
+     */
+    @Benchmark
+    public void idleTick() {
+        config.ticker.step();
+    }
+
+    /**
+     * Tick, in dem sich eine Lampe der DRS2 ändert und
+     * damit ein Ausgabetelegramm gesendet wird.
+     */
+    @Benchmark
+    public void outputTick() {
+        lamp ^= 1;
+        config.connector.setOut(3, lamp == 1);
+        config.ticker.step();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regressionstest: ein Termin des Zeitrads verschiebt
+ * oder löscht aus seinem Aufruf heraus andere Termine
+ * desselben Ticks, wie z.B. Fahrstrasse.wake oder das
+ * Zeitrelais des Ersatzsignals.
+ *
+ * Jeder Termin muss genau einmal zu seinem Tick
+ * laufen, ein gelöschter gar nicht, und isScheduled
+ * muss danach false liefern.
+ *
+ * Wird beim Bauen mit mvn -f bench/pom.xml verify
+ * ausgeführt und endet bei einem Fehler mit Status 1.
+ *
+ * @author matthias
+ */
+public class TimingWheelCheck {
+    private final TimingWheel wheel = new TimingWheel();
+    private final List<String> fired = new ArrayList<>();
+    private boolean ok = true;
+
+    /**
+     * Legt ein Entry an, das seinen Namen und den Tick
+     * protokolliert und danach die Aktion ausführt.
+     *
+     * @param name
+     * @param action
+     * @return
+     */
+    private TimingWheel.Entry entry(String name, TickerEvent action) {
+        return new TimingWheel.Entry(count -> {
+            fired.add(name + "@" + count);
+            if (action != null) {
+                action.tick(count);
+            }
+        });
+    }
+
+    private void expect(String name, Object expected, Object actual) {
+        boolean same = expected.equals(actual);
+        System.err.println(name + ": " + actual + (same ? "" : " FAILED, expected " + expected));
+        ok &= same;
+    }
+
+    /**
+     * Vier Termine im selben Fach. Der zuerst laufende
+     * verschiebt einen wartenden auf Tick 8, löscht einen
+     * zweiten und meldet sich selbst für genau eine
+     * Umdrehung später wieder an.
+     */
+    private void siblings() {
+        var moved = entry("moved", null);
+        var cancelled = entry("cancelled", null);
+        var last = entry("last", null);
+        TimingWheel.Entry[] first = new TimingWheel.Entry[1];
+        first[0] = entry("first", count -> {
+            if (count == 3) {
+                wheel.schedule(moved, 8);
+                wheel.cancel(cancelled);
+                wheel.schedule(first[0], count + 256);
+            }
+        });
+
+        // Die zuletzt angemeldeten Termine stehen vorne im Fach.
+        wheel.schedule(last, 3);
+        wheel.schedule(cancelled, 3);
+        wheel.schedule(moved, 3);
+        wheel.schedule(first[0], 3);
+        wheel.advance(10);
+
+        expect("siblings", List.of("first@3", "last@3", "moved@8"), fired);
+        expect("moved scheduled", false, moved.isScheduled());
+        expect("cancelled scheduled", false, cancelled.isScheduled());
+        expect("last scheduled", false, last.isScheduled());
+        expect("first deadline", 259, first[0].getDeadline());
+
+        fired.clear();
+        wheel.advance(300);
+        expect("next turn", List.of("first@259"), fired);
+    }
+
+    public static void main(String[] args) {
+        var check = new TimingWheelCheck();
+        check.siblings();
+        System.exit(check.ok ? 0 : 1);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.bench;
+
+import de.mmth.drs2.io.Uart;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Aufbau der Ausgabetelegramme in der Uart und Übergabe
+ * an den Schreib-Thread. Vor jedem Telegramm wird ein
+ * Ausgang umgeschaltet, sonst würde die Uart das
+ * unveränderte Telegramm gar nicht senden.
+ *
+ * @author matthias
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UartBench {
+    @Param({"false", "true"})
+    public boolean binaryIo;
+
+    private BenchConfig config;
+    private Uart drs2;
+    private Uart io;
+    private int drs2Port;
+    private int ioPort;
+    private boolean value;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        config = BenchConfig.create(binaryIo);
+        drs2 = config.uart2;
+        io = config.uart1;
+        drs2Port = drs2.getBoard().getOutputStart() + 3;
+        ioPort = io.getBoard().getOutputStart() + 3;
+        if (binaryIo && !io.isBinaryMode()) {
+            throw new IllegalStateException("IO board did not switch to the binary protocol");
+        }
+    }
+
+    /**
+     * Ausgabetelegramm der DRS2.
+     */
+    @Benchmark
+    public void encodeDrs2() {
+        value = !value;
+        config.connector.setOut(drs2Port, value);
+        drs2.sendOutputs(null);
+    }
+
+    /**
+     * Ausgabetelegramm der IO Platine, je nach Parameter
+     * im ASCII oder im binären Protokoll.
+     */
+    @Benchmark
+    public void encodeIo() {
+        value = !value;
+        config.connector.setOut(ioPort, value);
+        io.sendOutputs(null);
+    }
+}
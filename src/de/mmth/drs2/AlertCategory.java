@@ -0,0 +1,36 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Kategorien der Meldungen an den Fahrdienstleiter,
+ * nach ihnen kann das Nachrichtenfenster gefiltert
+ * werden.
+ *
+ * @author matthias
+ */
+public enum AlertCategory {
+    SYSTEM("Allgemein"),
+    SWITCH("Weichen"),
+    SIGNAL("Signale"),
+    ROUTE("Fahrstraßen"),
+    BLOCK("Block"),
+    SHUNT("Rangieren");
+
+    private final String label;
+
+    private AlertCategory(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Bezeichnung für die Oberfläche.
+     *
+     * @return
+     */
+    public String getLabel() {
+        return label;
+    }
+}
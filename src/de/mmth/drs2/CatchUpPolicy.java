@@ -0,0 +1,29 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Legt fest, wie der Ticker reagiert, wenn ein Tick
+ * länger als eine Periode gedauert hat und der nächste
+ * Termin bereits verstrichen ist.
+ *
+ * @author matthias
+ */
+public enum CatchUpPolicy {
+    /**
+     * Verpasste Ticks werden direkt hintereinander
+     * nachgeholt, so dass Zeiten in Ticks wieder
+     * mit der Uhrzeit übereinstimmen. Es werden
+     * maximal maxCatchUp Ticks nachgeholt, der
+     * Rest wird verworfen.
+     */
+    CATCH_UP,
+
+    /**
+     * Verpasste Ticks werden verworfen, der nächste
+     * Tick erfolgt wieder im ursprünglichen Raster.
+     */
+    SKIP
+}
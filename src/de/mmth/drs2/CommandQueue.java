@@ -0,0 +1,172 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Warteschlange für Kommandos von der Oberfläche,
+ * Skripten oder Netzwerk-Clients an den Ticker.
+ *
+ * Beliebig viele Threads stellen Kommandos mit submit
+ * ein, nur der Ticker entnimmt sie zu Beginn jedes
+ * Ticks in der Reihenfolge des Eintreffens. Damit
+ * verändert nur der Ticker Thread die Stellwerks-
+ * elemente. Die Plätze sind fest angelegt, ein Platz
+ * wird mit compareAndSet reserviert und durch das
+ * Schreiben der Referenz freigegeben, es gibt keine
+ * Sperren.
+ *
+ * @author matthias
+ */
+public class CommandQueue {
+    private final int mask;
+    private final AtomicReferenceArray<TickCommand> slots;
+    private final long[] submitted;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long executed = 0;
+    private volatile long failed = 0;
+    private volatile long lastLatency = 0;
+    private volatile long maxLatency = 0;
+
+    /**
+     * @param size Anzahl der Plätze, muss eine Zweierpotenz sein.
+     */
+    public CommandQueue(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Queue size must be a power of two.");
+        }
+
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        submitted = new long[size];
+    }
+
+    /**
+     * Stellt ein Kommando ein. Ist die Warteschlange
+     * voll, wird es verworfen und gezählt.
+     *
+     * @param cmd
+     * @return false wenn das Kommando verworfen wurde.
+     */
+    public boolean submit(TickCommand cmd) {
+        long now = System.nanoTime();
+        for (;;) {
+            long t = tail.get();
+            if (t - head > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            if (tail.compareAndSet(t, t + 1)) {
+                int ix = (int) t & mask;
+                submitted[ix] = now;
+                slots.lazySet(ix, cmd);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Führt alle eingestellten Kommandos aus. Wird nur
+     * vom Ticker Thread aufgerufen. Ein Platz, der zwar
+     * reserviert aber noch nicht beschrieben ist, beendet
+     * den Durchlauf, das Kommando folgt im nächsten Tick.
+     *
+     * @param count
+     * @return Anzahl der ausgeführten Kommandos
+     */
+    int drain(int count) {
+        int n = 0;
+        for (;;) {
+            int ix = (int) head & mask;
+            TickCommand cmd = slots.get(ix);
+            if (cmd == null) {
+                return n;
+            }
+
+            long since = submitted[ix];
+            slots.lazySet(ix, null);
+            head++;
+            try {
+                cmd.execute(count);
+            } catch (RuntimeException ex) {
+                failed++;
+                System.out.println("Command failed: " + ex);
+            }
+
+            long latency = System.nanoTime() - since;
+            lastLatency = latency;
+            if (latency > maxLatency) {
+                maxLatency = latency;
+            }
+
+            executed++;
+            n++;
+        }
+    }
+
+    /**
+     * Anzahl der ausgeführten Kommandos.
+     *
+     * @return
+     */
+    public long getExecuted() {
+        return executed;
+    }
+
+    /**
+     * Anzahl der Kommandos, die mit einer Exception
+     * abgebrochen sind.
+     *
+     * @return
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Anzahl der wegen voller Warteschlange verworfenen
+     * Kommandos.
+     *
+     * @return
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Zeit vom Einstellen bis zum Ende der Ausführung
+     * beim letzten Kommando in Nanosekunden.
+     *
+     * @return
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Größte bisher gemessene Latenz in Nanosekunden.
+     *
+     * @return
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "Commands: executed " + executed
+                + ", failed " + failed
+                + ", dropped " + dropped.get()
+                + ", latency " + TimeUnit.NANOSECONDS.toMicros(lastLatency) + "us"
+                + " (max " + TimeUnit.NANOSECONDS.toMicros(maxLatency) + "us)";
+    }
+}
@@ -4,9 +4,24 @@
  */
 package de.mmth.drs2;
 
-import de.mmth.drs2.fx.MainPane;
+import de.mmth.drs2.emu.BoardEmulator;
+import de.mmth.drs2.emu.Drs2Emulator;
+import de.mmth.drs2.emu.EmulatorScript;
+import de.mmth.drs2.emu.IoBoardEmulator;
+import de.mmth.drs2.io.BoardConfig;
+import de.mmth.drs2.io.CaptureRecorder;
+import de.mmth.drs2.io.CaptureReplay;
+import de.mmth.drs2.io.CaptureTransport;
 import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.MemoryTransport;
+import de.mmth.drs2.io.PtyTransport;
+import de.mmth.drs2.io.SerialTransport;
+import de.mmth.drs2.io.Transport;
 import de.mmth.drs2.io.Uart;
+import de.mmth.drs2.jfr.AlertEvent;
+import de.mmth.drs2.log.EventCode;
+import de.mmth.drs2.log.EventLog;
+import de.mmth.drs2.log.LogLevel;
 import de.mmth.drs2.parts.Blinklicht;
 import de.mmth.drs2.parts.Counter;
 import de.mmth.drs2.parts.Durchfahrt;
@@ -22,7 +37,8 @@ import de.mmth.drs2.parts.StreckeAusfahrt2;
 import de.mmth.drs2.parts.StreckeEinfahrt2;
 import de.mmth.drs2.parts.Weiche;
 import de.mmth.drs2.parts.state.RedWhiteList;
-import javafx.stage.Stage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -96,6 +112,24 @@ public class Config implements TickerEvent {
      */
     public Ticker ticker = null;
     
+    /**
+     * Zustand am Ende des letzten Ticks für alle
+     * Beobachter außerhalb des Ticker Threads.
+     */
+    public SnapshotPublisher snapshots = null;
+    
+    /**
+     * Kommandos von der Oberfläche und anderen Threads
+     * an den Ticker.
+     */
+    public final CommandQueue commands = new CommandQueue(256);
+    
+    /**
+     * Protokoll für alle Meldungen aus dem Ticker, ersetzt
+     * die direkte Ausgabe auf System.out.
+     */
+    public final EventLog log = new EventLog();
+    
     /**
      * Anbindung der DRS 2 Hardware. Das Modul stellt
      * die DRS 2 Ein- und Ausgänge als boolean Array
@@ -103,7 +137,7 @@ public class Config implements TickerEvent {
      * Mit jedem TickerEvent werden die Eingänge 
      * eingelesen und die Ausgänge aktualisiert.
      */
-    public final Connector connector = new Connector();
+    public final Connector connector = new Connector(log);
     
     /**
      * Liste der Weichen auf dem Stellpult.
@@ -153,17 +187,41 @@ public class Config implements TickerEvent {
     public final StreckeEinfahrt2[] streckenEin = new StreckeEinfahrt2[ANZAHL_STRECKEN_EIN];
     public final StreckeAusfahrt2[] streckenAus = new StreckeAusfahrt2[ANZAHL_STRECKEN_AUS];
     
-    public final RedWhiteList rwList = new RedWhiteList();
+    public final RedWhiteList rwList = new RedWhiteList(log);
+    /**
+     * Verbindungen zu allen Platinen in der Reihenfolge
+     * der Konfiguration.
+     */
+    public Uart[] uarts;
+    
     /**
      * Verbindung zum externen Streckenblock-Adapter und DRS2
      */
     public Uart uart1, uart2;
     
     /**
-     * JavaFX Anzeige des Systemzustands.
+     * Emulation der Platinen, nur belegt wenn mit
+     * -Ddrs2.transport=emulator gestartet wurde.
+     * ioEmulator und drs2Emulator sind die ersten
+     * Platinen ihrer Art.
+     */
+    public BoardEmulator[] emulators;
+    public IoBoardEmulator ioEmulator;
+    public Drs2Emulator drs2Emulator;
+    
+    /**
+     * Angehängte Oberfläche, z.B. die JavaFX MainPane,
+     * null ohne Oberfläche. Config selbst verwendet kein
+     * JavaFX und läuft damit auch ohne Anzeige.
+     */
+    public volatile Frontend frontend;
+    
+    /**
+     * Bei false startet init keinen Thread für das
+     * EventLog, die Einträge werden dann von außen über
+     * EventLog.poll ausgegeben, z.B. im StationHost.
      */
-    public MainPane mainPane;
-    public Stage stage;
+    public boolean logThread = true;
     
     /**
      * Zähler für die Betätigung eines Ersatzsignals.
@@ -197,7 +255,12 @@ public class Config implements TickerEvent {
      * Initialisiert die Systemkonfiguration
      */
     public void init() {
+        initLog();
         ticker = new Ticker(this);
+        ticker.setCatchUpPolicy(CatchUpPolicy.valueOf(System.getProperty("drs2.catchup", "CATCH_UP")),
+                Integer.getInteger("drs2.catchup.max", 4));
+        initSpeed();
+        initProfiler();
         initWeichen();
         initSignale();
         initErsatzsignale();
@@ -216,9 +279,160 @@ public class Config implements TickerEvent {
         blinklicht.init(this);
         
         //Uart.createUarts(this, "/dev/ttyAMA2", "/dev/ttyAMA1", connector.polarity);        
-        Uart.createUarts(this, "/dev/ttyUSB0", "/dev/ttyUSB1", connector.polarity);        
+        initTransports();
         ticker.add(this);
         ticker.add(rwList);
+        snapshots = new SnapshotPublisher(this);
+    }
+    
+    /**
+     * Startet das EventLog. -Ddrs2.log.level setzt die
+     * Stufen, z.B. INFO,OUTPUT=DEBUG, -Ddrs2.log.console
+     * die Stufe für die Konsole. Mit -Ddrs2.log wird
+     * zusätzlich in die angegebene Datei geschrieben, sie
+     * wird ab -Ddrs2.log.size MByte gewechselt, es werden
+     * -Ddrs2.log.files alte Dateien aufbewahrt.
+     */
+    private void initLog() {
+        log.configure(System.getProperty("drs2.log.level", "INFO"));
+        log.setConsoleLevel(LogLevel.valueOf(System.getProperty("drs2.log.console", "INFO")));
+        String logFile = System.getProperty("drs2.log");
+        if (logFile != null) {
+            try {
+                log.openFile(logFile, (long) Integer.getInteger("drs2.log.size", 4) << 20,
+                        Integer.getInteger("drs2.log.files", 3));
+            } catch (IOException ex) {
+                System.out.println("Event log " + logFile + " not opened: " + ex.getMessage());
+            }
+        }
+        
+        if (logThread) {
+            log.start();
+        }
+    }
+    
+    /**
+     * Mit -Ddrs2.speed läuft der Ticker in virtueller
+     * Zeit, z.B. 10 für zehnfache Geschwindigkeit oder
+     * max für Ticks ohne Pause (siehe Ticker.setTimeScale).
+     */
+    private void initSpeed() {
+        String speed = System.getProperty("drs2.speed", "1");
+        ticker.setTimeScale(speed.equals("max") ? 0 : Double.parseDouble(speed));
+    }
+    
+    /**
+     * Die Laufzeitmessung des Tickers ist eingeschaltet,
+     * mit -Ddrs2.profile=false wird sie abgeschaltet.
+     * -Ddrs2.profile.log gibt den Abstand der
+     * Zusammenfassung im Log in Sekunden an, 0 schaltet
+     * sie ab. Sie enthält auch die Zähler der Platinen.
+     */
+    private void initProfiler() {
+        var profiler = ticker.getProfiler();
+        profiler.setEnabled(!"false".equals(System.getProperty("drs2.profile")));
+        int logSeconds = Integer.getInteger("drs2.profile.log", 300);
+        if (profiler.isEnabled() && logSeconds > 0) {
+            profiler.startLog(TimeUnit.SECONDS.toMillis(logSeconds), ticker::getOverrunCount,
+                    connector::boardSummary);
+        }
+    }
+    
+    /**
+     * Legt die Verbindungen zu den Platinen an. Ohne
+     * -Ddrs2.boards gibt es die IO Platine auf
+     * -Ddrs2.port1 und die DRS2 auf -Ddrs2.port2, sonst
+     * werden die Platinen aus der angegebenen Datei
+     * gelesen (siehe BoardConfig).
+     * 
+     * Über -Ddrs2.transport wird zwischen serial
+     * (Standard), pty, emulator, replay und memory
+     * gewählt. memory verbindet keine Platinen, die
+     * Eingänge kommen dann aus der Simulation. Im
+     * Emulator kann mit -Ddrs2.script ein Skript für die
+     * Eingänge gestartet werden, die Leitung wird mit
+     * -Ddrs2.emulator.baud nachgebildet (0 = ohne
+     * Verzögerung).
+     * 
+     * Mit -Ddrs2.capture wird der Datenverkehr in die
+     * angegebene Datei aufgezeichnet, replay spielt die
+     * Datei aus -Ddrs2.replay wieder ab, mit
+     * -Ddrs2.replay.speed=fast ohne Pausen. Der Kanal
+     * in der Aufzeichnung ist die Nummer der Platine,
+     * beginnend mit 1.
+     */
+    private void initTransports() {
+        BoardConfig[] boards;
+        try {
+            boards = BoardConfig.configured(connector.polarity);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Board configuration " + System.getProperty("drs2.boards")
+                    + " not loaded: " + ex.getMessage(), ex);
+        }
+        
+        String kind = System.getProperty("drs2.transport", "serial");
+        if (kind.equals("emulator")) {
+            emulators = new BoardEmulator[boards.length];
+        }
+        
+        Transport[] transports = new Transport[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            String device = boards[i].getDevice();
+            switch (kind) {
+                case "emulator":
+                    var emulator = BoardEmulator.create(boards[i]);
+                    emulator.setBaudRate(Integer.getInteger("drs2.emulator.baud", 115200));
+                    emulators[i] = emulator;
+                    if ((emulator instanceof IoBoardEmulator) && (ioEmulator == null)) {
+                        ioEmulator = (IoBoardEmulator) emulator;
+                    } else if ((emulator instanceof Drs2Emulator) && (drs2Emulator == null)) {
+                        drs2Emulator = (Drs2Emulator) emulator;
+                    }
+                    transports[i] = emulator;
+                    break;
+
+                case "pty":
+                    transports[i] = new PtyTransport(device);
+                    break;
+
+                case "replay":
+                    String replay = System.getProperty("drs2.replay", "drs2.capture");
+                    boolean realTime = !"fast".equals(System.getProperty("drs2.replay.speed"));
+                    transports[i] = new CaptureReplay(replay, i + 1, realTime);
+                    break;
+
+                case "memory":
+                    transports[i] = new MemoryTransport(device);
+                    break;
+
+                default:
+                    transports[i] = new SerialTransport(device);
+                    break;
+            }
+        }
+        
+        String capture = System.getProperty("drs2.capture");
+        if (capture != null) {
+            try {
+                var recorder = new CaptureRecorder(capture, Integer.getInteger("drs2.capture.size", 64) << 20);
+                for (int i = 0; i < transports.length; i++) {
+                    transports[i] = new CaptureTransport(transports[i], recorder, i + 1);
+                }
+            } catch (IOException ex) {
+                System.out.println("Capture " + capture + " not started: " + ex.getMessage());
+            }
+        }
+        
+        Uart.createUarts(this, boards, transports);
+        
+        String script = System.getProperty("drs2.script");
+        if ((script != null) && (emulators != null)) {
+            try {
+                EmulatorScript.start(script, emulators);
+            } catch (IOException ex) {
+                System.out.println("Emulator script " + script + " not loaded: " + ex.getMessage());
+            }
+        }
     }
     
     /**
@@ -801,8 +1015,29 @@ public class Config implements TickerEvent {
      * @param message 
      */
     public void alert(String message) {
-        System.out.println(message);
-        mainPane.addMessage(message);
+        alert(AlertCategory.SYSTEM, message);
+    }
+    
+    /**
+     * Gibt eine Benachrichtigung einer Kategorie aus,
+     * nach der im Nachrichtenfenster gefiltert werden
+     * kann.
+     * 
+     * @param category
+     * @param message 
+     */
+    public void alert(AlertCategory category, String message) {
+        var event = new AlertEvent();
+        if (event.shouldCommit()) {
+            event.message = message;
+            event.commit();
+        }
+        
+        log.log(EventCode.ALERT, message);
+        var fe = frontend;
+        if (fe != null) {
+            fe.addMessage(category, message);
+        }
     }
 
     /**
@@ -826,6 +1061,10 @@ public class Config implements TickerEvent {
             alert("Tastenfeld " + (tastenAnschalter ? "eingeschaltet." : "abgeschaltet."));
         }
         
+        // Die Fahrstraßen werden nur noch bei Bedarf aufgerufen,
+        // der Wechsel der Pause Taste wird deshalb hier gemeldet.
+        checkPause();
+        
         // angemeldete Zugfahrten bleiben nicht stehen wenn sie nicht genutzt werden.
         if (pendingTrainH > 0) {
             pendingTrainH--;
@@ -44,7 +44,7 @@ public class Drs2 extends Application {
         MainPane main = new MainPane(config);
         StackPane root = new StackPane();
         root.getChildren().add(main);
-        config.mainPane = main;
+        config.frontend = main;
         
         Scene scene = new Scene(root, 1860, 940);
         
@@ -55,6 +55,7 @@ public class Drs2 extends Application {
             try {
                 config.ticker.interrupt();
                 config.connector.tick(0);
+                config.log.close();
                 primaryStage.close();
                 System.exit(0);
             } catch (Exception ex) {
@@ -62,7 +63,6 @@ public class Drs2 extends Application {
             }
         });
         
-        config.stage = primaryStage;
         config.ticker.start();
     }
     
@@ -0,0 +1,23 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Oberfläche, die sich an eine laufende Config anhängt,
+ * z.B. die JavaFX MainPane. Ohne Oberfläche erscheinen
+ * die Meldungen nur im EventLog.
+ *
+ * @author matthias
+ */
+public interface Frontend {
+    /**
+     * Zeigt eine Meldung an, wird aus dem Ticker Thread
+     * aufgerufen und darf nicht warten.
+     *
+     * @param category
+     * @param message
+     */
+    void addMessage(AlertCategory category, String message);
+}
@@ -0,0 +1,235 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+import de.mmth.drs2.emu.EmulatorScript;
+import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.parts.Ersatzsignal;
+import de.mmth.drs2.parts.Signal;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startet die Stellpultsteuerung ohne JavaFX, z.B. auf
+ * einem Server, in einem Container oder auf dem Pi
+ * ohne Anzeige:
+ *
+ * <pre>
+ * java -cp drs2.jar:jSerialComm.jar de.mmth.drs2.Headless
+ * </pre>
+ *
+ * Config, Ticker und die Platinen laufen wie mit der
+ * Oberfläche, die Meldungen erscheinen über das
+ * EventLog auf der Konsole. Von der Konsole werden
+ * Kommandos gelesen, siehe help. Mit -Ddrs2.console=false
+ * oder wenn die Eingabe endet, läuft die Steuerung bis
+ * zum Beenden des Prozesses weiter.
+ *
+ * Eine Oberfläche kann sich über Config.frontend
+ * anhängen, die JavaFX Oberfläche startet weiterhin
+ * über Drs2.
+ *
+ * @author matthias
+ */
+public class Headless {
+    private static final String HELP =
+            "status                 Weichen, Signale und Fahrstraßen\r\n"
+          + "profile                Laufzeiten, Latenzen und Platinen\r\n"
+          + "log <Stufen>           z.B. log INFO,OUTPUT=DEBUG\r\n"
+          + "set|press|flood|wait   Kommandos der Platinen Emulation (EmulatorScript)\r\n"
+          + "quit                   Beenden\r\n";
+
+    private final Config config;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    public Headless(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Initialisiert die Config und startet den Ticker.
+     * 
+     * @throws Exception
+     */
+    public void start() throws Exception {
+        config.init();
+        config.connector.init(config);
+        config.connector.setOut(Connector.V24_OUT, true);
+        config.ticker.start();
+    }
+
+    /**
+     * Hält den Ticker an, schaltet die Ausgänge ab und
+     * schreibt das EventLog zu Ende. Darf mehrfach
+     * aufgerufen werden.
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+
+        config.ticker.interrupt();
+        config.connector.tick(0);
+        config.log.close();
+    }
+
+    /**
+     * Liest Kommandos, bis quit eingegeben wird oder die
+     * Eingabe endet.
+     *
+     * @param in
+     * @param out
+     * @return true wenn quit eingegeben wurde.
+     * @throws IOException
+     */
+    public boolean console(BufferedReader in, PrintStream out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!execute(line.trim(), out)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Führt ein Kommando aus.
+     *
+     * @param line
+     * @param out
+     * @return false bei quit.
+     */
+    public boolean execute(String line, PrintStream out) {
+        String[] args = line.split("\\s+");
+        switch (args[0]) {
+            case "":
+                break;
+
+            case "quit":
+            case "exit":
+                return false;
+
+            case "status":
+                out.print(status(config));
+                break;
+
+            case "profile":
+                out.print(config.ticker.getProfiler().summary(false, config.ticker.getOverrunCount()));
+                out.print(config.connector.getTracer().summary());
+                out.print(config.connector.boardSummary());
+                break;
+
+            case "log":
+                try {
+                    config.log.configure((args.length > 1) ? args[1] : "INFO");
+                } catch (IllegalArgumentException ex) {
+                    out.println("Unknown level or category: " + ex.getMessage());
+                }
+                break;
+
+            case "set":
+            case "press":
+            case "flood":
+            case "wait":
+                emulate(line, out);
+                break;
+
+            case "help":
+                out.print(HELP);
+                break;
+
+            default:
+                out.println("Unknown command " + args[0] + ", see help.");
+                break;
+        }
+
+        return true;
+    }
+
+    private void emulate(String line, PrintStream out) {
+        if (config.emulators == null) {
+            out.println("No emulated boards, start with -Ddrs2.transport=emulator.");
+            return;
+        }
+
+        try {
+            new EmulatorScript(new StringReader(line), config.emulators).run();
+        } catch (IOException | RuntimeException ex) {
+            out.println("Command failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Zustand der Stellwerkselemente aus dem aktuellen
+     * Snapshot.
+     *
+     * @param config
+     * @return
+     */
+    public static String status(Config config) {
+        var buf = new StringBuilder();
+        var snap = config.snapshots.acquire();
+        try {
+            buf.append("Tick ").append(snap.getVersion())
+                    .append(snap.isTastenAnschalter() ? ", Tastenfeld ein" : ", Tastenfeld aus")
+                    .append("\r\n");
+            for (int i = 0; i < config.weichen.length; i++) {
+                buf.append("  ").append(config.weichen[i].getName()).append(": ")
+                        .append(snap.isWeicheRunning(i) ? "Umlauf" : (snap.isWeichePlus(i) ? "Plus" : "Minus"))
+                        .append(snap.isWeicheLocked(i) ? ", Sperre" : "")
+                        .append(snap.isWeicheGestoert(i) ? ", gestört" : "")
+                        .append("\r\n");
+            }
+
+            for (int i = 0; i < config.signale.length; i++) {
+                buf.append("  ").append(Signal.describe(config.signale[i].getName(),
+                        snap.isSignalGestoert(i), snap.isSignalSh1(i), snap.isSignalFahrt(i))).append("\r\n");
+            }
+
+            for (int i = 0; i < config.ersatzsignale.length; i++) {
+                buf.append("  ").append(Ersatzsignal.describe(config.ersatzsignale[i].getName(),
+                        snap.isErsatzsignalFahrt(i))).append("\r\n");
+            }
+
+            for (int i = 0; i < config.fahrstrassen.length; i++) {
+                buf.append("  ").append(config.fahrstrassen[i].getName()).append(": ")
+                        .append(snap.isFahrstrasseLocked(i) ? "Belegt" : "Frei").append("\r\n");
+            }
+        } finally {
+            config.snapshots.release(snap);
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * @param args the command line arguments
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("drs2 headless");
+        var headless = new Headless(new Config());
+        headless.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(headless::stop, "Shutdown"));
+
+        boolean quit = false;
+        if (!"false".equals(System.getProperty("drs2.console"))) {
+            var in = new BufferedReader(new InputStreamReader(System.in));
+            quit = headless.console(in, System.out);
+        }
+
+        if (!quit) {
+            headless.config.ticker.join();
+        }
+
+        headless.stop();
+        System.exit(0);
+    }
+}
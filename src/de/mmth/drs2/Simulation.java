@@ -0,0 +1,139 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+import de.mmth.drs2.emu.Scenario;
+import de.mmth.drs2.io.Connector;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation der Stellpultsteuerung in virtueller Zeit,
+ * z.B. für Regressionsläufe, zum Vorbereiten von
+ * Übungsszenarien oder um die Laufzeit der Logik je
+ * Tick zu messen:
+ *
+ * <pre>
+ * java -cp drs2.jar de.mmth.drs2.Simulation szenario.txt 24h
+ * </pre>
+ *
+ * Ohne weitere Angaben werden die Platinen durch den
+ * MemoryTransport ersetzt (-Ddrs2.transport=memory) und
+ * der Ticker läuft ohne Pausen (-Ddrs2.speed=max). Die
+ * Ticks werden dann direkt im aufrufenden Thread
+ * ausgeführt. Mit -Ddrs2.speed=10 läuft der Ticker
+ * Thread zehnmal so schnell wie in Echtzeit.
+ *
+ * Die Eingänge kommen aus dem Scenario. Ohne Dauer
+ * endet die Simulation mit dem Szenario, sonst nach
+ * der angegebenen virtuellen Zeit. Fehlgeschlagene
+ * expect Anweisungen führen zum Exit Code 1.
+ *
+ * @author matthias
+ */
+public class Simulation {
+    private final Config config;
+    private final Scenario scenario;
+    private final long durationMillis;
+
+    /**
+     * @param config initialisierte Config, der Ticker darf
+     * noch nicht laufen.
+     * @param scenario
+     * @param durationMillis virtuelle Laufzeit, 0 bis zum
+     * Ende des Szenarios.
+     */
+    public Simulation(Config config, Scenario scenario, long durationMillis) {
+        this.config = config;
+        this.scenario = scenario;
+        this.durationMillis = durationMillis;
+        config.ticker.add(TickPhase.INPUT, "Szenario", scenario);
+    }
+
+    /**
+     * Lässt die Simulation bis zum Ende laufen.
+     *
+     * @throws InterruptedException
+     */
+    public void run() throws InterruptedException {
+        var ticker = config.ticker;
+        if (ticker.isUnpaced()) {
+            while (!isDone()) {
+                ticker.step();
+            }
+            return;
+        }
+
+        ticker.start();
+        while (!isDone()) {
+            Thread.sleep(10);
+        }
+        ticker.interrupt();
+        ticker.join();
+    }
+
+    private boolean isDone() {
+        if (durationMillis > 0) {
+            return config.ticker.getSimulatedMillis() >= durationMillis;
+        }
+
+        return scenario.isFinished();
+    }
+
+    /**
+     * Gibt virtuelle Zeit, Laufzeit und die Messungen des
+     * Tickers aus.
+     *
+     * @param out
+     * @param wallNanos
+     */
+    public void report(PrintStream out, long wallNanos) {
+        var ticker = config.ticker;
+        long simulated = ticker.getSimulatedMillis();
+        long wall = Math.max(1, TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        out.println("Simulated " + TimeUnit.MILLISECONDS.toSeconds(simulated) + " s in " + wall + " ms, "
+                + ticker.getTickCount() + " ticks, "
+                + (ticker.getTickCount() * 1000L / wall) + " ticks/s, factor " + (simulated / wall));
+        out.print(ticker.getProfiler().summary(false, ticker.getOverrunCount()));
+        out.println("Scenario " + (scenario.isFinished() ? "finished" : "running")
+                + ", failures " + scenario.getFailures()
+                + ", event log dropped " + config.log.getDropped());
+    }
+
+    /**
+     * @param args Szenario und optional die Dauer, z.B. 24h
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: Simulation <scenario> [duration]");
+            System.exit(2);
+        }
+
+        if (System.getProperty("drs2.transport") == null) {
+            System.setProperty("drs2.transport", "memory");
+        }
+        if (System.getProperty("drs2.speed") == null) {
+            System.setProperty("drs2.speed", "max");
+        }
+
+        var config = new Config();
+        config.init();
+        config.connector.init(config);
+        config.connector.setOut(Connector.V24_OUT, true);
+
+        var scenario = new Scenario(new FileReader(args[0]), config, System.out);
+        long duration = (args.length > 1) ? Scenario.parseMillis(args[1]) : 0;
+        var simulation = new Simulation(config, scenario, duration);
+
+        long start = System.nanoTime();
+        simulation.run();
+        simulation.report(System.out, System.nanoTime() - start);
+
+        config.log.close();
+        System.exit((scenario.getFailures() == 0) ? 0 : 1);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.PortBits;
+import de.mmth.drs2.parts.state.SwitchState;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zustand aller Ein- und Ausgänge und der Stellwerks-
+ * elemente am Ende eines Ticks.
+ *
+ * Ein Snapshot wird nur vom Ticker Thread gefüllt und
+ * danach über den SnapshotPublisher veröffentlicht. Für
+ * alle anderen Threads ist er unveränderlich, solange
+ * sie ihn mit acquire festhalten.
+ *
+ * @author matthias
+ */
+public final class Snapshot {
+    private long version;
+    private long nanoTime;
+    private final PortBits inputs = new PortBits(Connector.PORT_COUNT);
+    private final PortBits outputs = new PortBits(Connector.PORT_COUNT);
+
+    private final boolean[] weichePlus = new boolean[Config.ANZAHL_WEICHEN];
+    private final boolean[] weicheRunning = new boolean[Config.ANZAHL_WEICHEN];
+    private final boolean[] weicheLocked = new boolean[Config.ANZAHL_WEICHEN];
+    private final boolean[] weicheGestoert = new boolean[Config.ANZAHL_WEICHEN];
+    private final SwitchState[] weicheState = new SwitchState[Config.ANZAHL_WEICHEN];
+
+    private final boolean[] signalFahrt = new boolean[Config.ANZAHL_SIGNALE];
+    private final boolean[] signalSh1 = new boolean[Config.ANZAHL_SIGNALE];
+    private final boolean[] signalGestoert = new boolean[Config.ANZAHL_SIGNALE];
+
+    private final boolean[] ersatzsignalFahrt = new boolean[Config.ANZAHL_ERSATZSIGNALE];
+    private final boolean[] fahrstrasseLocked = new boolean[Config.ANZAHL_FAHRSTRASSEN];
+
+    private boolean tastenAnschalter;
+    private int pendingTrainH;
+    private int pendingTrainM;
+
+    /**
+     * Anzahl der Leser, die diesen Snapshot gerade
+     * festhalten. Nur der SnapshotPublisher verwendet
+     * diesen Zähler.
+     */
+    final AtomicInteger readers = new AtomicInteger();
+
+    /**
+     * Übernimmt den aktuellen Zustand, wird vom Ticker
+     * am Ende des Ticks aufgerufen.
+     *
+     * @param config
+     * @param count
+     */
+    void fill(Config config, long count) {
+        version = count;
+        nanoTime = System.nanoTime();
+        config.connector.copyTo(inputs, outputs);
+
+        for (int i = 0; i < weichePlus.length; i++) {
+            var weiche = config.weichen[i];
+            weichePlus[i] = weiche.isPlus();
+            weicheRunning[i] = weiche.isRunning();
+            weicheLocked[i] = weiche.isLocked();
+            weicheGestoert[i] = weiche.isGestoert();
+            weicheState[i] = weiche.getState();
+        }
+
+        for (int i = 0; i < signalFahrt.length; i++) {
+            var signal = config.signale[i];
+            signalFahrt[i] = signal.isFahrt();
+            signalSh1[i] = signal.isSh1();
+            signalGestoert[i] = signal.isGestoert();
+        }
+
+        for (int i = 0; i < ersatzsignalFahrt.length; i++) {
+            ersatzsignalFahrt[i] = config.ersatzsignale[i].isFahrt();
+        }
+
+        for (int i = 0; i < fahrstrasseLocked.length; i++) {
+            fahrstrasseLocked[i] = config.fahrstrassen[i].isLocked();
+        }
+
+        tastenAnschalter = config.tastenAnschalter;
+        pendingTrainH = config.pendingTrainH;
+        pendingTrainM = config.pendingTrainM;
+    }
+
+    /**
+     * Nummer des Ticks, an dessen Ende der Snapshot
+     * erstellt wurde. Sie steigt mit jedem Snapshot.
+     *
+     * @return
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Zeitpunkt der Erstellung als System.nanoTime.
+     *
+     * @return
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    public boolean isInSet(int portNo) {
+        return inputs.get(portNo);
+    }
+
+    public boolean isOutSet(int portNo) {
+        return outputs.get(portNo);
+    }
+
+    public boolean isWeichePlus(int index) {
+        return weichePlus[index];
+    }
+
+    public boolean isWeicheRunning(int index) {
+        return weicheRunning[index];
+    }
+
+    public boolean isWeicheLocked(int index) {
+        return weicheLocked[index];
+    }
+
+    public boolean isWeicheGestoert(int index) {
+        return weicheGestoert[index];
+    }
+
+    public SwitchState getWeicheState(int index) {
+        return weicheState[index];
+    }
+
+    public boolean isSignalFahrt(int index) {
+        return signalFahrt[index];
+    }
+
+    public boolean isSignalSh1(int index) {
+        return signalSh1[index];
+    }
+
+    public boolean isSignalGestoert(int index) {
+        return signalGestoert[index];
+    }
+
+    public boolean isErsatzsignalFahrt(int index) {
+        return ersatzsignalFahrt[index];
+    }
+
+    public boolean isFahrstrasseLocked(int index) {
+        return fahrstrasseLocked[index];
+    }
+
+    public boolean isTastenAnschalter() {
+        return tastenAnschalter;
+    }
+
+    public int getPendingTrainH() {
+        return pendingTrainH;
+    }
+
+    public int getPendingTrainM() {
+        return pendingTrainM;
+    }
+}
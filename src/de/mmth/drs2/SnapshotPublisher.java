@@ -0,0 +1,109 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Veröffentlicht am Ende jedes Ticks einen Snapshot
+ * für alle Beobachter außerhalb des Ticker Threads
+ * (Oberfläche, Messwerte, Netzwerk).
+ *
+ * Es gibt drei vorab angelegte Snapshots. Der Ticker
+ * füllt einen Snapshot, der weder aktuell ist noch von
+ * einem Leser festgehalten wird, und macht ihn mit
+ * einer einzigen volatile Zuweisung zum aktuellen.
+ * Leser halten den Snapshot mit acquire fest und geben
+ * ihn mit release wieder frei:
+ *
+ * <pre>
+ * Snapshot snap = config.snapshots.acquire();
+ * try {
+ *     ...
+ * } finally {
+ *     config.snapshots.release(snap);
+ * }
+ * </pre>
+ *
+ * Weder der Ticker noch die Leser warten auf eine
+ * Sperre. Halten Leser beide freien Snapshots fest,
+ * fällt die Veröffentlichung für diesen Tick aus.
+ *
+ * @author matthias
+ */
+public class SnapshotPublisher {
+    private final Config config;
+    private final Snapshot[] buffers = {new Snapshot(), new Snapshot(), new Snapshot()};
+    private volatile Snapshot current = buffers[0];
+    private volatile long skipped = 0;
+
+    /**
+     * Legt die Snapshots an, der erste enthält den
+     * Zustand vor dem ersten Tick.
+     *
+     * @param config
+     */
+    public SnapshotPublisher(Config config) {
+        this.config = config;
+        buffers[0].fill(config, -1);
+    }
+
+    /**
+     * Füllt einen freien Snapshot und veröffentlicht ihn.
+     * Wird nur vom Ticker Thread aufgerufen.
+     *
+     * @param count
+     */
+    void publish(long count) {
+        Snapshot latest = current;
+        for (Snapshot snap: buffers) {
+            if (snap != latest && snap.readers.get() == 0) {
+                snap.fill(config, count);
+                current = snap;
+                return;
+            }
+        }
+
+        skipped++;
+    }
+
+    /**
+     * Liefert den aktuellen Snapshot und hält ihn fest,
+     * bis er mit release freigegeben wird.
+     *
+     * @return
+     */
+    public Snapshot acquire() {
+        for (;;) {
+            Snapshot snap = current;
+            snap.readers.incrementAndGet();
+            if (snap == current) {
+                return snap;
+            }
+
+            // Der Ticker hat inzwischen einen neueren
+            // veröffentlicht, dieser könnte schon wieder
+            // gefüllt werden.
+            snap.readers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gibt einen mit acquire geholten Snapshot frei.
+     *
+     * @param snap
+     */
+    public void release(Snapshot snap) {
+        snap.readers.decrementAndGet();
+    }
+
+    /**
+     * Anzahl der Ticks, in denen kein freier Snapshot
+     * vorhanden war.
+     *
+     * @return
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+import de.mmth.drs2.emu.Scenario;
+import de.mmth.drs2.io.Connector;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Betreibt viele unabhängige Stellwerke in einer JVM,
+ * z.B. für einen Schulungsraum oder eine Kette von
+ * Bahnhöfen:
+ *
+ * <pre>
+ * java -cp drs2.jar de.mmth.drs2.StationHost 100 szenario.txt
+ * </pre>
+ *
+ * Jede Station hat ihre eigene Config. Die Ticks laufen
+ * nicht in einem Ticker Thread je Station, sondern auf
+ * wenigen gemeinsamen Threads (-Ddrs2.host.threads,
+ * Standard ist die Zahl der Kerne). Jede Station hat
+ * einen eigenen Termin im Raster, die Stationen sind
+ * über die Periode verteilt, damit nicht alle Ticks
+ * gleichzeitig fällig werden. Eine Station läuft nie
+ * auf zwei Threads gleichzeitig.
+ *
+ * Fehler bleiben in ihrer Station. Exceptions in den
+ * Callbacks fängt der Ticker, nach -Ddrs2.host.failures
+ * solchen Ticks (Standard 50) wird die Station
+ * angehalten. Eine Station, deren Tick länger als eine
+ * Sekunde läuft, wird in der Übersicht als hängend
+ * gemeldet, sie belegt dann einen der Threads.
+ *
+ * Je Station wird die CPU Zeit der Ticks gemessen. Ohne
+ * weitere Angaben gilt -Ddrs2.transport=memory und die
+ * Laufzeitmessung des Tickers ist abgeschaltet. Das
+ * EventLog jeder Station wird im Anschluss an ihren
+ * Tick ausgegeben, -Ddrs2.log wird nicht unterstützt.
+ *
+ * @author matthias
+ */
+public class StationHost {
+    private static final long HANG_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String HELP =
+            "status                 alle Stationen\r\n"
+          + "pause <n>              Station n anhalten\r\n"
+          + "resume <n>             Station n fortsetzen\r\n"
+          + "quit                   Beenden\r\n";
+
+    /**
+     * Eine Station mit ihrem Termin und ihren Messwerten.
+     */
+    public final class Station implements Runnable {
+        private final String name;
+        private final Config config;
+        private long deadline;
+        private ScheduledFuture<?> future;
+
+        private volatile long ticks = 0;
+        private volatile long cpuNanos = 0;
+        private volatile long maxTickNanos = 0;
+        private volatile long lateTicks = 0;
+        private volatile long runningSince = 0;
+        private volatile String failure = null;
+
+        Station(String name, Config config) {
+            this.name = name;
+            this.config = config;
+        }
+
+        /**
+         * Ein Tick der Station, läuft auf einem Thread des
+         * Hosts.
+         */
+        @Override
+        public void run() {
+            if (failure != null) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            runningSince = start;
+            long cpu = cpuTime();
+            try {
+                config.ticker.step(deadline);
+                config.log.poll();
+                if (config.ticker.getFailureCount() > maxFailures) {
+                    stop(config.ticker.getFailureCount() + " failed ticks");
+                }
+            } catch (Throwable ex) {
+                stop(ex.toString());
+            }
+
+            long end = System.nanoTime();
+            cpuNanos += cpuTime() - cpu;
+            if (end - start > maxTickNanos) {
+                maxTickNanos = end - start;
+            }
+            if (start - deadline > periodNanos) {
+                lateTicks++;
+            }
+
+            ticks++;
+            deadline += periodNanos;
+            runningSince = 0;
+        }
+
+        private long cpuTime() {
+            return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+        }
+
+        private void stop(String reason) {
+            failure = reason;
+            System.out.println("Station " + name + " stopped: " + reason);
+            synchronized (this) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * Plant die Ticks ab dem angegebenen Versatz.
+         *
+         * @param delay
+         */
+        synchronized void schedule(long delay) {
+            deadline = System.nanoTime() + delay;
+            future = executor.scheduleAtFixedRate(this, delay, periodNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Hält die Station an, ein laufender Tick wird zu
+         * Ende geführt.
+         */
+        public synchronized void pause() {
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+
+        /**
+         * Setzt eine angehaltene Station fort.
+         */
+        public synchronized void resume() {
+            if ((future == null) && (failure == null)) {
+                schedule(periodNanos);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Config getConfig() {
+            return config;
+        }
+
+        /**
+         * Eine Zeile für die Übersicht.
+         *
+         * @return
+         */
+        public String summary() {
+            String state;
+            long since = runningSince;
+            if (failure != null) {
+                state = "failed: " + failure;
+            } else if ((since != 0) && (System.nanoTime() - since > HANG_NANOS)) {
+                state = "hangs for " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since) + " ms";
+            } else {
+                synchronized (this) {
+                    state = (future == null) ? "paused" : "running";
+                }
+            }
+
+            long n = Math.max(1, ticks);
+            return name + ": ticks " + ticks
+                    + ", cpu " + TimeUnit.NANOSECONDS.toMicros(cpuNanos / n) + " us/tick"
+                    + ", max " + TimeUnit.NANOSECONDS.toMicros(maxTickNanos) + " us"
+                    + ", late " + lateTicks
+                    + ", max lateness " + TimeUnit.NANOSECONDS.toMicros(config.ticker.getMaxLateness()) + " us"
+                    + ", failures " + config.ticker.getFailureCount()
+                    + ", " + state;
+        }
+    }
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+    private final List<Station> stations = new ArrayList<>();
+    private final int carriers;
+    private final int maxFailures;
+    private long periodNanos = 0;
+    private long startNanos = 0;
+
+    /**
+     * @param carriers Anzahl der gemeinsamen Threads
+     * @param maxFailures fehlerhafte Ticks, nach denen eine
+     * Station angehalten wird.
+     */
+    public StationHost(int carriers, int maxFailures) {
+        this.carriers = carriers;
+        this.maxFailures = maxFailures;
+        var counter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(carriers, r -> {
+            var thread = new Thread(r, "Station-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Legt eine Station an und initialisiert ihre Config,
+     * nur vor start.
+     *
+     * @param name
+     * @return
+     * @throws Exception
+     */
+    public Station add(String name) throws Exception {
+        var config = new Config();
+        config.logThread = false;
+        config.init();
+        config.log.setPrefix(name + ": ");
+        config.connector.init(config);
+        config.connector.setOut(Connector.V24_OUT, true);
+        periodNanos = config.ticker.getPeriodNanos();
+
+        var station = new Station(name, config);
+        stations.add(station);
+        return station;
+    }
+
+    /**
+     * Startet die Ticks aller Stationen, verteilt über
+     * eine Periode.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        for (int i = 0; i < stations.size(); i++) {
+            stations.get(i).schedule(periodNanos * i / stations.size());
+        }
+    }
+
+    /**
+     * Hält alle Stationen an und gibt die restlichen
+     * Einträge der EventLogs aus.
+     */
+    public void stop() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Station station: stations) {
+            station.config.log.poll();
+        }
+    }
+
+    public List<Station> getStations() {
+        return stations;
+    }
+
+    /**
+     * Übersicht über alle Stationen, mit details auch
+     * eine Zeile je Station.
+     *
+     * @param details
+     * @return
+     */
+    public String summary(boolean details) {
+        var buf = new StringBuilder();
+        long cpu = 0;
+        long ticks = 0;
+        int failed = 0;
+        for (Station station: stations) {
+            cpu += station.cpuNanos;
+            ticks += station.ticks;
+            if (station.failure != null) {
+                failed++;
+            }
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+        buf.append("Stations ").append(stations.size())
+                .append(" on ").append(carriers).append(" threads, failed ").append(failed)
+                .append(", ticks ").append(ticks)
+                .append(", cpu ").append(TimeUnit.NANOSECONDS.toMicros(cpu / Math.max(1, ticks))).append(" us/tick")
+                .append(String.format(", load %.1f%% of %d cores%n", 100.0 * cpu / elapsed / carriers, carriers));
+        if (details) {
+            for (Station station: stations) {
+                buf.append("  ").append(station.summary()).append(System.lineSeparator());
+            }
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * Liest Kommandos, bis quit eingegeben wird oder die
+     * Eingabe endet.
+     *
+     * @param in
+     * @param out
+     * @return true wenn quit eingegeben wurde.
+     * @throws IOException
+     */
+    public boolean console(BufferedReader in, PrintStream out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] args = line.trim().split("\\s+");
+            try {
+                switch (args[0]) {
+                    case "":
+                        break;
+
+                    case "quit":
+                    case "exit":
+                        return true;
+
+                    case "status":
+                        out.print(summary(true));
+                        break;
+
+                    case "pause":
+                        stations.get(Integer.parseInt(args[1]) - 1).pause();
+                        break;
+
+                    case "resume":
+                        stations.get(Integer.parseInt(args[1]) - 1).resume();
+                        break;
+
+                    case "help":
+                        out.print(HELP);
+                        break;
+
+                    default:
+                        out.println("Unknown command " + args[0] + ", see help.");
+                        break;
+                }
+            } catch (RuntimeException ex) {
+                out.println("Command failed: " + ex);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param args Anzahl der Stationen und optional ein
+     * Szenario, das in jeder Station läuft.
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: StationHost <stations> [scenario]");
+            System.exit(2);
+        }
+
+        if (System.getProperty("drs2.transport") == null) {
+            System.setProperty("drs2.transport", "memory");
+        }
+        if (System.getProperty("drs2.profile") == null) {
+            System.setProperty("drs2.profile", "false");
+        }
+        if (System.getProperty("drs2.log") != null) {
+            System.out.println("drs2.log is ignored by the station host.");
+            System.clearProperty("drs2.log");
+        }
+
+        var host = new StationHost(Integer.getInteger("drs2.host.threads", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("drs2.host.failures", 50));
+        int count = Integer.parseInt(args[0]);
+        for (int i = 1; i <= count; i++) {
+            var station = host.add(String.format("S%03d", i));
+            if (args.length > 1) {
+                var config = station.getConfig();
+                config.ticker.add(TickPhase.INPUT, "Szenario",
+                        new Scenario(new FileReader(args[1]), config, System.out));
+            }
+        }
+
+        host.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(host::stop, "Shutdown"));
+
+        long report = TimeUnit.SECONDS.toMillis(Integer.getInteger("drs2.host.report", 10));
+        if (report > 0) {
+            var reporter = new Thread(() -> {
+                try {
+                    for (;;) {
+                        Thread.sleep(report);
+                        System.out.print(host.summary(false));
+                    }
+                } catch (InterruptedException ex) {
+                    // beendet
+                }
+            }, "StationReport");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+
+        if (!"false".equals(System.getProperty("drs2.console"))) {
+            host.console(new BufferedReader(new InputStreamReader(System.in)), System.out);
+        } else {
+            Thread.currentThread().join();
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Ein Kommando, das von einem beliebigen Thread in die
+ * CommandQueue gestellt und im Ticker Thread ausgeführt
+ * wird. Nur dort dürfen die Stellwerkselemente
+ * verändert werden.
+ *
+ * @author matthias
+ */
+public interface TickCommand {
+    /**
+     * Führt das Kommando im Ticker Thread aus.
+     *
+     * @param count aktueller Tick
+     */
+    public void execute(int count);
+}
@@ -0,0 +1,43 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Phasen eines Ticks. Der Ticker ruft die Phasen in
+ * dieser Reihenfolge auf, innerhalb einer Phase in der
+ * Reihenfolge der Anmeldung.
+ *
+ * @author matthias
+ */
+public enum TickPhase {
+    /**
+     * Empfangene Telegramme übernehmen und Kommandos aus
+     * der CommandQueue ausführen. Danach ist das Bild der
+     * Eingänge für den Rest des Ticks fest.
+     */
+    INPUT,
+
+    /**
+     * Stellwerkslogik der Elemente.
+     */
+    LOGIC,
+
+    /**
+     * Fällige Termine im Zeitrad.
+     */
+    TIMERS,
+
+    /**
+     * Geänderte Ausgänge mit einem Telegramm je Platine
+     * senden.
+     */
+    OUTPUT,
+
+    /**
+     * Anzeige, liest nur den Snapshot des gerade
+     * beendeten Ticks.
+     */
+    UI
+}
@@ -5,56 +5,581 @@
 
 package de.mmth.drs2;
 
+import de.mmth.drs2.jfr.TickEvent;
+import de.mmth.drs2.metrics.LatencyHistogram;
+import de.mmth.drs2.metrics.TickProfiler;
+import de.mmth.drs2.parts.ColorMarker;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * Der Ticker ruft in einem festen Raster alle
+ * registrierten TickerEvents auf, geordnet nach den
+ * Phasen aus TickPhase. So sieht jeder Tick ein
+ * festes Bild der Eingänge, und alle in LOGIC und
+ * TIMERS gesetzten Ausgänge werden noch im selben
+ * Tick gesendet.
+ *
+ * Die Termine werden als absolute System.nanoTime
+ * Werte geführt, damit sich die Laufzeit der
+ * Callbacks nicht auf die Periode aufaddiert. Bis
+ * kurz vor dem Termin wird der Thread geparkt, die
+ * letzte Strecke wird aktiv gewartet um den Jitter
+ * des Schedulers zu vermeiden.
+ *
+ * Mit setTimeScale läuft der Ticker schneller als in
+ * Echtzeit oder ohne Pausen. Alle Zeiten der Logik
+ * sind in Ticks angegeben, sie laufen damit in einer
+ * virtuellen Zeit, die sich aus der Zahl der Ticks
+ * ergibt (siehe getSimulatedMillis).
+ *
+ * Der TickProfiler misst die Laufzeit jedes Callbacks,
+ * jeder Phase und des ganzen Ticks. Zusätzlich wird
+ * jeder Tick als TickEvent an den Flight Recorder
+ * gemeldet.
  *
  * @author pi
  */
 public class Ticker extends Thread {
-    final List<TickerEvent> callbackList = new ArrayList<>();
+    /**
+     * Callbacks einer Phase mit ihren Messstellen.
+     */
+    private static class Phase {
+        final List<TickerEvent> events = new ArrayList<>();
+        final List<LatencyHistogram> probes = new ArrayList<>();
+        final LatencyHistogram duration;
+
+        Phase(TickProfiler profiler, TickPhase phase) {
+            duration = profiler.register(TickProfiler.TICKER, "phase " + phase);
+        }
+    }
+
+    private final TickProfiler profiler = new TickProfiler();
+    private final Phase inputPhase = new Phase(profiler, TickPhase.INPUT);
+    private final Phase logicPhase = new Phase(profiler, TickPhase.LOGIC);
+    private final Phase timerPhase = new Phase(profiler, TickPhase.TIMERS);
+    private final Phase outputPhase = new Phase(profiler, TickPhase.OUTPUT);
+    private final Phase uiPhase = new Phase(profiler, TickPhase.UI);
+    private final LatencyHistogram commandProbe = profiler.register(TickProfiler.TICKER, "commands");
+    private final LatencyHistogram wheelProbe = profiler.register(TickProfiler.TICKER, "timing wheel");
+    private final LatencyHistogram snapshotProbe = profiler.register(TickProfiler.TICKER, "snapshot");
     final private long TICKER_DELAY = 60;
-    private int tickCount = 0;
+    final private long periodNanos = TimeUnit.MILLISECONDS.toNanos(TICKER_DELAY);
+    private volatile long realPeriodNanos = periodNanos;
+    private volatile boolean unpaced = false;
+    private volatile int tickCount = 0;
     private final Config config;
-    
+    private final TimingWheel timingWheel = new TimingWheel();
+
+    private CatchUpPolicy catchUpPolicy = CatchUpPolicy.CATCH_UP;
+    private int maxCatchUp = 4;
+    private long spinNanos = TimeUnit.MICROSECONDS.toNanos(1000);
+
+    private volatile long overrunCount = 0;
+    private volatile long skippedTicks = 0;
+    private volatile long maxLateness = 0;
+    private volatile long failureCount = 0;
+    private boolean behindSchedule = false;
+    private volatile boolean inputPending = false;
+
     public Ticker(Config config) {
         this.config = config;
     }
-    
+
     /**
      * Ruft 16 mal pro Sekunde das Ticker Event
      * für alle registrierten Objekte auf.
      */
     @Override
     public void run() {
+        long deadline = System.nanoTime() + realPeriodNanos;
         for (;;) {
-            try {
-                Thread.sleep(TICKER_DELAY);
-            } catch (InterruptedException ex) {
+            if (unpaced) {
+                if (isInterrupted()) {
+                    break;
+                }
+
+                deadline = System.nanoTime();
+            } else if (!waitUntil(deadline)) {
                 break;
             }
-            
-            try {
-                config.stoerungsmelder.startCheckT();
-                for (TickerEvent ev: callbackList) {
-                    ev.tick(tickCount);
+
+            runTick(deadline);
+            deadline = nextDeadline(deadline + realPeriodNanos);
+        }
+    }
+
+    /**
+     * Führt sofort einen einzelnen Tick aus, ohne auf den
+     * nächsten Termin zu warten. Gedacht für Benchmarks und
+     * Tests, der Ticker Thread darf dabei nicht laufen.
+     */
+    public void step() {
+        runTick(System.nanoTime());
+    }
+
+    /**
+     * Führt einen Tick für den angegebenen Termin aus,
+     * wenn ein anderer Scheduler die Termine vorgibt
+     * (StationHost). Der Ticker Thread darf dabei nicht
+     * laufen.
+     *
+     * @param deadline Termin als System.nanoTime Wert
+     */
+    public void step(long deadline) {
+        runTick(deadline);
+    }
+
+    /**
+     * Ein Durchlauf aller Phasen.
+     *
+     * @param deadline Termin des Ticks
+     */
+    private void runTick(long deadline) {
+        var event = new TickEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long lateness = start - deadline;
+        if (lateness > maxLateness) {
+            maxLateness = lateness;
+        }
+
+        boolean profile = profiler.isEnabled();
+        if (profile) {
+            profiler.getJitter().record(lateness);
+        }
+
+        inputPending = false;
+        processInput();
+        int commands = 0;
+        try {
+            long t = profile ? System.nanoTime() : 0;
+            commands = config.commands.drain(tickCount);
+            if (profile) {
+                t = measure(commandProbe, t);
+            }
+
+            config.stoerungsmelder.startCheckT();
+            runPhase(logicPhase, profile);
+
+            runPhase(timerPhase, profile);
+            t = profile ? System.nanoTime() : 0;
+            timingWheel.advance(tickCount);
+            if (profile) {
+                t = measure(wheelProbe, t);
+            }
+
+            runPhase(outputPhase, profile);
+            t = profile ? System.nanoTime() : 0;
+            config.snapshots.publish(tickCount);
+            if (profile) {
+                measure(snapshotProbe, t);
+            }
+
+            runPhase(uiPhase, profile);
+        } catch (Throwable ex) {
+            failureCount++;
+            System.out.println(ex);
+        }
+
+        if (profile) {
+            measure(profiler.getTickDuration(), start);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.count = tickCount;
+            event.lateness = lateness;
+            event.commands = commands;
+            event.commit();
+        }
+
+        tickCount++;
+    }
+
+    /**
+     * Prüft, ob der nächste Termin schon verstrichen ist
+     * und wendet in diesem Fall die eingestellte
+     * CatchUpPolicy an. Eine Verzögerung zählt nur
+     * einmal als Overrun, auch wenn danach mehrere Ticks
+     * nachgeholt werden.
+     *
+     * @param deadline
+     * @return nächster Termin
+     */
+    private long nextDeadline(long deadline) {
+        long behind = System.nanoTime() - deadline;
+        if ((behind <= 0) || unpaced) {
+            behindSchedule = false;
+            return deadline;
+        }
+
+        if (!behindSchedule) {
+            overrunCount++;
+            behindSchedule = true;
+        }
+
+        long period = realPeriodNanos;
+        long missed = behind / period + 1;
+        switch (catchUpPolicy) {
+            case CATCH_UP:
+                if (missed > maxCatchUp) {
+                    long dropped = missed - maxCatchUp;
+                    skippedTicks += dropped;
+                    deadline += dropped * period;
                 }
-            } catch (Throwable ex) {
-                System.out.println(ex);
+                break;
+
+            case SKIP:
+                skippedTicks += missed;
+                deadline += missed * period;
+                break;
+        }
+
+        return deadline;
+    }
+
+    /**
+     * Wartet bis zum angegebenen Termin. Der Thread
+     * wird bis spinNanos vor dem Termin geparkt und
+     * wartet dann aktiv.
+     *
+     * @param deadline
+     * @return false wenn der Thread unterbrochen wurde.
+     */
+    private boolean waitUntil(long deadline) {
+        for (;;) {
+            if (isInterrupted()) {
+                return false;
+            }
+
+            if (inputPending) {
+                inputPending = false;
+                processInput();
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if ((remaining <= 0) || unpaced) {
+                return true;
+            }
+
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(this, remaining - spinNanos);
+            } else {
+                Thread.onSpinWait();
             }
-            
-            tickCount++;
         }
     }
-    
+
+    /**
+     * Ruft alle Callbacks einer Phase auf. Bei
+     * eingeschalteter Messung wird je Callback nur ein
+     * Zeitstempel genommen, das Ende des einen ist der
+     * Anfang des nächsten.
+     *
+     * @param phase
+     * @param profile
+     */
+    private void runPhase(Phase phase, boolean profile) {
+        var events = phase.events;
+        if (!profile) {
+            for (int i = 0; i < events.size(); i++) {
+                events.get(i).tick(tickCount);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        long t = start;
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).tick(tickCount);
+            t = measure(phase.probes.get(i), t);
+        }
+
+        phase.duration.record(t - start);
+    }
+
+    private static long measure(LatencyHistogram histogram, long since) {
+        long now = System.nanoTime();
+        histogram.record(now - since);
+        return now;
+    }
+
+    /**
+     * Ruft die Eingabequellen auf, damit empfangene
+     * Telegramme ohne Warten auf den nächsten Tick
+     * verarbeitet werden.
+     */
+    private void processInput() {
+        try {
+            runPhase(inputPhase, profiler.isEnabled());
+        } catch (Throwable ex) {
+            failureCount++;
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Weckt den Ticker auf, um neu empfangene Eingaben
+     * sofort zu verarbeiten. Kann von beliebigen Threads
+     * aufgerufen werden.
+     */
+    public void wakeup() {
+        inputPending = true;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Meldet eine Eingabequelle an. Sie wird zu Beginn
+     * jedes Ticks und nach jedem wakeup im Ticker
+     * Thread aufgerufen.
+     *
+     * @param ev
+     */
+    public void addInput(TickerEvent ev) {
+        add(TickPhase.INPUT, ev);
+    }
+
     /**
      * Fügt ein Objekt in die List der Objekte ein,
-     * die Ticker Events erhalten wollen.
-     * 
-     * @param ev 
+     * die Ticker Events erhalten wollen. Es wird in
+     * der Phase LOGIC aufgerufen.
+     *
+     * @param ev
      */
     public void add(TickerEvent ev) {
-        callbackList.add(ev);
+        add(TickPhase.LOGIC, ev);
+    }
+
+    /**
+     * Fügt ein Objekt für die angegebene Phase ein.
+     *
+     * @param phase
+     * @param ev
+     */
+    public void add(TickPhase phase, TickerEvent ev) {
+        String name = (ev instanceof ColorMarker) ? ((ColorMarker) ev).getName() : "";
+        add(phase, name, ev);
+    }
+
+    /**
+     * Fügt ein Objekt für die angegebene Phase ein. Der
+     * Name erscheint zusammen mit der Klasse in der
+     * Auswertung des TickProfilers.
+     *
+     * @param phase
+     * @param name
+     * @param ev
+     */
+    public void add(TickPhase phase, String name, TickerEvent ev) {
+        Phase p;
+        switch (phase) {
+            case INPUT:
+                p = inputPhase;
+                break;
+
+            case LOGIC:
+                p = logicPhase;
+                break;
+
+            case TIMERS:
+                p = timerPhase;
+                break;
+
+            case OUTPUT:
+                p = outputPhase;
+                break;
+
+            default:
+                p = uiPhase;
+                break;
+        }
+
+        p.events.add(ev);
+        p.probes.add(profiler.register(groupOf(ev), name));
+    }
+
+    /**
+     * Klassenname für die Auswertung, bei Lambdas die
+     * Klasse, in der sie stehen.
+     *
+     * @param ev
+     * @return
+     */
+    private static String groupOf(TickerEvent ev) {
+        String group = ev.getClass().getSimpleName();
+        if (group.isEmpty()) {
+            group = ev.getClass().getName();
+            group = group.substring(group.lastIndexOf('.') + 1);
+        }
+
+        int ix = group.indexOf("$$");
+        return (ix > 0) ? group.substring(0, ix) : group;
+    }
+
+    /**
+     * Liefert die Laufzeitmessung der Callbacks.
+     *
+     * @return
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Meldet einen Termin im Zeitrad für den angegebenen
+     * Tick an. Ein bereits angemeldeter Termin wird
+     * verschoben.
+     *
+     * @param entry
+     * @param tick
+     */
+    public void schedule(TimingWheel.Entry entry, int tick) {
+        timingWheel.schedule(entry, tick);
+    }
+
+    /**
+     * Meldet einen Termin im Zeitrad relativ zum
+     * aktuellen Tick an.
+     *
+     * @param entry
+     * @param ticks
+     */
+    public void scheduleIn(TimingWheel.Entry entry, int ticks) {
+        timingWheel.schedule(entry, tickCount + ticks);
+    }
+
+    /**
+     * Meldet einen Termin im Zeitrad wieder ab.
+     *
+     * @param entry
+     */
+    public void cancel(TimingWheel.Entry entry) {
+        timingWheel.cancel(entry);
+    }
+
+    /**
+     * Liefert den aktuellen Tickzähler.
+     *
+     * @return
+     */
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Stellt ein, wie verpasste Ticks behandelt werden.
+     *
+     * @param policy
+     * @param maxCatchUp maximale Anzahl nachgeholter Ticks bei CATCH_UP
+     */
+    public void setCatchUpPolicy(CatchUpPolicy policy, int maxCatchUp) {
+        this.catchUpPolicy = policy;
+        this.maxCatchUp = maxCatchUp;
+    }
+
+    /**
+     * Stellt die Zeit vor dem Termin ein, ab der aktiv
+     * gewartet wird. Bei 0 wird nur geparkt.
+     *
+     * @param micros
+     */
+    public void setSpinMicros(long micros) {
+        spinNanos = TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+
+    /**
+     * Liefert die Länge einer Periode in Nanosekunden.
+     *
+     * @return
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Stellt das Verhältnis von virtueller Zeit zu
+     * Echtzeit ein. 1 ist der normale Betrieb, 10 lässt
+     * die Ticks zehnmal so schnell laufen. Bei 0 wird
+     * nicht mehr gewartet, der nächste Tick beginnt
+     * sofort nach dem letzten. Die CatchUpPolicy gilt
+     * dann nicht.
+     *
+     * @param scale
+     */
+    public void setTimeScale(double scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Time scale " + scale);
+        }
+
+        if (scale > 0) {
+            realPeriodNanos = Math.max(1, (long) (periodNanos / scale));
+        }
+        unpaced = (scale == 0);
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Der Ticker wartet nicht auf Termine, siehe
+     * setTimeScale.
+     *
+     * @return
+     */
+    public boolean isUnpaced() {
+        return unpaced;
+    }
+
+    /**
+     * Liefert die seit dem Start vergangene virtuelle Zeit
+     * in Millisekunden, also die Zahl der Ticks mal der
+     * Periode.
+     *
+     * @return
+     */
+    public long getSimulatedMillis() {
+        return tickCount * TICKER_DELAY;
+    }
+
+    /**
+     * Anzahl der Verzögerungen, bei denen die Callbacks
+     * über den nächsten Termin hinaus gelaufen sind. Die
+     * danach nachgeholten Ticks zählen nicht erneut.
+     *
+     * @return
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Anzahl der Ticks, die durch die CatchUpPolicy
+     * verworfen wurden.
+     *
+     * @return
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * Größte Verspätung eines Ticks gegenüber seinem
+     * Termin in Nanosekunden.
+     *
+     * @return
+     */
+    public long getMaxLateness() {
+        return maxLateness;
+    }
+
+    /**
+     * Anzahl der Ticks, die durch eine Exception in einem
+     * Callback abgebrochen wurden.
+     *
+     * @return
+     */
+    public long getFailureCount() {
+        return failureCount;
     }
 }
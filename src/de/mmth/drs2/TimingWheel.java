@@ -0,0 +1,223 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2;
+
+/**
+ * Hierarchisches Zeitrad für Verzögerungen in Ticks.
+ *
+ * Komponenten melden ein Entry für einen bestimmten
+ * Tick an und werden genau dann über ihr TickerEvent
+ * aufgerufen. Solange nichts angemeldet ist, kostet
+ * eine Komponente pro Tick keine Rechenzeit.
+ *
+ * Die erste Ebene hat 256 Fächer zu je einem Tick,
+ * die drei weiteren Ebenen je 64 Fächer, die jeweils
+ * eine komplette Umdrehung der darunter liegenden
+ * Ebene abdecken. Anmelden und Abmelden sind O(1).
+ *
+ * @author matthias
+ */
+public class TimingWheel {
+    private static final int LEVEL0_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final int LEVEL0_SIZE = 1 << LEVEL0_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int MAX_DELTA = 1 << (LEVEL0_BITS + (LEVELS - 1) * LEVEL_BITS);
+
+    /**
+     * Ein Termin im Zeitrad. Das Entry wird einmal pro
+     * Komponente angelegt und beliebig oft wieder
+     * verwendet.
+     */
+    public static final class Entry {
+        private final TickerEvent callback;
+        private int deadline;
+        private Entry prev;
+        private Entry next;
+        private Entry[] slotList;
+        private int slot;
+
+        public Entry(TickerEvent callback) {
+            this.callback = callback;
+        }
+
+        /**
+         * Meldet zurück, ob der Termin noch aussteht.
+         *
+         * @return
+         */
+        public boolean isScheduled() {
+            return slotList != null;
+        }
+
+        /**
+         * Liefert den Tick, zu dem der Termin fällig ist.
+         *
+         * @return
+         */
+        public int getDeadline() {
+            return deadline;
+        }
+    }
+
+    private final Entry[][] wheel = new Entry[LEVELS][];
+    private final Entry[] firing = new Entry[1];
+    private int current = 0;
+
+    public TimingWheel() {
+        wheel[0] = new Entry[LEVEL0_SIZE];
+        for (int i = 1; i < LEVELS; i++) {
+            wheel[i] = new Entry[LEVEL_SIZE];
+        }
+    }
+
+    /**
+     * Meldet einen Termin für den angegebenen Tick an. Ein
+     * bereits angemeldeter Termin wird dabei verschoben.
+     * Liegt der Tick in der Vergangenheit, wird der Termin
+     * beim nächsten Weiterschalten ausgeführt.
+     *
+     * @param entry
+     * @param tick
+     */
+    public synchronized void schedule(Entry entry, int tick) {
+        unlink(entry);
+        entry.deadline = tick;
+        insert(entry);
+    }
+
+    /**
+     * Meldet einen Termin ab.
+     *
+     * @param entry
+     */
+    public synchronized void cancel(Entry entry) {
+        unlink(entry);
+    }
+
+    /**
+     * Führt alle Termine bis einschließlich dem
+     * angegebenen Tick aus.
+     *
+     * Die fälligen Termine werden in die eigene Liste
+     * firing übernommen und einzeln vor dem Aufruf
+     * abgemeldet. Verschiebt oder löscht ein Aufruf einen
+     * anderen noch wartenden Termin, ändert unlink damit
+     * die Liste, aus der als nächstes gelesen wird. Ein
+     * im Aufruf für genau eine Umdrehung später
+     * angemeldeter Termin landet im selben Fach der
+     * ersten Ebene, aber nicht in firing.
+     *
+     * @param tick
+     */
+    public synchronized void advance(int tick) {
+        while (current - tick <= 0) {
+            int now = current;
+            if ((now & (LEVEL0_SIZE - 1)) == 0) {
+                cascade(now);
+            }
+
+            Entry[] slots = wheel[0];
+            int index = now & (LEVEL0_SIZE - 1);
+            Entry list = slots[index];
+            slots[index] = null;
+            current = now + 1;
+
+            firing[0] = list;
+            for (Entry entry = list; entry != null; entry = entry.next) {
+                entry.slotList = firing;
+                entry.slot = 0;
+            }
+
+            Entry entry;
+            while ((entry = firing[0]) != null) {
+                unlink(entry);
+                entry.callback.tick(now);
+            }
+        }
+    }
+
+    /**
+     * Verteilt die Termine der höheren Ebenen, die in
+     * die nächste Umdrehung der ersten Ebene fallen,
+     * neu.
+     *
+     * @param now
+     */
+    private void cascade(int now) {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = LEVEL0_BITS + (level - 1) * LEVEL_BITS;
+            int index = (now >>> shift) & (LEVEL_SIZE - 1);
+            Entry list = wheel[level][index];
+            wheel[level][index] = null;
+            while (list != null) {
+                Entry entry = list;
+                list = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.slotList = null;
+                insert(entry);
+            }
+
+            if (index != 0) {
+                break;
+            }
+        }
+    }
+
+    private void insert(Entry entry) {
+        int delta = entry.deadline - current;
+        int level;
+        int index;
+        if (delta < 0) {
+            level = 0;
+            index = current & (LEVEL0_SIZE - 1);
+        } else if (delta < LEVEL0_SIZE) {
+            level = 0;
+            index = entry.deadline & (LEVEL0_SIZE - 1);
+        } else {
+            int target = (delta >= MAX_DELTA) ? current + MAX_DELTA - 1 : entry.deadline;
+            level = 1;
+            int shift = LEVEL0_BITS;
+            while ((delta >>> (shift + LEVEL_BITS)) != 0 && level < LEVELS - 1) {
+                level++;
+                shift += LEVEL_BITS;
+            }
+
+            index = (target >>> shift) & (LEVEL_SIZE - 1);
+        }
+
+        Entry[] slots = wheel[level];
+        Entry head = slots[index];
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[index] = entry;
+        entry.slotList = slots;
+        entry.slot = index;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.slotList == null) {
+            return;
+        }
+
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            entry.slotList[entry.slot] = entry.next;
+        }
+
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+
+        entry.prev = null;
+        entry.next = null;
+        entry.slotList = null;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.emu;
+
+import de.mmth.drs2.io.BoardConfig;
+import de.mmth.drs2.io.BoardProtocol;
+import de.mmth.drs2.io.ByteRing;
+import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.PortBits;
+import de.mmth.drs2.io.Transport;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Basisklasse für die Emulation einer Platine im
+ * Speicher. Die Emulation wird anstelle der seriellen
+ * Schnittstelle als Transport an die Uart übergeben.
+ *
+ * Die Kommandos der Steuerung werden in einem eigenen
+ * Thread ausgewertet. Eingänge werden mit setInput
+ * gesetzt, die Platine meldet dann wie die echte
+ * Hardware sofort ein neues Statustelegramm.
+ *
+ * @author matthias
+ */
+public abstract class BoardEmulator implements Transport, Runnable {
+    private final String name;
+    private final ByteRing toHost = new ByteRing(16384);
+    private final ByteRing fromHost = new ByteRing(1024);
+    private final byte[] work = new byte[256];
+    private volatile Runnable listener;
+    private Thread thread;
+
+    protected final PortBits inputs = new PortBits(Connector.PORT_COUNT);
+    protected final PortBits outputs = new PortBits(Connector.PORT_COUNT);
+
+    private volatile long statusFrames = 0;
+    private volatile long outputFrames = 0;
+    private volatile long commands = 0;
+    private volatile char lastCommand = ' ';
+    
+    private volatile long nanosPerByte = 0;
+    private long lineFreeAt = 0;
+
+    protected BoardEmulator(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Legt die Emulation passend zum Protokoll der
+     * Platine an.
+     *
+     * @param board
+     * @return
+     */
+    public static BoardEmulator create(BoardConfig board) {
+        if (board.getProtocol() == BoardProtocol.DRS2) {
+            return new Drs2Emulator(board.getName(), board.getPolarityMask(),
+                    board.getInputStart(), board.getOutputStart());
+        }
+
+        return new IoBoardEmulator(board.getName(), (int) board.getPolarityMask(),
+                board.getInputStart(), board.getOutputStart());
+    }
+
+    /**
+     * Wertet ein Byte von der Steuerung aus.
+     *
+     * @param b
+     */
+    protected abstract void receive(byte b);
+
+    /**
+     * Baut das Statustelegramm aus den aktuellen
+     * Eingängen auf.
+     *
+     * @param buffer
+     * @return Länge des Telegramms
+     */
+    protected abstract int encodeStatus(byte[] buffer);
+
+    /**
+     * Meldet zurück, ob der Eingang zu dieser Platine gehört.
+     *
+     * @param portNo
+     * @return
+     */
+    public abstract boolean handlesInput(int portNo);
+
+    /**
+     * Stellt die Baudrate der nachgebildeten Leitung ein,
+     * 10 Bit pro Byte. Bei 0 werden die Daten ohne
+     * Verzögerung übergeben.
+     *
+     * @param baud
+     */
+    public void setBaudRate(int baud) {
+        nanosPerByte = (baud > 0) ? TimeUnit.SECONDS.toNanos(10) / baud : 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean open() {
+        thread = new Thread(this, "Emulator " + name);
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int len = fromHost.get(work, 0, work.length);
+            if (len == 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+
+            for (int i = 0; i < len; i++) {
+                receive(work[i]);
+            }
+        }
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return toHost.available();
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        return toHost.get(buffer, offset, len);
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        int offset = 0;
+        while (offset < len) {
+            offset += fromHost.put(buffer, offset, len - offset);
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+            if (offset < len) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+
+        return len;
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sendet Bytes an die Steuerung. Ist eine Baudrate
+     * eingestellt, wird die Übertragungszeit der Leitung
+     * nachgebildet. Ist der Puffer voll, wird gewartet bis
+     * die Steuerung gelesen hat, die Daten gehen also
+     * nie verloren.
+     *
+     * @param buffer
+     * @param len
+     */
+    protected synchronized void emit(byte[] buffer, int len) {
+        long perByte = nanosPerByte;
+        if (perByte > 0) {
+            long now = System.nanoTime();
+            while (lineFreeAt - now > 0) {
+                LockSupport.parkNanos(lineFreeAt - now);
+                now = System.nanoTime();
+            }
+            
+            lineFreeAt = now + len * perByte;
+        }
+        
+        int offset = 0;
+        while (offset < len) {
+            int n = toHost.put(buffer, offset, len - offset);
+            offset += n;
+            Runnable l = listener;
+            if (l != null) {
+                l.run();
+            }
+            if (n == 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+    }
+
+    /**
+     * Sendet ein Statustelegramm mit den aktuellen Eingängen.
+     */
+    public void sendStatus() {
+        byte[] buffer = new byte[16];
+        int len;
+        synchronized (inputs) {
+            len = encodeStatus(buffer);
+        }
+
+        emit(buffer, len);
+        statusFrames++;
+    }
+
+    /**
+     * Setzt einen Eingang. Bei einer Änderung wird sofort
+     * ein Statustelegramm gesendet.
+     *
+     * @param portNo
+     * @param value
+     */
+    public void setInput(int portNo, boolean value) {
+        boolean changed;
+        synchronized (inputs) {
+            changed = inputs.set(portNo, value);
+        }
+
+        if (changed) {
+            sendStatus();
+        }
+    }
+
+    /**
+     * Meldet zurück, ob ein Eingang gesetzt ist.
+     *
+     * @param portNo
+     * @return
+     */
+    public boolean getInput(int portNo) {
+        synchronized (inputs) {
+            return inputs.get(portNo);
+        }
+    }
+
+    /**
+     * Meldet zurück, ob die Steuerung den Ausgang
+     * eingeschaltet hat.
+     *
+     * @param portNo
+     * @return
+     */
+    public boolean getOutput(int portNo) {
+        synchronized (outputs) {
+            return outputs.get(portNo);
+        }
+    }
+
+    /**
+     * Sendet die angegebene Anzahl Statustelegramme so
+     * schnell, wie die Steuerung sie abnimmt. Ist
+     * togglePort nicht negativ, wird dieser Eingang vor
+     * jedem Telegramm umgeschaltet.
+     *
+     * @param count
+     * @param togglePort
+     */
+    public void flood(int count, int togglePort) {
+        for (int i = 0; i < count; i++) {
+            if (togglePort >= 0) {
+                synchronized (inputs) {
+                    inputs.flip(togglePort);
+                }
+            }
+
+            sendStatus();
+        }
+    }
+
+    /**
+     * Übernimmt bis zu 32 Ausgänge aus einem Telegramm.
+     *
+     * @param portNo
+     * @param len
+     * @param value
+     */
+    protected void setOutputs(int portNo, int len, int value) {
+        synchronized (outputs) {
+            outputs.setBits(portNo, len, value);
+        }
+    }
+
+    /**
+     * Setzt einen einzelnen Ausgang aus einem Telegramm.
+     *
+     * @param portNo
+     * @param value
+     */
+    protected void setOutput(int portNo, boolean value) {
+        synchronized (outputs) {
+            outputs.set(portNo, value);
+        }
+    }
+
+    /**
+     * Zählt ein vollständig empfangenes Ausgabetelegramm.
+     */
+    protected void outputFrameReceived() {
+        outputFrames++;
+    }
+
+    /**
+     * Zählt ein Einzelkommando wie 'i' oder 'Q'.
+     *
+     * @param cmd
+     */
+    protected void commandReceived(byte cmd) {
+        commands++;
+        lastCommand = (char) cmd;
+    }
+
+    public long getStatusFrames() {
+        return statusFrames;
+    }
+
+    public long getOutputFrames() {
+        return outputFrames;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public char getLastCommand() {
+        return lastCommand;
+    }
+}
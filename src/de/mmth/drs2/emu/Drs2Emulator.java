@@ -0,0 +1,139 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.emu;
+
+/**
+ * Emulation der DRS2 Platine.
+ *
+ * Die Steuerung fragt mit 'Q' den Status ab, die
+ * Platine antwortet mit 'B', 6 Bytes Eingängen und 'X'.
+ * Die Ausgänge kommen als 'C', 14 Bytes und 'X' oder
+ * als Delta-Telegramm 'D', Anzahl, Paare aus Offset und
+ * Wert und 'X'. Die Eingänge 32 bis 39 und die Ausgänge
+ * 96 bis 103 gehören zum Block und werden übersprungen.
+ * Alle Nummern gelten ab dem Anfang des Ein- bzw.
+ * Ausgangsbereichs der Platine.
+ *
+ * @author matthias
+ */
+public class Drs2Emulator extends BoardEmulator {
+    private static final int IDLE = 0;
+    private static final int OUTPUTS = 1;
+    private static final int DELTA_COUNT = 2;
+    private static final int DELTA_DATA = 3;
+
+    private final int polarityLow;
+    private final int polarityHigh;
+    private final int inputStart;
+    private final int outputStart;
+
+    private int state = IDLE;
+    private final byte[] frame = new byte[32];
+    private int framePtr;
+    private int deltaCount;
+
+    /**
+     * @param name
+     * @param polarity Polarität der 6 Eingangsbytes, Byte 0 im niederwertigsten Byte.
+     * @param inputStart
+     * @param outputStart
+     */
+    public Drs2Emulator(String name, long polarity, int inputStart, int outputStart) {
+        super(name);
+        polarityLow = (int) polarity;
+        polarityHigh = (int) (polarity >>> 32);
+        this.inputStart = inputStart;
+        this.outputStart = outputStart;
+    }
+
+    @Override
+    public boolean handlesInput(int portNo) {
+        int port = portNo - inputStart;
+        return (port >= 0 && port < 32) || (port >= 40 && port < 56);
+    }
+
+    @Override
+    protected int encodeStatus(byte[] buffer) {
+        int low = inputs.getBits(inputStart, 32) ^ polarityLow;
+        int high = inputs.getBits(inputStart + 40, 16) ^ polarityHigh;
+        buffer[0] = 'B';
+        for (int i = 0; i < 4; i++) {
+            buffer[1 + i] = (byte) (low >>> (8 * i));
+        }
+        buffer[5] = (byte) high;
+        buffer[6] = (byte) (high >>> 8);
+        buffer[7] = 'X';
+        return 8;
+    }
+
+    @Override
+    protected void receive(byte b) {
+        switch (state) {
+            case IDLE:
+                if (b == 'C') {
+                    framePtr = 0;
+                    state = OUTPUTS;
+                } else if (b == 'D') {
+                    state = DELTA_COUNT;
+                } else {
+                    commandReceived(b);
+                    if (b == 'Q') {
+                        sendStatus();
+                    }
+                }
+                break;
+
+            case OUTPUTS:
+                if (framePtr < 14) {
+                    frame[framePtr++] = b;
+                } else {
+                    if (b == 'X') {
+                        for (int i = 0; i < 14; i++) {
+                            applyByte(i + 1, frame[i]);
+                        }
+                        outputFrameReceived();
+                    }
+                    state = IDLE;
+                }
+                break;
+
+            case DELTA_COUNT:
+                deltaCount = b & 0xff;
+                framePtr = 0;
+                state = (deltaCount > 0 && deltaCount <= 14) ? DELTA_DATA : IDLE;
+                break;
+
+            case DELTA_DATA:
+                if (framePtr < 2 * deltaCount) {
+                    frame[framePtr++] = b;
+                } else {
+                    if (b == 'X') {
+                        for (int i = 0; i < deltaCount; i++) {
+                            applyByte(frame[2 * i], frame[2 * i + 1]);
+                        }
+                        outputFrameReceived();
+                    }
+                    state = IDLE;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Übernimmt ein Byte des Ausgabetelegramms, Offset 1
+     * bis 12 enthält die Ausgänge 0 bis 95, 13 und 14
+     * die Ausgänge 104 bis 119.
+     *
+     * @param offset
+     * @param value
+     */
+    private void applyByte(int offset, byte value) {
+        if (offset >= 1 && offset <= 12) {
+            setOutputs(outputStart + (offset - 1) * 8, 8, value & 0xff);
+        } else if (offset == 13 || offset == 14) {
+            setOutputs(outputStart + 104 + (offset - 13) * 8, 8, value & 0xff);
+        }
+    }
+}
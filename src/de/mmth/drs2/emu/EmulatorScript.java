@@ -0,0 +1,168 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.emu;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steuert die Platinen Emulation über ein einfaches
+ * Skript, eine Anweisung pro Zeile:
+ *
+ * <pre>
+ * # Kommentar
+ * wait 500            Pause in Millisekunden
+ * set 12 1            Eingang 12 setzen (0 löscht)
+ * press 12 300        Eingang 12 für 300ms drücken
+ * press 3 12 300      Eingänge 3 und 12 gemeinsam drücken
+ * flood 10000         10000 Statustelegramme ohne Pause
+ * flood 10000 57      dto., Eingang 57 wird jedesmal umgeschaltet
+ * repeat 5            den Rest des Skripts 5 mal ausführen (0 = endlos)
+ * print Text          Text ausgeben
+ * </pre>
+ *
+ * Die Eingänge werden anhand der Nummer an die richtige
+ * Platine verteilt.
+ *
+ * @author matthias
+ */
+public class EmulatorScript implements Runnable {
+    private final BoardEmulator[] boards;
+    private final List<String[]> lines = new ArrayList<>();
+
+    /**
+     * Liest das Skript ein.
+     *
+     * @param script
+     * @param boards
+     * @throws IOException
+     */
+    public EmulatorScript(Reader script, BoardEmulator... boards) throws IOException {
+        this.boards = boards;
+        try (BufferedReader in = new BufferedReader(script)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line.split("\\s+"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Liest das Skript aus einer Datei und führt es in
+     * einem eigenen Thread aus.
+     *
+     * @param fileName
+     * @param boards
+     * @return der gestartete Thread
+     * @throws IOException
+     */
+    public static Thread start(String fileName, BoardEmulator... boards) throws IOException {
+        var script = new EmulatorScript(new FileReader(fileName), boards);
+        var thread = new Thread(script, "EmulatorScript " + fileName);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public void run() {
+        try {
+            execute(0);
+        } catch (InterruptedException ex) {
+            // beendet
+        } catch (RuntimeException ex) {
+            System.out.println("Emulator script failed: " + ex);
+        }
+    }
+
+    private void execute(int start) throws InterruptedException {
+        for (int i = start; i < lines.size(); i++) {
+            String[] cmd = lines.get(i);
+            switch (cmd[0]) {
+                case "wait":
+                    Thread.sleep(Long.parseLong(cmd[1]));
+                    break;
+
+                case "set":
+                    setInput(Integer.parseInt(cmd[1]), !cmd[2].equals("0"));
+                    break;
+
+                case "press":
+                    press(cmd);
+                    break;
+
+                case "flood":
+                    flood(Integer.parseInt(cmd[1]), (cmd.length > 2) ? Integer.parseInt(cmd[2]) : -1);
+                    break;
+
+                case "repeat":
+                    int count = Integer.parseInt(cmd[1]);
+                    for (int n = 0; count == 0 || n < count; n++) {
+                        execute(i + 1);
+                    }
+                    return;
+
+                case "print":
+                    System.out.println(String.join(" ", cmd).substring(6));
+                    break;
+
+                default:
+                    System.out.println("Unknown emulator command: " + cmd[0]);
+            }
+        }
+    }
+
+    /**
+     * press port... duration
+     *
+     * @param cmd
+     * @throws InterruptedException
+     */
+    private void press(String[] cmd) throws InterruptedException {
+        int last = cmd.length - 1;
+        long duration = 200;
+        if (last >= 2) {
+            duration = Long.parseLong(cmd[last]);
+            last--;
+        }
+
+        for (int i = 1; i <= last; i++) {
+            setInput(Integer.parseInt(cmd[i]), true);
+        }
+
+        Thread.sleep(duration);
+        for (int i = 1; i <= last; i++) {
+            setInput(Integer.parseInt(cmd[i]), false);
+        }
+    }
+
+    private void flood(int count, int togglePort) {
+        for (BoardEmulator board: boards) {
+            if (togglePort < 0) {
+                board.flood(count, -1);
+            } else if (board.handlesInput(togglePort)) {
+                board.flood(count, togglePort);
+            }
+        }
+    }
+
+    private void setInput(int portNo, boolean value) {
+        for (BoardEmulator board: boards) {
+            if (board.handlesInput(portNo)) {
+                board.setInput(portNo, value);
+                return;
+            }
+        }
+
+        System.out.println("No emulated board for input " + portNo);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.emu;
+
+import de.mmth.drs2.io.BinaryFrameParser;
+import de.mmth.drs2.io.BinaryProtocol;
+import de.mmth.drs2.io.FrameQueue;
+import de.mmth.drs2.io.UartFrame;
+
+/**
+ * Emulation der IO Platine mit dem Streckenblock.
+ *
+ * Die Steuerung fragt mit "Xz" den Status ab, die
+ * Platine antwortet mit 'Z', 6 Zeichen und 'T'. Die
+ * Zeichen 2 bis 5 enthalten die 16 Eingänge als Hex
+ * Zahl. Die 16 Ausgänge kommen als 'X',
+ * je ein Buchstabe pro Ausgang ('a' + n ein, 'A' + n
+ * aus) und 'y'. Die Blockkommandos sind einzelne
+ * Buchstaben.
+ *
+ * Mit "Xby" schaltet die Steuerung auf das
+ * BinaryProtocol um, die Platine bestätigt mit einem
+ * HELLO Telegramm. Das 'y' erreicht bereits den
+ * binären Parser und wird dort übergangen.
+ *
+ * @author matthias
+ */
+public class IoBoardEmulator extends BoardEmulator {
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+
+    private boolean inFrame = false;
+    private boolean frameStart = false;
+    private volatile boolean binary = false;
+    private int txSequence = 0;
+    private final FrameQueue binaryQueue = new FrameQueue(4);
+    private final BinaryFrameParser binaryParser
+            = new BinaryFrameParser((byte) 'X', (byte) 'y', 16, binaryQueue);
+    private final byte[] rxByte = new byte[1];
+    private final int polarity;
+    private final int inputStart;
+    private final int outputStart;
+
+    /**
+     * @param name
+     * @param polarity Polarität der 16 Eingänge
+     * @param inputStart erster Eingang, bei der ersten Platine 56
+     * @param outputStart erster Ausgang, bei der ersten Platine 120
+     */
+    public IoBoardEmulator(String name, int polarity, int inputStart, int outputStart) {
+        super(name);
+        this.polarity = polarity & 0xffff;
+        this.inputStart = inputStart;
+        this.outputStart = outputStart;
+    }
+
+    @Override
+    public boolean handlesInput(int portNo) {
+        return portNo >= inputStart && portNo < inputStart + 16;
+    }
+
+    @Override
+    protected int encodeStatus(byte[] buffer) {
+        int value = inputs.getBits(inputStart, 16) ^ polarity;
+        if (binary) {
+            return BinaryProtocol.encode16(buffer, BinaryProtocol.TYPE_INPUTS, txSequence++, value);
+        }
+
+        buffer[0] = 'Z';
+        buffer[1] = '0';
+        buffer[2] = '0';
+        for (int i = 0; i < 4; i++) {
+            buffer[3 + i] = HEX[(value >>> (12 - 4 * i)) & 0xf];
+        }
+        buffer[7] = 'T';
+        return 8;
+    }
+
+    @Override
+    protected void receive(byte b) {
+        if (binary) {
+            rxByte[0] = b;
+            binaryParser.feed(rxByte, 0, 1, System.nanoTime());
+            UartFrame frame;
+            while ((frame = binaryQueue.peek()) != null) {
+                receiveBinary(frame);
+                binaryQueue.release();
+            }
+            return;
+        }
+
+        if (!inFrame) {
+            if (b == 'X') {
+                inFrame = true;
+                frameStart = true;
+            } else {
+                commandReceived(b);
+            }
+            return;
+        }
+
+        if (frameStart && b == 'z') {
+            inFrame = false;
+            commandReceived(b);
+            sendStatus();
+        } else if (frameStart && b == 'b') {
+            inFrame = false;
+            commandReceived(b);
+            sendHello();
+        } else if (b == 'y') {
+            inFrame = false;
+            outputFrameReceived();
+        } else if (b >= 'a' && b < 'a' + 16) {
+            setOutput(outputStart + b - 'a', true);
+        } else if (b >= 'A' && b < 'A' + 16) {
+            setOutput(outputStart + b - 'A', false);
+        } else {
+            inFrame = false;
+        }
+
+        frameStart = false;
+    }
+
+    private void receiveBinary(UartFrame frame) {
+        byte[] data = frame.getData();
+        switch (frame.getType()) {
+            case BinaryProtocol.TYPE_OUTPUTS:
+                setOutputs(outputStart, 16, (data[0] & 0xff) | ((data[1] & 0xff) << 8));
+                outputFrameReceived();
+                break;
+
+            case BinaryProtocol.TYPE_STATUS:
+                commandReceived((byte) 'z');
+                sendStatus();
+                break;
+
+            case BinaryProtocol.TYPE_COMMAND:
+                commandReceived(data[0]);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void sendHello() {
+        byte[] buffer = new byte[BinaryProtocol.OVERHEAD + 1];
+        byte[] version = {(byte) BinaryProtocol.VERSION};
+        int len;
+        synchronized (inputs) {
+            binary = true;
+            len = BinaryProtocol.encode(buffer, BinaryProtocol.TYPE_HELLO, txSequence++, version, 1);
+        }
+
+        emit(buffer, len);
+    }
+
+    /**
+     * Meldet zurück, ob die Steuerung auf das binäre
+     * Protokoll umgeschaltet hat.
+     *
+     * @return
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+}
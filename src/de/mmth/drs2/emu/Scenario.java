@@ -0,0 +1,268 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.emu;
+
+import de.mmth.drs2.Config;
+import de.mmth.drs2.Headless;
+import de.mmth.drs2.TickerEvent;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ablauf für die Simulation in virtueller Zeit. Anders
+ * als das EmulatorScript läuft das Szenario im Ticker
+ * Thread in der Phase INPUT und setzt die Eingänge
+ * direkt im Connector. Alle Zeiten werden in Ticks
+ * umgerechnet, das Ergebnis hängt damit nicht von der
+ * Geschwindigkeit des Tickers ab.
+ *
+ * <pre>
+ * # Kommentar
+ * wait 500            Pause in Millisekunden, auch 30s, 5m, 2h
+ * set 12 1            Eingang 12 setzen (0 löscht)
+ * press 12 300        Eingang 12 für 300ms drücken
+ * press 3 12 300      Eingänge 3 und 12 gemeinsam drücken
+ * expect 40 1         Ausgang 40 muss gesetzt sein (0 = gelöscht)
+ * repeat 5            den Rest des Szenarios 5 mal ausführen (0 = endlos)
+ * print Text          Text ausgeben
+ * status              Zustand der Stellwerkselemente ausgeben
+ * </pre>
+ *
+ * Ein Durchgang von repeat ohne wait oder press wird
+ * auf den nächsten Tick verschoben. Es gibt nur eine
+ * repeat Anweisung je Szenario.
+ *
+ * @author matthias
+ */
+public class Scenario implements TickerEvent {
+    private final Config config;
+    private final PrintStream out;
+    private final List<String[]> lines = new ArrayList<>();
+    private final long periodMillis;
+
+    private int pc = 0;
+    private int resumeAt = 0;
+    private int[] released = null;
+    private int repeatStart = -1;
+    private int repeatLeft = 0;
+    private volatile boolean finished = false;
+    private volatile int failures = 0;
+
+    /**
+     * Liest das Szenario ein.
+     *
+     * @param script
+     * @param config
+     * @param out Ausgabe für print, status und expect
+     * @throws IOException
+     */
+    public Scenario(Reader script, Config config, PrintStream out) throws IOException {
+        this.config = config;
+        this.out = out;
+        this.periodMillis = TimeUnit.NANOSECONDS.toMillis(config.ticker.getPeriodNanos());
+        try (BufferedReader in = new BufferedReader(script)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line.split("\\s+"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Führt die Anweisungen bis zur nächsten Pause aus.
+     *
+     * @param count
+     */
+    @Override
+    public void tick(int count) {
+        if (finished || (count < resumeAt)) {
+            return;
+        }
+
+        if (released != null) {
+            for (int port: released) {
+                config.connector.setInput(port, false, count);
+            }
+            released = null;
+        }
+
+        while (pc < lines.size()) {
+            String[] cmd = lines.get(pc++);
+            try {
+                if (execute(cmd, count)) {
+                    return;
+                }
+            } catch (RuntimeException ex) {
+                out.println(time(count) + "Scenario line " + String.join(" ", cmd) + " failed: " + ex);
+                failures++;
+            }
+        }
+
+        if ((repeatStart >= 0) && (repeatLeft != 0)) {
+            if (repeatLeft > 0) {
+                repeatLeft--;
+            }
+            pc = repeatStart;
+            resumeAt = count + 1;
+        } else {
+            finished = true;
+        }
+    }
+
+    /**
+     * Führt eine Anweisung aus.
+     *
+     * @param cmd
+     * @param count
+     * @return true wenn bis resumeAt gewartet wird.
+     */
+    private boolean execute(String[] cmd, int count) {
+        switch (cmd[0]) {
+            case "wait":
+                resumeAt = count + toTicks(parseMillis(cmd[1]));
+                return true;
+
+            case "set":
+                config.connector.setInput(Integer.parseInt(cmd[1]), !cmd[2].equals("0"), count);
+                return false;
+
+            case "press":
+                return press(cmd, count);
+
+            case "expect":
+                expect(Integer.parseInt(cmd[1]), !cmd[2].equals("0"), count);
+                return false;
+
+            case "repeat":
+                int n = Integer.parseInt(cmd[1]);
+                repeatStart = pc;
+                repeatLeft = (n == 0) ? -1 : n - 1;
+                return false;
+
+            case "print":
+                out.println(time(count) + String.join(" ", cmd).substring(6));
+                return false;
+
+            case "status":
+                out.print(time(count) + Headless.status(config));
+                return false;
+
+            default:
+                throw new IllegalArgumentException("Unknown command " + cmd[0]);
+        }
+    }
+
+    /**
+     * press port... duration, die Eingänge werden nach
+     * Ablauf der Dauer im selben Tick wieder gelöscht.
+     *
+     * @param cmd
+     * @param count
+     * @return
+     */
+    private boolean press(String[] cmd, int count) {
+        int last = cmd.length - 1;
+        long duration = 200;
+        if (last >= 2) {
+            duration = parseMillis(cmd[last]);
+            last--;
+        }
+
+        int[] ports = new int[last];
+        for (int i = 1; i <= last; i++) {
+            ports[i - 1] = Integer.parseInt(cmd[i]);
+            config.connector.setInput(ports[i - 1], true, count);
+        }
+
+        released = ports;
+        resumeAt = count + toTicks(duration);
+        return true;
+    }
+
+    private void expect(int portNo, boolean value, int count) {
+        if (config.connector.isOutSet(portNo) != value) {
+            out.println(time(count) + "expect " + portNo + " " + (value ? 1 : 0) + " failed");
+            failures++;
+        }
+    }
+
+    /**
+     * Rechnet eine Dauer in Ticks um, mindestens ein Tick.
+     *
+     * @param millis
+     * @return
+     */
+    private int toTicks(long millis) {
+        return (int) Math.max(1, (millis + periodMillis - 1) / periodMillis);
+    }
+
+    /**
+     * Virtuelle Zeit des Ticks als Präfix der Ausgabe.
+     *
+     * @param count
+     * @return
+     */
+    private String time(int count) {
+        long millis = count * periodMillis;
+        return String.format("[%02d:%02d:%02d.%03d] ", millis / 3_600_000, (millis / 60_000) % 60,
+                (millis / 1000) % 60, millis % 1000);
+    }
+
+    /**
+     * Liest eine Dauer in Millisekunden, mit den Endungen
+     * s, m oder h in Sekunden, Minuten oder Stunden.
+     *
+     * @param value
+     * @return
+     */
+    public static long parseMillis(String value) {
+        char unit = value.charAt(value.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Long.parseLong(value);
+        }
+
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (unit) {
+            case 's':
+                return TimeUnit.SECONDS.toMillis(amount);
+
+            case 'm':
+                return TimeUnit.MINUTES.toMillis(amount);
+
+            case 'h':
+                return TimeUnit.HOURS.toMillis(amount);
+
+            default:
+                throw new IllegalArgumentException("Unknown time unit " + value);
+        }
+    }
+
+    /**
+     * Das Szenario ist abgelaufen.
+     *
+     * @return
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Anzahl der fehlgeschlagenen expect und fehlerhaften
+     * Anweisungen.
+     *
+     * @return
+     */
+    public int getFailures() {
+        return failures;
+    }
+}
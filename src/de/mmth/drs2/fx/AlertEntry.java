@@ -0,0 +1,45 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.fx;
+
+import de.mmth.drs2.AlertCategory;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Eine Meldung im Nachrichtenfenster.
+ *
+ * @author matthias
+ */
+public final class AlertEntry {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final LocalTime time;
+    private final AlertCategory category;
+    private final String message;
+
+    public AlertEntry(LocalTime time, AlertCategory category, String message) {
+        this.time = time;
+        this.category = category;
+        this.message = message;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public AlertCategory getCategory() {
+        return category;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return TIME_FORMAT.format(time) + "  " + message;
+    }
+}
@@ -4,9 +4,9 @@
  */
 package de.mmth.drs2.fx;
 
-import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.CommandQueue;
+import de.mmth.drs2.Snapshot;
 import de.mmth.drs2.parts.Ersatzsignal;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderStroke;
@@ -21,18 +21,23 @@ import javafx.scene.text.Text;
  *
  * @author pi
  */
-public class ErsatzsignalFx extends GridPane implements TickerEvent {
+public class ErsatzsignalFx extends GridPane implements SnapshotView {
 
     private final Ersatzsignal signal;
+    private final int index;
+    private final CommandQueue commands;
     private final Text name;
+    private int shown = -1;
     
     /**
      * Der Konstruktor enthält das Signal dessen
      * Zustand angezeigt werden soll.
      * 
      * @param signal 
+     * @param index Index des Ersatzsignals im Snapshot
+     * @param commands Warteschlange für Bedienungen
      */
-    public ErsatzsignalFx(Ersatzsignal signal) {
+    public ErsatzsignalFx(Ersatzsignal signal, int index, CommandQueue commands) {
         BorderStroke borderStroke = new BorderStroke(Color.BLUE, BorderStrokeStyle.SOLID, new CornerRadii(3),
                 new BorderWidths(1));
         Border border = new Border(borderStroke);   
@@ -41,32 +46,32 @@ public class ErsatzsignalFx extends GridPane implements TickerEvent {
         
         this.setHgap(5);
         this.signal = signal;
+        this.index = index;
+        this.commands = commands;
         name = new Text(signal.toString());
         this.add(name, 0, 0, 2, 1);
         name.setOnMouseClicked(ev -> {
-            signal.whenPressed(0, 0);
-            updateView();
+            commands.submit(count -> signal.whenPressed(0, 0));
         });
     }
     
     /**
-     * Aktualisiert die Ansicht aus dem
-     * aktuellen Zustand der Weiche.
-     */
-    public void updateView() {
-        name.setText(signal.toString());
-    }
-    
-    /**
-     * Löst regelmäßig eine Aktualisierung
-     * der Ansicht aus.
-     * @param count 
+     * Aktualisiert die Ansicht aus dem Snapshot.
+     * 
+     * @param snap
+     * @return 
      */
     @Override
-    public void tick(int count) {
-        Platform.runLater(() -> {
-            updateView();
-        });
+    public boolean updateView(Snapshot snap) {
+        boolean fahrt = snap.isErsatzsignalFahrt(index);
+        int state = fahrt ? 1 : 0;
+        if (state == shown) {
+            return false;
+        }
+        
+        shown = state;
+        name.setText(Ersatzsignal.describe(signal.getName(), fahrt));
+        return true;
     }
     
 }
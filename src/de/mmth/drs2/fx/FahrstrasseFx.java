@@ -4,9 +4,9 @@
  */
 package de.mmth.drs2.fx;
 
-import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.CommandQueue;
+import de.mmth.drs2.Snapshot;
 import de.mmth.drs2.parts.Fahrstrasse;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderStroke;
@@ -25,18 +25,23 @@ import javafx.scene.text.Text;
  * 
  * @author pi
  */
-public class FahrstrasseFx extends GridPane implements TickerEvent {
+public class FahrstrasseFx extends GridPane implements SnapshotView {
 
     private final Fahrstrasse fahrstrasse;
+    private final int index;
+    private final CommandQueue commands;
     private final Text verschluss;
+    private int shown = -1;
     
     /**
      * Der Konstuktor übernimmt die Fahrstraße, die
      * angzeigt werden soll.
      * 
      * @param fahrstrasse 
+     * @param index Index der Fahrstraße im Snapshot
+     * @param commands Warteschlange für Bedienungen
      */
-    public FahrstrasseFx(Fahrstrasse fahrstrasse) {
+    public FahrstrasseFx(Fahrstrasse fahrstrasse, int index, CommandQueue commands) {
         BorderStroke borderStroke = new BorderStroke(Color.BLUE, BorderStrokeStyle.SOLID, new CornerRadii(3),
                 new BorderWidths(1));
         Border border = new Border(borderStroke);   
@@ -45,6 +50,8 @@ public class FahrstrasseFx extends GridPane implements TickerEvent {
         
         this.setHgap(5);
         this.fahrstrasse = fahrstrasse;
+        this.index = index;
+        this.commands = commands;
         Text name = new Text(fahrstrasse.getName());
         this.add(name, 0, 0, 2, 1);
         
@@ -52,33 +59,34 @@ public class FahrstrasseFx extends GridPane implements TickerEvent {
         Text labelVerschluss = new Text("Status");
         this.add(labelVerschluss, 0, 2);
         labelVerschluss.setOnMouseClicked(ev -> {
-            if (fahrstrasse.isLocked()) {
-                fahrstrasse.unlock(true);
-            } else {
-                fahrstrasse.whenPressed(0, 0);
-            }
+            commands.submit(count -> {
+                if (fahrstrasse.isLocked()) {
+                    fahrstrasse.unlock(true);
+                } else {
+                    fahrstrasse.whenPressed(0, 0);
+                }
+            });
         });
         verschluss = new Text("unbekannt");
         this.add(verschluss, 1, 2);
     }
 
     /**
-     * Aktualisiert die Ansicht aus dem aktuellen
-     * Fahrstraßenzustand.
-     */
-    public void updateView() {
-        verschluss.setText(fahrstrasse.isLocked() ? "Belegt" : "Frei");
-    }
-    
-    /**
-     * Löst regelmäßig eine Aktualisierung
-     * der Ansicht aus.
-     * @param count 
+     * Aktualisiert die Ansicht aus dem Snapshot.
+     * 
+     * @param snap
+     * @return 
      */
     @Override
-    public void tick(int count) {
-        Platform.runLater(() -> {
-            updateView();
-        });
+    public boolean updateView(Snapshot snap) {
+        boolean locked = snap.isFahrstrasseLocked(index);
+        int state = locked ? 1 : 0;
+        if (state == shown) {
+            return false;
+        }
+        
+        shown = state;
+        verschluss.setText(locked ? "Belegt" : "Frei");
+        return true;
     }
 }
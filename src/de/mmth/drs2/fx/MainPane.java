@@ -5,16 +5,16 @@
 
 package de.mmth.drs2.fx;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
-import de.mmth.drs2.TickerEvent;
-import de.mmth.drs2.parts.Ersatzsignal;
+import de.mmth.drs2.Frontend;
+import de.mmth.drs2.Snapshot;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.parts.Fahrstrasse;
-import de.mmth.drs2.parts.Signal;
 import de.mmth.drs2.parts.Weiche;
 import javafx.application.Platform;
 import javafx.scene.control.Button;
-import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -27,13 +27,14 @@ import javafx.scene.text.Text;
  * 
  * @author pi
  */
-public class MainPane extends HBox implements TickerEvent {
+public class MainPane extends HBox implements SnapshotView, Frontend {
     private final static int STD_BUTTON_SIZE = 140;
     private final static int TEST_STOPPED = -1;
     private final static int TEST_RANGE = 96;
     
     private final Config config;
-    private TextArea messages;
+    private final UiBridge ui;
+    private MessageView messages;
     private Button totmann;
     private int lastTotmannState = -1;
     private boolean pendingH, pendingM;
@@ -41,6 +42,8 @@ public class MainPane extends HBox implements TickerEvent {
     private Button pendingMButton;
     private int lampentest = TEST_STOPPED;
     private boolean simulateAH = false;
+    private boolean drs60wkOn = false;
+    private boolean drs60swOn = false;
     
     /**
      * Der Konstruktor übernimmt die Konfiguration
@@ -50,6 +53,7 @@ public class MainPane extends HBox implements TickerEvent {
      */
     public MainPane(Config config) {
         this.config = config;
+        this.ui = new UiBridge(config.snapshots);
         this.setSpacing(5);
         
         var box = new HBox();
@@ -68,7 +72,9 @@ public class MainPane extends HBox implements TickerEvent {
         box.getChildren().add(vbox);
         this.getChildren().add(box);
         
-        config.ticker.add(this);
+        config.ticker.add(TickPhase.LOGIC, "Lampentest", count -> lampentest(count));
+        ui.add(this);
+        config.ticker.add(TickPhase.UI, "Anzeige", ui);
     }
     
     /**
@@ -83,103 +89,124 @@ public class MainPane extends HBox implements TickerEvent {
         
         pendingHButton = createSizedButton("Zug von WB", STD_BUTTON_SIZE);
         pendingHButton.setOnAction(ev -> {
-            config.pendingTrainH = Const.PENDING_TRAIN_DURATION;
+            config.commands.submit(count -> config.pendingTrainH = Const.PENDING_TRAIN_DURATION);
         });
         box.getChildren().add(pendingHButton);
         
         var schlF = createSizedButton("Schlüssel F", STD_BUTTON_SIZE);
         schlF.setOnAction(ev -> {
-            condReleaseFahrstrasse(config.fahrstrassen[2]);
-            condReleaseFahrstrasse(config.fahrstrassen[3]);
+            config.commands.submit(count -> {
+                condReleaseFahrstrasse(config.fahrstrassen[2]);
+                condReleaseFahrstrasse(config.fahrstrassen[3]);
+            });
         });
         box.getChildren().add(schlF);
         
         pendingMButton = createSizedButton("Zug von Alth", STD_BUTTON_SIZE);
         pendingMButton.setOnAction(ev -> {
-            if (config.pendingTrainM != 0) {
-                config.pendingTrainM = 0;
-            } else {
-                config.pendingTrainM = Const.PENDING_TRAIN_DURATION;
-            }
+            config.commands.submit(count -> {
+                if (config.pendingTrainM != 0) {
+                    config.pendingTrainM = 0;
+                } else {
+                    config.pendingTrainM = Const.PENDING_TRAIN_DURATION;
+                }
+            });
         });
         box.getChildren().add(pendingMButton);
         
         var schlA = createSizedButton("Schlüssel A", STD_BUTTON_SIZE);
         schlA.setOnAction(ev -> {
-            condReleaseFahrstrasse(config.fahrstrassen[0]);
-            condReleaseFahrstrasse(config.fahrstrassen[1]);
+            config.commands.submit(count -> {
+                condReleaseFahrstrasse(config.fahrstrassen[0]);
+                condReleaseFahrstrasse(config.fahrstrassen[1]);
+            });
         });
         box.getChildren().add(schlA);
         
         var block1 = createSizedButton("Von Alth", STD_BUTTON_SIZE);
         block1.setOnAction(ev -> {
-            config.streckenEin[Config.FROM_M].tryVorblock();
+            config.commands.submit(count -> config.streckenEin[Config.FROM_M].tryVorblock());
         });
         
         var block3 = createSizedButton("Von WB", STD_BUTTON_SIZE);
         block3.setOnAction(ev -> {
-            config.streckenEin[Config.FROM_H].tryVorblock();
+            config.commands.submit(count -> config.streckenEin[Config.FROM_H].tryVorblock());
         });
         
         var simu = createSizedButton("Relaisblock", STD_BUTTON_SIZE);
         simu.setOnAction(ev -> {
             simulateAH = !simulateAH;
-            config.streckenEin[Config.FROM_M].setSimulationMode(simulateAH);
-            config.streckenAus[Config.TO_M].setSimulationMode(simulateAH);
+            boolean simulate = simulateAH;
+            config.commands.submit(count -> {
+                config.streckenEin[Config.FROM_M].setSimulationMode(simulate);
+                config.streckenAus[Config.TO_M].setSimulationMode(simulate);
+            });
             simu.setText(simulateAH ? "Simulation" : "Relaisblock");
         });
         
         var blink = createSizedButton("Blink Störung", STD_BUTTON_SIZE);
         blink.setOnAction(ev -> {
-            config.blinklicht.setStoerung(!config.blinklicht.getStoerung());
+            config.commands.submit(count -> config.blinklicht.setStoerung(!config.blinklicht.getStoerung()));
         });
         
         var zsm = createSizedButton("ZSM", STD_BUTTON_SIZE);
         zsm.setOnAction(ev -> {
-          if (!config.streckenEin[Config.FROM_M].isFree()) {
-            config.connector.setOut(Const.ZSM, true);
-          }
+          config.commands.submit(count -> {
+            if (!config.streckenEin[Config.FROM_M].isFree()) {
+              config.connector.setOut(Const.ZSM, true);
+            }
+          });
         });
         
         var drs60wk = createSizedButton("DRS60 WLK", STD_BUTTON_SIZE);
         drs60wk.setOnAction(ev -> {
-          config.drs60wk = !config.drs60wk;
-          drs60wk.setStyle(config.drs60wk ? "-fx-background-color: lime" : "");
+          drs60wkOn = !drs60wkOn;
+          boolean on = drs60wkOn;
+          config.commands.submit(count -> config.drs60wk = on);
+          drs60wk.setStyle(on ? "-fx-background-color: lime" : "");
         });
         
         var drs60sw = createSizedButton("DRS60 SW", STD_BUTTON_SIZE);
         drs60sw.setOnAction(ev -> {
-          config.drs60sw = !config.drs60sw;
-          drs60sw.setStyle(config.drs60sw ? "-fx-background-color: lime" : "");
+          drs60swOn = !drs60swOn;
+          boolean on = drs60swOn;
+          config.commands.submit(count -> config.drs60sw = on);
+          drs60sw.setStyle(on ? "-fx-background-color: lime" : "");
         });
         
         box.getChildren().addAll(block1,block3, simu, blink, zsm, drs60wk, drs60sw);
         
         var gleis1 = createSizedButton("Zug G1", STD_BUTTON_SIZE);
         gleis1.setOnAction(ev -> {
-            if (config.gleise[0].isInUse()) {
-                config.gleise[0].clear();
-            } else {
-                config.gleise[0].red();
-            }
+            config.commands.submit(count -> {
+                if (config.gleise[0].isInUse()) {
+                    config.gleise[0].clear();
+                } else {
+                    config.gleise[0].red();
+                }
+            });
         });
         
         var gleis2 = createSizedButton("Zug G2", STD_BUTTON_SIZE);
         gleis2.setOnAction(ev -> {
-            if (config.gleise[1].isInUse()) {
-                config.gleise[1].clear();
-            } else {
-                config.gleise[1].red();
-            }
+            config.commands.submit(count -> {
+                if (config.gleise[1].isInUse()) {
+                    config.gleise[1].clear();
+                } else {
+                    config.gleise[1].red();
+                }
+            });
         });
         
         var gleis3 = createSizedButton("Zug G3", STD_BUTTON_SIZE);
         gleis3.setOnAction(ev -> {
-            if (config.gleise[2].isInUse()) {
-                config.gleise[2].clear();
-            } else {
-                config.gleise[2].red();
-            }
+            config.commands.submit(count -> {
+                if (config.gleise[2].isInUse()) {
+                    config.gleise[2].clear();
+                } else {
+                    config.gleise[2].red();
+                }
+            });
         });
         
         var checkBulbBox = new HBox();
@@ -190,9 +217,7 @@ public class MainPane extends HBox implements TickerEvent {
             var bulbNumber = input.getText();
             if (!bulbNumber.isBlank()) {
                 var index = Integer.parseInt(bulbNumber);
-                System.out.println("Start toggle");
-                config.connector.toggleOut(index);
-                System.out.println("Toggle done");
+                config.commands.submit(count -> config.connector.toggleOut(index));
             }
         });
         checkBulbBox.getChildren().addAll(input, toggle);
@@ -229,7 +254,7 @@ public class MainPane extends HBox implements TickerEvent {
         var msgColumn = new VBox();
         msgColumn.setSpacing(5);
         
-        messages = new TextArea();
+        messages = new MessageView(Integer.getInteger("drs2.messages.max", 2000));
         messages.setPrefHeight(800.0);
         messages.setPrefWidth(800);
         msgColumn.getChildren().add(messages);
@@ -246,18 +271,28 @@ public class MainPane extends HBox implements TickerEvent {
         
         var test = new Button("Lampentest");
         test.setOnAction(ev -> {
-            doTest();
+            config.commands.submit(count -> doTest());
         });
         box.getChildren().add(test);
         
+        var profile = new Button("Laufzeiten");
+        profile.setOnAction(ev -> {
+            addMessage(config.ticker.getProfiler().summary(false, config.ticker.getOverrunCount()));
+            addMessage(config.connector.getTracer().summary());
+            addMessage(config.connector.boardSummary());
+            addMessage(ui.summary());
+        });
+        box.getChildren().add(profile);
+        
         var quit = new Button("Beenden");
         quit.setOnAction(ev -> {
             try {
                 config.ticker.interrupt();
                 config.connector.tick(0);
+                config.log.close();
                 
                 Platform.runLater(() -> {
-                    config.stage.close();
+                    getScene().getWindow().hide();
                 });
                         
             } catch (Exception ex) {
@@ -276,7 +311,7 @@ public class MainPane extends HBox implements TickerEvent {
         var box = new VBox();
         for (var fahrt: config.rangierfahrten) {
             var rf = new Button(fahrt.getName());
-            rf.setOnAction(ev -> {fahrt.start();});
+            rf.setOnAction(ev -> {config.commands.submit(count -> fahrt.start());});
             box.getChildren().add(rf);
         
         }
@@ -316,6 +351,7 @@ public class MainPane extends HBox implements TickerEvent {
     /**
      * Führt einen Lampentest aus indem jeder Ausgang
      * durchlaufend für eine kurze Zeit eingeschaltet wird.
+     * Läuft als Kommando im Ticker Thread.
      */
     private void doTest() {
         if (lampentest == TEST_STOPPED) {
@@ -327,6 +363,9 @@ public class MainPane extends HBox implements TickerEvent {
         } else {
             config.connector.setOut(lampentest, false);
             lampentest = TEST_STOPPED;
+            for (Weiche weiche: config.weichen) {
+                weiche.refresh();
+            }
         }
     };
     
@@ -352,10 +391,10 @@ public class MainPane extends HBox implements TickerEvent {
         Text hdr = new Text("Weichen");
         box.getChildren().add(hdr);
         
-        for (Weiche weiche: config.weichen) {
-            WeicheFx wfx = new WeicheFx(weiche);
+        for (int i = 0; i < config.weichen.length; i++) {
+            WeicheFx wfx = new WeicheFx(config.weichen[i], i, config.commands);
             box.getChildren().add(wfx);
-            config.ticker.add(wfx);
+            ui.add(wfx);
         }
         
         parent.getChildren().add(box);
@@ -373,10 +412,10 @@ public class MainPane extends HBox implements TickerEvent {
         Text hdr = new Text("Signale");
         box.getChildren().add(hdr);
         
-        for (Signal signal: config.signale) {
-            SignalFx sfx = new SignalFx(signal);
+        for (int i = 0; i < config.signale.length; i++) {
+            SignalFx sfx = new SignalFx(config.signale[i], i, config.commands);
             box.getChildren().add(sfx);
-            config.ticker.add(sfx);
+            ui.add(sfx);
         }
         
         parent.getChildren().add(box);
@@ -392,10 +431,10 @@ public class MainPane extends HBox implements TickerEvent {
         box.getChildren().add(hdr);
         box.setMinWidth(STD_BUTTON_SIZE);
         
-        for (Ersatzsignal signal: config.ersatzsignale) {
-            ErsatzsignalFx sfx = new ErsatzsignalFx(signal);
+        for (int i = 0; i < config.ersatzsignale.length; i++) {
+            ErsatzsignalFx sfx = new ErsatzsignalFx(config.ersatzsignale[i], i, config.commands);
             box.getChildren().add(sfx);
-            config.ticker.add(sfx);
+            ui.add(sfx);
         }
         
         parent.getChildren().add(box);
@@ -411,10 +450,10 @@ public class MainPane extends HBox implements TickerEvent {
         box.getChildren().add(hdr);
         box.setMinWidth(STD_BUTTON_SIZE);
         
-        for (var fahrstrasse: config.fahrstrassen) {
-            var ffx = new FahrstrasseFx(fahrstrasse);
+        for (int i = 0; i < config.fahrstrassen.length; i++) {
+            var ffx = new FahrstrasseFx(config.fahrstrassen[i], i, config.commands);
             box.getChildren().add(ffx);
-            config.ticker.add(ffx);
+            ui.add(ffx);
         }
         
         parent.getChildren().add(box);
@@ -427,15 +466,29 @@ public class MainPane extends HBox implements TickerEvent {
      * @param message 
      */
     public void addMessage(String message) {
-        Platform.runLater(() -> {
-            String txt = messages.getText() + message + "\r\n";
-            messages.setText(txt);
-            messages.setScrollTop(Double.MAX_VALUE);
-        });
+        addMessage(AlertCategory.SYSTEM, message);
     }
 
+    /**
+     * Fügt eine Nachricht mit Kategorie an das interne
+     * Nachrichtenfenster an, darf aus jedem Thread
+     * aufgerufen werden.
+     * 
+     * @param category
+     * @param message 
+     */
     @Override
-    public void tick(int count) {
+    public void addMessage(AlertCategory category, String message) {
+        messages.add(category, message);
+    }
+
+    /**
+     * Schaltet beim Lampentest den nächsten Ausgang ein,
+     * läuft in der Phase LOGIC.
+     * 
+     * @param count 
+     */
+    private void lampentest(int count) {
         if (lampentest != -1) {
             if ((count & 0x7) == 7) {
                 config.connector.setOut(lampentest, false);
@@ -446,14 +499,27 @@ public class MainPane extends HBox implements TickerEvent {
                 config.connector.setOut(lampentest, true);
             }
         }
-        if (pendingH != (config.pendingTrainH > 0)) {
-            pendingH = !pendingH;
-            pendingHButton.setStyle(pendingH ? "-fx-background-color: lightblue" : "");
+    }
+
+    /**
+     * Aktualisiert die Anzeige der angemeldeten Züge aus
+     * dem Snapshot, läuft im JavaFX Thread.
+     * 
+     * @param snap
+     * @return 
+     */
+    @Override
+    public boolean updateView(Snapshot snap) {
+        boolean newH = snap.getPendingTrainH() > 0;
+        boolean newM = snap.getPendingTrainM() > 0;
+        if ((pendingH == newH) && (pendingM == newM)) {
+            return false;
         }
         
-        if (pendingM != (config.pendingTrainM > 0)) {
-            pendingM = !pendingM;
-            pendingMButton.setStyle(pendingM ? "-fx-background-color: lightblue" : "");
-        }
+        pendingH = newH;
+        pendingM = newM;
+        pendingHButton.setStyle(newH ? "-fx-background-color: lightblue" : "");
+        pendingMButton.setStyle(newM ? "-fx-background-color: lightblue" : "");
+        return true;
     }
 }
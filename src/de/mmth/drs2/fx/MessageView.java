@@ -0,0 +1,130 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.fx;
+
+import de.mmth.drs2.AlertCategory;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Nachrichtenfenster für die Meldungen an den
+ * Fahrdienstleiter.
+ *
+ * Es werden höchstens capacity Meldungen gehalten, die
+ * ältesten fallen heraus. Die ListView legt nur Zellen
+ * für die sichtbaren Zeilen an, die Länge der Liste
+ * spielt für die Anzeige keine Rolle.
+ *
+ * Meldungen aus anderen Threads werden gesammelt und
+ * mit einem einzigen Platform.runLater je Durchgang
+ * übernommen. Über die Kategorien oberhalb der Liste
+ * werden Meldungen ein- und ausgeblendet, dabei wird
+ * nur der Filter neu ausgewertet.
+ *
+ * @author matthias
+ */
+public class MessageView extends VBox {
+    private final int capacity;
+    private final ConcurrentLinkedQueue<AlertEntry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable flush = this::flush;
+    private final ArrayList<AlertEntry> batch = new ArrayList<>();
+
+    private final ObservableList<AlertEntry> entries = FXCollections.observableArrayList();
+    private final FilteredList<AlertEntry> filtered = new FilteredList<>(entries);
+    private final EnumSet<AlertCategory> shown = EnumSet.allOf(AlertCategory.class);
+    private final ListView<AlertEntry> list = new ListView<>(filtered);
+
+    /**
+     * @param capacity maximale Anzahl der Meldungen
+     */
+    public MessageView(int capacity) {
+        this.capacity = capacity;
+        this.setSpacing(5);
+
+        var filter = new HBox();
+        filter.setSpacing(10);
+        for (AlertCategory category: AlertCategory.values()) {
+            var box = new CheckBox(category.getLabel());
+            box.setSelected(true);
+            box.selectedProperty().addListener((obs, was, now) -> show(category, now));
+            filter.getChildren().add(box);
+        }
+
+        this.getChildren().add(filter);
+        VBox.setVgrow(list, Priority.ALWAYS);
+        this.getChildren().add(list);
+    }
+
+    /**
+     * Fügt eine Meldung hinzu, darf aus jedem Thread
+     * aufgerufen werden.
+     *
+     * @param category
+     * @param message
+     */
+    public void add(AlertCategory category, String message) {
+        pending.add(new AlertEntry(LocalTime.now(), category, message));
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(flush);
+        }
+    }
+
+    /**
+     * Übernimmt alle gesammelten Meldungen in einem
+     * Schritt, läuft im JavaFX Thread.
+     */
+    private void flush() {
+        scheduled.set(false);
+        AlertEntry entry;
+        while ((entry = pending.poll()) != null) {
+            batch.add(entry);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        entries.addAll(batch);
+        batch.clear();
+        int over = entries.size() - capacity;
+        if (over > 0) {
+            entries.remove(0, over);
+        }
+
+        if (!filtered.isEmpty()) {
+            list.scrollTo(filtered.size() - 1);
+        }
+    }
+
+    private void show(AlertCategory category, boolean visible) {
+        if (visible) {
+            shown.add(category);
+        } else {
+            shown.remove(category);
+        }
+
+        filtered.setPredicate(e -> shown.contains(e.getCategory()));
+    }
+
+    /**
+     * Löscht alle Meldungen, läuft im JavaFX Thread.
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -4,9 +4,9 @@
  */
 package de.mmth.drs2.fx;
 
-import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.CommandQueue;
+import de.mmth.drs2.Snapshot;
 import de.mmth.drs2.parts.Signal;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import static javafx.scene.input.MouseButton.PRIMARY;
 import static javafx.scene.input.MouseButton.SECONDARY;
@@ -23,19 +23,24 @@ import javafx.scene.text.Text;
  *
  * @author pi
  */
-public class SignalFx extends GridPane implements TickerEvent {
+public class SignalFx extends GridPane implements SnapshotView {
 
     private final Signal signal;
+    private final int index;
+    private final CommandQueue commands;
     private final Text name;
     private boolean stoerung = false;
+    private int shown = -1;
     
     /**
      * Der Konstruktor enthält das Signal dessen
      * Zustand angezeigt werden soll.
      * 
      * @param signal 
+     * @param index Index des Signals im Snapshot
+     * @param commands Warteschlange für Bedienungen
      */
-    public SignalFx(Signal signal) {
+    public SignalFx(Signal signal, int index, CommandQueue commands) {
         BorderStroke borderStroke = new BorderStroke(Color.BLUE, BorderStrokeStyle.SOLID, new CornerRadii(3),
                 new BorderWidths(1));
         Border border = new Border(borderStroke);   
@@ -44,43 +49,47 @@ public class SignalFx extends GridPane implements TickerEvent {
         
         this.setHgap(5);
         this.signal = signal;
+        this.index = index;
+        this.commands = commands;
         name = new Text(signal.toString());
         this.add(name, 0, 0, 2, 1);
         name.setOnMouseClicked(ev -> {
             if (ev.getButton().equals(PRIMARY)) {
-                if (signal.isFahrt()) {
-                    signal.halt();
-                } else {
-                    signal.fahrt();
-                }
+                commands.submit(count -> {
+                    if (signal.isFahrt()) {
+                        signal.halt();
+                    } else {
+                        signal.fahrt();
+                    }
+                });
             }
             
             if (ev.getButton().equals(SECONDARY)) {
                 stoerung = !stoerung;
-                signal.setStoerung(stoerung);
+                boolean newStoerung = stoerung;
+                commands.submit(count -> signal.setStoerung(newStoerung));
             }
-            
-            updateView();
         });
     }
     
     /**
-     * Aktualisiert die Ansicht aus dem
-     * aktuellen Zustand der Weiche.
-     */
-    public void updateView() {
-        name.setText(signal.toString());
-    }
-    
-    /**
-     * Löst regelmäßig eine Aktualisierung
-     * der Ansicht aus.
-     * @param count 
+     * Aktualisiert die Ansicht aus dem Snapshot.
+     * 
+     * @param snap
+     * @return 
      */
     @Override
-    public void tick(int count) {
-        Platform.runLater(() -> {
-            updateView();
-        });
+    public boolean updateView(Snapshot snap) {
+        boolean gestoert = snap.isSignalGestoert(index);
+        boolean sh1 = snap.isSignalSh1(index);
+        boolean fahrt = snap.isSignalFahrt(index);
+        int state = (gestoert ? 4 : 0) | (sh1 ? 2 : 0) | (fahrt ? 1 : 0);
+        if (state == shown) {
+            return false;
+        }
+        
+        shown = state;
+        name.setText(Signal.describe(signal.getName(), gestoert, sh1, fahrt));
+        return true;
     }
 }
@@ -0,0 +1,25 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.fx;
+
+import de.mmth.drs2.Snapshot;
+
+/**
+ * Ein Teil der Oberfläche, der vom UiBridge aus dem
+ * Snapshot aktualisiert wird.
+ *
+ * @author matthias
+ */
+public interface SnapshotView {
+    /**
+     * Übernimmt den Zustand aus dem Snapshot, läuft im
+     * JavaFX Thread. Controls werden nur angefasst, wenn
+     * sich der angezeigte Wert geändert hat.
+     *
+     * @param snap
+     * @return true wenn sich die Anzeige geändert hat.
+     */
+    boolean updateView(Snapshot snap);
+}
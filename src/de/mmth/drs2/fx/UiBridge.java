@@ -0,0 +1,111 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.fx;
+
+import de.mmth.drs2.SnapshotPublisher;
+import de.mmth.drs2.TickerEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+
+/**
+ * Einzige Verbindung zwischen Ticker und Oberfläche.
+ *
+ * In der Phase UI stellt der UiBridge höchstens ein
+ * Runnable in die JavaFX Warteschlange. Dieses holt
+ * einmal den aktuellen Snapshot und übergibt ihn an
+ * alle angemeldeten SnapshotViews, die nur geänderte
+ * Werte an ihre Controls weitergeben. Hat sich die
+ * Version des Snapshots seit dem letzten Durchgang
+ * nicht geändert, wird nichts aktualisiert.
+ *
+ * Ist das Runnable vom letzten Tick noch nicht
+ * gelaufen, hängt der JavaFX Thread hinterher, der
+ * Tick wird dann für die Oberfläche ausgelassen.
+ *
+ * @author matthias
+ */
+public class UiBridge implements TickerEvent {
+    private final SnapshotPublisher snapshots;
+    private final List<SnapshotView> views = new ArrayList<>();
+    private final AtomicBoolean posted = new AtomicBoolean();
+    private final Runnable update = this::update;
+    private long lastVersion = Long.MIN_VALUE;
+
+    private volatile long frames = 0;
+    private volatile long unchanged = 0;
+    private volatile long skipped = 0;
+    private volatile long viewUpdates = 0;
+
+    public UiBridge(SnapshotPublisher snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Meldet einen Teil der Oberfläche an, nur vor dem
+     * Start des Tickers.
+     *
+     * @param view
+     */
+    public void add(SnapshotView view) {
+        views.add(view);
+    }
+
+    /**
+     * Stellt die Aktualisierung in die JavaFX
+     * Warteschlange, falls die letzte bereits gelaufen
+     * ist.
+     *
+     * @param count
+     */
+    @Override
+    public void tick(int count) {
+        if (posted.compareAndSet(false, true)) {
+            Platform.runLater(update);
+        } else {
+            skipped++;
+        }
+    }
+
+    /**
+     * Aktualisiert alle Teile aus einem Snapshot, läuft
+     * im JavaFX Thread.
+     */
+    private void update() {
+        var snap = snapshots.acquire();
+        try {
+            long version = snap.getVersion();
+            if (version == lastVersion) {
+                unchanged++;
+                return;
+            }
+
+            lastVersion = version;
+            frames++;
+            int changed = 0;
+            for (int i = 0; i < views.size(); i++) {
+                if (views.get(i).updateView(snap)) {
+                    changed++;
+                }
+            }
+
+            viewUpdates += changed;
+        } finally {
+            snapshots.release(snap);
+            posted.set(false);
+        }
+    }
+
+    /**
+     * Kurze Auswertung für das Nachrichtenfenster.
+     *
+     * @return
+     */
+    public String summary() {
+        return "UI: frames " + frames + ", unchanged " + unchanged
+                + ", skipped " + skipped + ", view updates " + viewUpdates;
+    }
+}
@@ -4,10 +4,10 @@
  */
 package de.mmth.drs2.fx;
 
-import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.CommandQueue;
+import de.mmth.drs2.Snapshot;
 import de.mmth.drs2.parts.Weiche;
 import de.mmth.drs2.parts.state.SwitchState;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.ComboBox;
 import javafx.scene.layout.Border;
@@ -30,13 +30,18 @@ import javafx.scene.text.Text;
  * 
  * @author pi
  */
-public class WeicheFx extends GridPane implements TickerEvent {
+public class WeicheFx extends GridPane implements SnapshotView {
 
     private final Weiche weiche;
+    private final int index;
+    private final CommandQueue commands;
     private final Text stellung;
     private final Text verschluss;
     private final Text name;
     private boolean textStoerung = false;
+    private String shownStellung;
+    private int shownVerschluss = -1;
+    private SwitchState shownState;
   private final ComboBox errorState;
     
     /**
@@ -44,8 +49,10 @@ public class WeicheFx extends GridPane implements TickerEvent {
      * Zustand angezeigt werden soll.
      * 
      * @param weiche 
+     * @param index Index der Weiche im Snapshot
+     * @param commands Warteschlange für Bedienungen
      */
-    public WeicheFx(Weiche weiche) {
+    public WeicheFx(Weiche weiche, int index, CommandQueue commands) {
         BorderStroke borderStroke = new BorderStroke(Color.BLUE, BorderStrokeStyle.SOLID, new CornerRadii(3),
                 new BorderWidths(1));
         Border border = new Border(borderStroke);   
@@ -54,6 +61,8 @@ public class WeicheFx extends GridPane implements TickerEvent {
         
         this.setHgap(5);
         this.weiche = weiche;
+        this.index = index;
+        this.commands = commands;
         name = new Text(weiche.getName());
         this.add(name, 0, 0, 1, 1);
         this.errorState = new ComboBox();
@@ -67,14 +76,14 @@ public class WeicheFx extends GridPane implements TickerEvent {
             case 3: newState = SwitchState.DAUERHAFTE_BLOCKIERUNG; break;
             default: newState = SwitchState.OK; break;
           }
-          weiche.setState(newState);
+          commands.submit(count -> weiche.setState(newState));
         });
         this.add(errorState, 1, 0, 1, 1);
         
         // Stellung
         Text labelStellung = new Text("Stellung");
         labelStellung.setOnMouseClicked(ev -> {
-            weiche.whenPressed(0, 0);
+            commands.submit(count -> weiche.whenPressed(0, 0));
         });
         this.add(labelStellung, 0, 1);
         stellung = new Text("unbekannt");
@@ -83,7 +92,7 @@ public class WeicheFx extends GridPane implements TickerEvent {
         // Verschluss
         Text labelVerschluss = new Text("Verschluss");
         labelVerschluss.setOnMouseClicked(ev -> {
-            weiche.red(); // nur zum Test.
+            commands.submit(count -> weiche.red()); // nur zum Test.
         });
         
         this.add(labelVerschluss, 0, 2);
@@ -92,36 +101,46 @@ public class WeicheFx extends GridPane implements TickerEvent {
     }
     
     /**
-     * Aktualisiert die Ansicht aus dem
-     * aktuellen Zustand der Weiche.
+     * Aktualisiert die Ansicht aus dem Snapshot.
+     * 
+     * @param snap
+     * @return 
      */
-    public void updateView() {
-        String status = weiche.isPlus() ? "Plus" : "Minus";
-        if (weiche.isRunning()) {
+    @Override
+    public boolean updateView(Snapshot snap) {
+        boolean changed = false;
+        String status = snap.isWeichePlus(index) ? "Plus" : "Minus";
+        if (snap.isWeicheRunning(index)) {
             status = "Umlauf";
         }
-        stellung.setText(status);
         
-        verschluss.setText(weiche.isLocked() ? "Sperre" : "Frei");
-        
-        if (textStoerung != weiche.isGestoert()) {
-            name.setText(weiche.getName() + (weiche.isGestoert() ? " (gestört)" : ""));
-            textStoerung = weiche.isGestoert();
+        if (!status.equals(shownStellung)) {
+            stellung.setText(status);
+            shownStellung = status;
+            changed = true;
         }
-        
-        var index = weiche.getState().getValue();
-        errorState.getSelectionModel().select(index);
-    }
 
-    /**
-     * Löst regelmäßig eine Aktualisierung
-     * der Ansicht aus.
-     * @param count 
-     */
-    @Override
-    public void tick(int count) {
-        Platform.runLater(() -> {
-            updateView();
-        });
+        int locked = snap.isWeicheLocked(index) ? 1 : 0;
+        if (locked != shownVerschluss) {
+            verschluss.setText((locked == 1) ? "Sperre" : "Frei");
+            shownVerschluss = locked;
+            changed = true;
+        }
+
+        var gestoert = snap.isWeicheGestoert(index);
+        if (textStoerung != gestoert) {
+            name.setText(weiche.getName() + (gestoert ? " (gestört)" : ""));
+            textStoerung = gestoert;
+            changed = true;
+        }
+
+        var state = snap.getWeicheState(index);
+        if (state != shownState) {
+            errorState.getSelectionModel().select(state.getValue());
+            shownState = state;
+            changed = true;
+        }
+        
+        return changed;
     }
 }
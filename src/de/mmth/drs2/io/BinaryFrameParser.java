@@ -0,0 +1,109 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Zerlegt einen Datenstrom, der neben den ASCII
+ * Telegrammen auch Telegramme im BinaryProtocol enthält.
+ *
+ * Binäre Telegramme mit falscher Länge oder falscher
+ * Prüfsumme werden verworfen, danach wird wieder auf
+ * das nächste SYNC Byte gewartet. Beides wird gezählt.
+ *
+ * @author matthias
+ */
+public class BinaryFrameParser extends FrameParser {
+    private static final int IDLE = 0;
+    private static final int LENGTH = 1;
+    private static final int HEADER = 2;
+    private static final int DATA = 3;
+    private static final int CHECK = 4;
+
+    private int state = IDLE;
+    private int length;
+    private int header;
+    private int crc;
+    private int dataPtr;
+    private final byte[] data = new byte[BinaryProtocol.MAX_DATA];
+
+    private volatile long crcErrors = 0;
+    private volatile long resyncs = 0;
+
+    public BinaryFrameParser(byte startMarker, byte endMarker, int frameLen, FrameQueue queue) {
+        super(startMarker, endMarker, frameLen, queue);
+    }
+
+    @Override
+    protected boolean accept(byte b, long nanoTime) {
+        switch (state) {
+            case IDLE:
+                if (b == BinaryProtocol.SYNC && isIdle()) {
+                    state = LENGTH;
+                    return false;
+                }
+                return super.accept(b, nanoTime);
+
+            case LENGTH:
+                length = b & 0xff;
+                if (length > BinaryProtocol.MAX_DATA) {
+                    resyncs++;
+                    state = IDLE;
+                } else {
+                    crc = BinaryProtocol.crc8(0, b);
+                    state = HEADER;
+                }
+                return false;
+
+            case HEADER:
+                header = b & 0xff;
+                crc = BinaryProtocol.crc8(crc, b);
+                dataPtr = 0;
+                state = (length > 0) ? DATA : CHECK;
+                return false;
+
+            case DATA:
+                data[dataPtr++] = b;
+                crc = BinaryProtocol.crc8(crc, b);
+                if (dataPtr == length) {
+                    state = CHECK;
+                }
+                return false;
+
+            default:
+                state = IDLE;
+                if ((byte) crc != b) {
+                    crcErrors++;
+                    resyncs++;
+                    return false;
+                }
+                return publish(data, length, true, header >>> 4, header & 0xf, nanoTime);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        state = IDLE;
+    }
+
+    /**
+     * Anzahl der Telegramme mit falscher Prüfsumme.
+     *
+     * @return
+     */
+    public long getCrcErrors() {
+        return crcErrors;
+    }
+
+    /**
+     * Anzahl der Neusynchronisationen nach fehlerhaften
+     * Telegrammen.
+     *
+     * @return
+     */
+    public long getResyncs() {
+        return resyncs;
+    }
+}
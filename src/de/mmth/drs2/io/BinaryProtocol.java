@@ -0,0 +1,139 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Binäres Protokoll für die IO Platine.
+ *
+ * <pre>
+ * SYNC  LEN  TS  DATA...  CRC
+ * 0xA5  n    tttt ssss    CRC-8 über LEN, TS und DATA
+ * </pre>
+ *
+ * LEN ist die Anzahl der Datenbytes, TS enthält im
+ * oberen Halbbyte den Typ und im unteren die Folgenummer.
+ * Ein Ausgabetelegramm mit 16 Ausgängen ist damit 6
+ * statt 18 Bytes lang. Das Protokoll wird mit "Xby"
+ * angefordert, die Platine bestätigt mit einem HELLO
+ * Telegramm und spricht danach nur noch binär. Alte
+ * Firmware liest "Xby" als Ausgabetelegramm, siehe
+ * Uart.setBinaryProtocol.
+ *
+ * @author matthias
+ */
+public final class BinaryProtocol {
+    public static final byte SYNC = (byte) 0xa5;
+    public static final int MAX_DATA = 16;
+    public static final int OVERHEAD = 4;
+
+    /**
+     * Platine an Steuerung: Eingänge 56..71 als 16 Bit,
+     * niederwertiges Byte zuerst, Polarität wie ASCII.
+     */
+    public static final int TYPE_INPUTS = 1;
+
+    /**
+     * Steuerung an Platine: Ausgänge 120..135 als 16 Bit.
+     */
+    public static final int TYPE_OUTPUTS = 2;
+
+    /**
+     * Steuerung an Platine: Status abfragen.
+     */
+    public static final int TYPE_STATUS = 3;
+
+    /**
+     * Steuerung an Platine: Einzelkommando, die Daten
+     * enthalten den Buchstaben des ASCII Kommandos.
+     */
+    public static final int TYPE_COMMAND = 4;
+
+    /**
+     * Platine an Steuerung: Bestätigung des binären
+     * Protokolls, die Daten enthalten die Version.
+     */
+    public static final int TYPE_HELLO = 5;
+
+    public static final int VERSION = 1;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = ((crc & 0x80) != 0) ? ((crc << 1) ^ 0x07) : (crc << 1);
+            }
+            CRC_TABLE[i] = crc & 0xff;
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * CRC-8 (Polynom 0x07) über ein weiteres Byte.
+     *
+     * @param crc
+     * @param b
+     * @return
+     */
+    public static int crc8(int crc, byte b) {
+        return CRC_TABLE[(crc ^ b) & 0xff];
+    }
+
+    /**
+     * Kodiert ein Telegramm.
+     *
+     * @param buffer Ziel, mindestens OVERHEAD + len Bytes
+     * @param type
+     * @param sequence
+     * @param data
+     * @param len
+     * @return Länge des Telegramms
+     */
+    public static int encode(byte[] buffer, int type, int sequence, byte[] data, int len) {
+        System.arraycopy(data, 0, buffer, 3, len);
+        return frame(buffer, type, sequence, len);
+    }
+
+    /**
+     * Kodiert ein Telegramm mit einem 16 Bit Wert.
+     *
+     * @param buffer
+     * @param type
+     * @param sequence
+     * @param value
+     * @return Länge des Telegramms
+     */
+    public static int encode16(byte[] buffer, int type, int sequence, int value) {
+        buffer[3] = (byte) value;
+        buffer[4] = (byte) (value >>> 8);
+        return frame(buffer, type, sequence, 2);
+    }
+
+    /**
+     * Ergänzt Kopf und CRC um die bereits ab Index 3
+     * im Puffer stehenden Daten.
+     *
+     * @param buffer
+     * @param type
+     * @param sequence
+     * @param len
+     * @return Länge des Telegramms
+     */
+    private static int frame(byte[] buffer, int type, int sequence, int len) {
+        buffer[0] = SYNC;
+        buffer[1] = (byte) len;
+        buffer[2] = (byte) ((type << 4) | (sequence & 0xf));
+        int crc = 0;
+        for (int i = 1; i < 3 + len; i++) {
+            crc = crc8(crc, buffer[i]);
+        }
+
+        buffer[3 + len] = (byte) crc;
+        return OVERHEAD + len;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * Beschreibung einer Platine: Name, Protokoll, Gerät,
+ * Anfang des Ein- und Ausgangsbereichs und Polarität.
+ *
+ * Ohne Konfiguration gibt es die beiden bisherigen
+ * Platinen. Mit -Ddrs2.boards wird eine Datei geladen:
+ *
+ * <pre>
+ * boards=IO,DRS2,IO2
+ * IO.protocol=io
+ * IO.port=/dev/ttyUSB0
+ * IO.input=56
+ * IO.output=120
+ * IO.block=true
+ * DRS2.protocol=drs2
+ * DRS2.port=/dev/ttyUSB1
+ * DRS2.polarity=0x80,0xff,0x7e,0x64,0xf,0xff
+ * IO2.protocol=io
+ * IO2.port=/dev/ttyUSB2
+ * IO2.input=72
+ * IO2.output=138
+ * </pre>
+ *
+ * Die Polarität wird byteweise angegeben, gesetzte Bits
+ * sind low aktiv. Die Platine mit block=true erhält die
+ * Blockkommandos.
+ *
+ * @author matthias
+ */
+public class BoardConfig {
+    private static final int[] IO_POLARITY = {0x30, 0x00};
+
+    private final String name;
+    private final BoardProtocol protocol;
+    private final String device;
+    private final int inputStart;
+    private final int outputStart;
+    private final int[] polarity;
+    private final boolean block;
+
+    public BoardConfig(String name, BoardProtocol protocol, String device,
+            int inputStart, int outputStart, int[] polarity, boolean block) {
+        if (inputStart < 0 || inputStart + protocol.getInputSpan() > Connector.PORT_COUNT
+                || outputStart < 0 || outputStart + protocol.getOutputSpan() > Connector.PORT_COUNT) {
+            throw new IllegalArgumentException("Board " + name + ": ports out of range.");
+        }
+
+        this.name = name;
+        this.protocol = protocol;
+        this.device = device;
+        this.inputStart = inputStart;
+        this.outputStart = outputStart;
+        this.polarity = polarity;
+        this.block = block;
+    }
+
+    /**
+     * Die beiden Platinen der bisherigen Verdrahtung.
+     *
+     * @param port1 Gerät der IO Platine mit dem Block
+     * @param port2 Gerät der DRS2
+     * @param drs2Polarity
+     * @return
+     */
+    public static BoardConfig[] defaults(String port1, String port2, int[] drs2Polarity) {
+        return new BoardConfig[] {
+            new BoardConfig("IO", BoardProtocol.IO, port1, 56, 120, IO_POLARITY, true),
+            new BoardConfig("DRS2", BoardProtocol.DRS2, port2, 0, 0, drs2Polarity, false)
+        };
+    }
+
+    /**
+     * Die Platinen nach -Ddrs2.boards, ohne diese Angabe
+     * die beiden bisherigen Platinen auf -Ddrs2.port1 und
+     * -Ddrs2.port2. Die Steuerung und die Auswertung
+     * einer Aufzeichnung verwenden so dieselbe Liste.
+     *
+     * @param drs2Polarity Standard für DRS2 Platinen ohne Angabe
+     * @return
+     * @throws IOException
+     */
+    public static BoardConfig[] configured(int[] drs2Polarity) throws IOException {
+        String boardFile = System.getProperty("drs2.boards");
+        if (boardFile != null) {
+            return load(boardFile, drs2Polarity);
+        }
+
+        return defaults(System.getProperty("drs2.port1", "/dev/ttyUSB0"),
+                System.getProperty("drs2.port2", "/dev/ttyUSB1"), drs2Polarity);
+    }
+
+    /**
+     * Lädt die Platinen aus einer Properties Datei.
+     *
+     * @param fileName
+     * @param drs2Polarity Standard für DRS2 Platinen ohne Angabe
+     * @return
+     * @throws IOException
+     */
+    public static BoardConfig[] load(String fileName, int[] drs2Polarity) throws IOException {
+        try (Reader reader = new FileReader(fileName)) {
+            var props = new Properties();
+            props.load(reader);
+            return parse(props, drs2Polarity);
+        }
+    }
+
+    /**
+     * Erzeugt die Platinen aus Properties.
+     *
+     * @param props
+     * @param drs2Polarity
+     * @return
+     */
+    public static BoardConfig[] parse(Properties props, int[] drs2Polarity) {
+        String[] names = props.getProperty("boards", "").split(",");
+        var boards = new BoardConfig[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            var protocol = BoardProtocol.valueOf(props.getProperty(name + ".protocol", "io").toUpperCase());
+            int[] polarity = (protocol == BoardProtocol.DRS2) ? drs2Polarity : IO_POLARITY;
+            String pol = props.getProperty(name + ".polarity");
+            if (pol != null) {
+                String[] bytes = pol.split(",");
+                polarity = new int[bytes.length];
+                for (int j = 0; j < bytes.length; j++) {
+                    polarity[j] = Integer.decode(bytes[j].trim());
+                }
+            }
+
+            boards[i] = new BoardConfig(name, protocol,
+                    props.getProperty(name + ".port"),
+                    Integer.decode(props.getProperty(name + ".input", "0")),
+                    Integer.decode(props.getProperty(name + ".output", "0")),
+                    polarity,
+                    Boolean.parseBoolean(props.getProperty(name + ".block")));
+        }
+
+        return boards;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BoardProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Gerät der seriellen Schnittstelle bzw. des pty.
+     *
+     * @return
+     */
+    public String getDevice() {
+        return device;
+    }
+
+    public int getInputStart() {
+        return inputStart;
+    }
+
+    public int getOutputStart() {
+        return outputStart;
+    }
+
+    /**
+     * Polarität als Bitmaske, Byte 0 im niederwertigsten
+     * Byte.
+     *
+     * @return
+     */
+    public long getPolarityMask() {
+        long mask = 0;
+        for (int i = polarity.length - 1; i >= 0; i--) {
+            mask = (mask << 8) | (polarity[i] & 0xff);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Meldet zurück, ob die Platine die Blockkommandos
+     * erhält.
+     *
+     * @return
+     */
+    public boolean isBlock() {
+        return block;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + protocol + ", " + device + ", in " + inputStart + ", out " + outputStart + ")";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Protokoll einer Platine. Es legt fest, welche
+ * Ein- und Ausgänge relativ zum Anfang des Portbereichs
+ * der Platine im Telegramm übertragen werden.
+ *
+ * @author matthias
+ */
+public enum BoardProtocol {
+    /**
+     * DRS2 Platine: Eingänge 0..31 und 40..55, Ausgänge
+     * 0..95 und 104..119. Die Lücken gehören zum Block.
+     */
+    DRS2(new int[] {0, 32, 40, 16}, new int[] {0, 96, 104, 16}, 56, 120),
+
+    /**
+     * IO Platine: 16 Eingänge und 16 Ausgänge, dazu die
+     * Blockkommandos.
+     */
+    IO(new int[] {0, 16}, new int[] {0, 16}, 16, 16);
+
+    private final int[] inputRanges;
+    private final int[] outputRanges;
+    private final int inputSpan;
+    private final int outputSpan;
+
+    private BoardProtocol(int[] inputRanges, int[] outputRanges, int inputSpan, int outputSpan) {
+        this.inputRanges = inputRanges;
+        this.outputRanges = outputRanges;
+        this.inputSpan = inputSpan;
+        this.outputSpan = outputSpan;
+    }
+
+    /**
+     * Setzt die Bits aller Ausgänge, die dieses Protokoll
+     * ab outputStart überträgt.
+     *
+     * @param ports
+     * @param outputStart
+     */
+    public void markOutputs(PortBits ports, int outputStart) {
+        for (int i = 0; i < outputRanges.length; i += 2) {
+            ports.setRange(outputStart + outputRanges[i], outputStart + outputRanges[i] + outputRanges[i + 1]);
+        }
+    }
+
+    /**
+     * Setzt die Bits aller Eingänge, die dieses Protokoll
+     * ab inputStart überträgt.
+     *
+     * @param ports
+     * @param inputStart
+     */
+    public void markInputs(PortBits ports, int inputStart) {
+        for (int i = 0; i < inputRanges.length; i += 2) {
+            ports.setRange(inputStart + inputRanges[i], inputStart + inputRanges[i] + inputRanges[i + 1]);
+        }
+    }
+
+    /**
+     * Größe des Eingangsbereichs einschließlich Lücken.
+     *
+     * @return
+     */
+    public int getInputSpan() {
+        return inputSpan;
+    }
+
+    /**
+     * Größe des Ausgangsbereichs einschließlich Lücken.
+     *
+     * @return
+     */
+    public int getOutputSpan() {
+        return outputSpan;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Einfacher Ringpuffer für Bytes zwischen zwei Threads.
+ *
+ * Wird von den Transport Varianten ohne eigenen
+ * Puffer im Betriebssystem verwendet.
+ *
+ * @author matthias
+ */
+public class ByteRing {
+    private final byte[] ring;
+    private final int mask;
+    private int readPos = 0;
+    private int writePos = 0;
+
+    /**
+     * Legt einen Ringpuffer an, die Größe muss eine
+     * Zweierpotenz sein.
+     *
+     * @param size
+     */
+    public ByteRing(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two: " + size);
+        }
+
+        ring = new byte[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Anzahl der lesbaren Bytes.
+     *
+     * @return
+     */
+    public synchronized int available() {
+        return writePos - readPos;
+    }
+
+    /**
+     * Anzahl der freien Bytes.
+     *
+     * @return
+     */
+    public synchronized int free() {
+        return ring.length - (writePos - readPos);
+    }
+
+    /**
+     * Schreibt so viele Bytes wie Platz ist.
+     *
+     * @param buffer
+     * @param offset
+     * @param len
+     * @return Anzahl der geschriebenen Bytes
+     */
+    public synchronized int put(byte[] buffer, int offset, int len) {
+        int n = Math.min(len, ring.length - (writePos - readPos));
+        for (int i = 0; i < n; i++) {
+            ring[(writePos + i) & mask] = buffer[offset + i];
+        }
+
+        writePos += n;
+        return n;
+    }
+
+    /**
+     * Liest bis zu len Bytes.
+     *
+     * @param buffer
+     * @param offset
+     * @param len
+     * @return Anzahl der gelesenen Bytes
+     */
+    public synchronized int get(byte[] buffer, int offset, int len) {
+        int n = Math.min(len, writePos - readPos);
+        for (int i = 0; i < n; i++) {
+            buffer[offset + i] = ring[(readPos + i) & mask];
+        }
+
+        readPos += n;
+        return n;
+    }
+
+    /**
+     * Verwirft den Inhalt.
+     */
+    public synchronized void clear() {
+        readPos = writePos;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Zeichnet den Datenverkehr der Uarts in einer Datei
+ * auf, die in den Speicher eingeblendet ist.
+ *
+ * Jeder Eintrag besteht aus dem Zeitstempel (System.nanoTime),
+ * der Kanalnummer, der Richtung, der Länge und den Bytes
+ * eines Lese- oder Schreibvorgangs. Ein Eintrag kostet
+ * damit nur das Kopieren weniger Bytes in den Speicher,
+ * das Schreiben auf die Platte übernimmt das
+ * Betriebssystem. Ist die Datei voll, wird sie in
+ * name.1 umbenannt und eine neue Datei begonnen.
+ *
+ * @author matthias
+ */
+public class CaptureRecorder {
+    /**
+     * Kennung am Anfang der Datei.
+     */
+    public static final int MAGIC = 0x44525343; // "DRSC"
+    public static final int HEADER_SIZE = 16;
+    public static final int ENTRY_HEADER = 12;
+
+    public static final byte RX = 0;
+    public static final byte TX = 1;
+
+    private final File file;
+    private final int size;
+    private MappedByteBuffer buffer;
+    private long entries = 0;
+
+    /**
+     * Legt die Aufzeichnungsdatei an.
+     *
+     * @param fileName
+     * @param size Größe der Datei in Bytes
+     * @throws IOException
+     */
+    public CaptureRecorder(String fileName, int size) throws IOException {
+        this.file = new File(fileName);
+        this.size = size;
+        map();
+    }
+
+    private void map() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(1);
+        buffer.putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Hängt einen Eintrag an.
+     *
+     * @param channel Kanalnummer, Nummer der Platine beginnend mit 1
+     * @param direction RX oder TX
+     * @param data
+     * @param offset
+     * @param len
+     */
+    public synchronized void record(int channel, byte direction, byte[] data, int offset, int len) {
+        if (len <= 0 || buffer == null) {
+            return;
+        }
+
+        if (buffer.remaining() < ENTRY_HEADER + len) {
+            rotate();
+            if (buffer == null || buffer.remaining() < ENTRY_HEADER + len) {
+                return;
+            }
+        }
+
+        buffer.putLong(System.nanoTime());
+        buffer.put((byte) channel);
+        buffer.put(direction);
+        buffer.putShort((short) len);
+        buffer.put(data, offset, len);
+        entries++;
+    }
+
+    /**
+     * Schließt die volle Datei ab und beginnt eine neue.
+     */
+    private void rotate() {
+        buffer.force();
+        buffer = null;
+        File old = new File(file.getPath() + ".1");
+        old.delete();
+        if (!file.renameTo(old)) {
+            System.out.println("Capture " + file + " could not be rotated.");
+        }
+
+        try {
+            map();
+        } catch (IOException ex) {
+            System.out.println("Capture stopped: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Schreibt die Daten auf die Platte.
+     */
+    public synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Anzahl der aufgezeichneten Einträge.
+     *
+     * @return
+     */
+    public synchronized long getEntries() {
+        return entries;
+    }
+}
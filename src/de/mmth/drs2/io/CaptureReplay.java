@@ -0,0 +1,290 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spielt die empfangenen Daten eines Kanals aus einer
+ * Aufzeichnung des CaptureRecorders wieder ab.
+ *
+ * Als Transport an die Uart übergeben, laufen die Daten
+ * durch den normalen FrameParser und die Logik, wahlweise
+ * im ursprünglichen Zeitraster oder so schnell wie
+ * möglich. Geschriebene Daten werden verworfen.
+ *
+ * Mit main kann eine Aufzeichnung auch ohne Steuerung
+ * ausgewertet werden, die ungültigen Telegramme werden
+ * dabei mit Zeitstempel ausgegeben.
+ *
+ * @author matthias
+ */
+public class CaptureReplay implements Transport, Runnable {
+    /**
+     * Bytes, die bei der Auswertung auf einmal zerlegt
+     * werden. Ein Telegramm hat mindestens zwei Bytes,
+     * die Warteschlange mit 64 Plätzen reicht also
+     * immer aus.
+     */
+    private static final int ANALYSE_CHUNK = 32;
+
+    private final String fileName;
+    private final int channel;
+    private final boolean realTime;
+    private final ByteRing received = new ByteRing(4096);
+    private final byte[] data = new byte[65536];
+    private volatile Runnable listener;
+    private Thread thread;
+    private volatile boolean finished = false;
+
+    /**
+     * @param fileName Aufzeichnung
+     * @param channel abzuspielender Kanal, Nummer der Platine beginnend mit 1
+     * @param realTime true für das ursprüngliche Zeitraster
+     */
+    public CaptureReplay(String fileName, int channel, boolean realTime) {
+        this.fileName = fileName;
+        this.channel = channel;
+        this.realTime = realTime;
+    }
+
+    /**
+     * Blendet eine Aufzeichnung in den Speicher ein und
+     * prüft die Kennung.
+     *
+     * @param fileName
+     * @return Puffer, der auf dem ersten Eintrag steht.
+     * @throws IOException
+     */
+    public static ByteBuffer map(String fileName) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(fileName, "r");
+             FileChannel fc = raf.getChannel()) {
+            buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+        }
+
+        if (buffer.getInt() != CaptureRecorder.MAGIC) {
+            throw new IOException(fileName + " is not a capture file.");
+        }
+
+        buffer.position(CaptureRecorder.HEADER_SIZE);
+        return buffer;
+    }
+
+    @Override
+    public String getName() {
+        return "Replay " + channel + " " + fileName;
+    }
+
+    @Override
+    public boolean open() {
+        thread = new Thread(this, getName());
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer buffer;
+        try {
+            buffer = map(fileName);
+        } catch (IOException ex) {
+            System.out.println("Replay failed: " + ex.getMessage());
+            return;
+        }
+
+        long firstStamp = 0;
+        long start = System.nanoTime();
+        while (buffer.remaining() >= CaptureRecorder.ENTRY_HEADER && !Thread.currentThread().isInterrupted()) {
+            long stamp = buffer.getLong();
+            int ch = buffer.get();
+            int direction = buffer.get();
+            int len = buffer.getShort() & 0xffff;
+            if (len == 0) {
+                break;
+            }
+
+            buffer.get(data, 0, len);
+            if (ch != channel || direction != CaptureRecorder.RX) {
+                continue;
+            }
+
+            if (firstStamp == 0) {
+                firstStamp = stamp;
+            }
+
+            if (realTime) {
+                long due = start + (stamp - firstStamp);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+
+            int offset = 0;
+            while (offset < len) {
+                offset += received.put(data, offset, len - offset);
+                Runnable l = listener;
+                if (l != null) {
+                    l.run();
+                }
+                if (offset < len) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+        }
+
+        finished = true;
+        System.out.println(getName() + " finished.");
+    }
+
+    /**
+     * Meldet zurück, ob die Aufzeichnung vollständig
+     * abgespielt wurde.
+     *
+     * @return
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return received.available();
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        return received.get(buffer, offset, len);
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        return len;
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Wertet eine Aufzeichnung aus und gibt alle
+     * ungültigen Telegramme aller Kanäle aus. Die Kanäle
+     * werden wie in der Steuerung nach -Ddrs2.boards den
+     * Platinen zugeordnet und mit deren Protokoll
+     * zerlegt. Die
+     * Zusammenfassung enthält auch die Telegramme, die
+     * wegen einer vollen Warteschlange verloren gingen.
+     *
+     * @param args Name der Aufzeichnung
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: CaptureReplay <capture file>");
+            return;
+        }
+
+        // Kanal n ist die Platine n aus drs2.boards, die
+        // Polarität spielt für die Zerlegung keine Rolle
+        BoardConfig[] boards = BoardConfig.configured(new int[0]);
+        int channels = boards.length + 1;
+        FrameQueue[] queues = new FrameQueue[channels];
+        FrameParser[] parsers = new FrameParser[channels];
+        for (int ch = 1; ch < channels; ch++) {
+            queues[ch] = new FrameQueue(64);
+            parsers[ch] = Uart.createParser(boards[ch - 1], queues[ch]);
+        }
+
+        ByteBuffer buffer = map(args[0]);
+        long[] valid = new long[channels];
+        long[] binary = new long[channels];
+        long[] invalid = new long[channels];
+        long[] bytes = new long[channels];
+        long unknown = 0;
+        byte[] data = new byte[65536];
+        long firstStamp = 0;
+
+        while (buffer.remaining() >= CaptureRecorder.ENTRY_HEADER) {
+            long stamp = buffer.getLong();
+            int ch = buffer.get();
+            int direction = buffer.get();
+            int len = buffer.getShort() & 0xffff;
+            if (len == 0) {
+                break;
+            }
+
+            buffer.get(data, 0, len);
+            if (firstStamp == 0) {
+                firstStamp = stamp;
+            }
+
+            if (direction != CaptureRecorder.RX) {
+                continue;
+            }
+
+            if (ch < 1 || ch >= channels) {
+                unknown += len;
+                continue;
+            }
+
+            bytes[ch] += len;
+            FrameParser parser = parsers[ch];
+            for (int offset = 0; offset < len; offset += ANALYSE_CHUNK) {
+                // In kleinen Stücken zerlegen, damit die
+                // Warteschlange nie überläuft
+                parser.feed(data, offset, Math.min(ANALYSE_CHUNK, len - offset), stamp);
+
+                UartFrame frame;
+                while ((frame = queues[ch].peek()) != null) {
+                    if (frame.isValid()) {
+                        valid[ch]++;
+                        if (frame.getType() != UartFrame.TYPE_ASCII) {
+                            binary[ch]++;
+                        }
+                    } else {
+                        invalid[ch]++;
+                        System.out.printf("%12.3f ms channel %d invalid frame: %s%n",
+                                (frame.getNanoTime() - firstStamp) / 1e6, ch, hex(frame));
+                    }
+                    queues[ch].release();
+                }
+            }
+        }
+
+        for (int ch = 1; ch < channels; ch++) {
+            System.out.println("Channel " + ch + " (" + boards[ch - 1].getName() + "): " + bytes[ch] + " bytes, "
+                    + valid[ch] + " valid (" + binary[ch] + " binary), " + invalid[ch] + " invalid frames, "
+                    + queues[ch].getDropped() + " dropped");
+        }
+
+        if (unknown > 0) {
+            System.out.println(unknown + " bytes on channels without board in drs2.boards");
+        }
+    }
+
+    private static String hex(UartFrame frame) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < frame.getLength(); i++) {
+            buf.append(String.format("%02x ", frame.getData()[i] & 0xff));
+        }
+
+        return buf.toString();
+    }
+}
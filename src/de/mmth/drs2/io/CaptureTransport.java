@@ -0,0 +1,67 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Zeichnet alle gelesenen und geschriebenen Bytes eines
+ * anderen Transports mit dem CaptureRecorder auf.
+ *
+ * @author matthias
+ */
+public class CaptureTransport implements Transport {
+    private final Transport transport;
+    private final CaptureRecorder recorder;
+    private final int channel;
+
+    /**
+     * @param transport aufzuzeichnende Verbindung
+     * @param recorder
+     * @param channel Kanalnummer in der Aufzeichnung
+     */
+    public CaptureTransport(Transport transport, CaptureRecorder recorder, int channel) {
+        this.transport = transport;
+        this.recorder = recorder;
+        this.channel = channel;
+    }
+
+    @Override
+    public String getName() {
+        return transport.getName();
+    }
+
+    @Override
+    public boolean open() {
+        return transport.open();
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+        recorder.flush();
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return transport.bytesAvailable();
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        int read = transport.read(buffer, len, offset);
+        recorder.record(channel, CaptureRecorder.RX, buffer, offset, read);
+        return read;
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        recorder.record(channel, CaptureRecorder.TX, buffer, 0, len);
+        return transport.write(buffer, len);
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+        transport.setDataListener(listener);
+    }
+}
@@ -6,8 +6,20 @@ package de.mmth.drs2.io;
 
 import de.mmth.drs2.Config;
 
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.log.EventCode;
+import de.mmth.drs2.log.EventLog;
+import de.mmth.drs2.metrics.LatencyTracer;
 /**
+ * Der Connector hält den Zustand aller Ein- und
+ * Ausgänge aller Platinen. Jede Platine belegt einen
+ * Bereich der Ports, geänderte Ausgänge lösen nur
+ * ein Telegramm an die betroffene Platine aus.
+ *
+ * Objekte, die auf Tasten reagieren, melden sich mit
+ * subscribe für einzelne Eingänge an und werden nur
+ * bei einer Änderung dieses Eingangs aufgerufen.
  *
  * @author pi
  */
@@ -28,30 +40,108 @@ public class Connector implements TickerEvent {
     public final static int WECKER = OUTPUT_COUNT - 7;
     public final static int V24_OUT = OUTPUT_COUNT - 1;
     
-    protected final boolean[] drs2In = new boolean[INPUT_COUNT + LOCAL_INPUT_COUNT];
-    protected final boolean[] drs2Out = new boolean[OUTPUT_COUNT + LOCAL_OUTPUT_COUNT];
-    private boolean outputChanged = false;
-    private boolean blockChanged = false;
+    /**
+     * Größe des Portbereichs für Ein- und Ausgänge aller
+     * Platinen zusammen. Alle Bitfelder, die mit setOuts
+     * übergeben werden, müssen diese Größe haben.
+     */
+    public final static int PORT_COUNT = 512;
+    
+    protected final PortBits drs2In = new PortBits(PORT_COUNT);
+    protected final PortBits drs2Out = new PortBits(PORT_COUNT);
+    private final PortBits changedOut = new PortBits(PORT_COUNT);
+    
+    private static final Uart[] NO_BOARDS = new Uart[0];
+    private Uart[] boards = NO_BOARDS;
+    private PortBits[] boardPorts = new PortBits[0];
+    private boolean[] boardChanged = new boolean[0];
+    private boolean[] boardSend = new boolean[0];
+    private final int[] outputOwner = new int[PORT_COUNT];
+    
+    private static final InputEvent[] NO_SUBSCRIBERS = new InputEvent[0];
+    private final InputEvent[][] subscribers = new InputEvent[PORT_COUNT][];
+    private final int[] pressedSince = new int[PORT_COUNT];
     
     public final int[] polarity = {0x80, 0xff, 0x7e, 0x64, 0xf, 0xff};
     
     private Config config;
+    private final EventLog log;
+    private final LatencyTracer tracer = new LatencyTracer(PORT_COUNT);
 
     /**
-     * Das Tickerevent löst das Lesen der DRS 2 Tastereingänge
-     * sowie das Schreiben der DRS 2 Lampenausgänge aus.
+     * Das Tickerevent löst das Schreiben der Lampenausgänge
+     * an alle Platinen aus, deren Ausgänge sich geändert
+     * haben.
      * 
      * @param count 
      */
     @Override
     public void tick(int count) {
-        if (outputChanged) {
-            outputChanged = false;
-            config.uart2.sendCommand(UartCommand.UPDATE_OUTPUTS);
+        var send = boardSend;
+        synchronized (this) {
+            for (int i = 0; i < boardChanged.length; i++) {
+                send[i] = boardChanged[i];
+                boardChanged[i] = false;
+            }
         }
-        if (blockChanged) {
-            blockChanged = false;
-            config.uart1.sendCommand(UartCommand.UPDATE_OUTPUTS);
+        
+        for (int i = 0; i < send.length; i++) {
+            if (send[i]) {
+                boards[i].sendOutputs(tracer.takePending(i));
+            }
+        }
+    }
+    
+    /**
+     * Ausgänge ohne Platine, z.B. die lokalen Ausgänge,
+     * lösen kein Telegramm aus.
+     * 
+     * @param log 
+     */
+    public Connector(EventLog log) {
+        this.log = log;
+        for (int i = 0; i < PORT_COUNT; i++) {
+            outputOwner[i] = -1;
+        }
+    }
+    
+    /**
+     * Meldet eine Platine an. Die Ausgänge aus ports
+     * werden künftig über diese Uart ausgegeben.
+     * 
+     * @param uart
+     * @param ports 
+     */
+    synchronized void addBoard(Uart uart, PortBits ports) {
+        int ix = boards.length;
+        for (int i = 0; i < PORT_COUNT; i++) {
+            if (ports.get(i)) {
+                if (outputOwner[i] >= 0) {
+                    throw new IllegalArgumentException("Output " + i + " of " + uart.getName()
+                            + " is already used by " + boards[outputOwner[i]].getName());
+                }
+                outputOwner[i] = ix;
+            }
+        }
+        
+        var newBoards = new Uart[ix + 1];
+        System.arraycopy(boards, 0, newBoards, 0, ix);
+        newBoards[ix] = uart;
+        var newPorts = new PortBits[ix + 1];
+        System.arraycopy(boardPorts, 0, newPorts, 0, ix);
+        newPorts[ix] = ports;
+        
+        boards = newBoards;
+        boardPorts = newPorts;
+        boardChanged = new boolean[ix + 1];
+        boardSend = new boolean[ix + 1];
+    }
+    
+    private void markChanged(int portNo) {
+        int owner = outputOwner[portNo];
+        if (owner >= 0) {
+            boardChanged[owner] = true;
+            tracer.outputChanged(owner);
         }
     }
     
@@ -61,18 +151,51 @@ public class Connector implements TickerEvent {
      * Abständen die Taster zu lesen und die
      * Glühlampen zu schreiben.
      * 
+     * Die Messung von der Taste bis zur Lampe ist
+     * eingeschaltet, mit -Ddrs2.trace=false wird sie
+     * abgeschaltet.
+     * 
      * @param config
      * @throws Exception 
      */
     public void init(Config config) throws Exception {
         this.config = config;
-        config.ticker.add(this);
+        config.ticker.add(TickPhase.OUTPUT, this);
+        config.ticker.add(TickPhase.UI, "Latenzen", tracer);
+        tracer.setEnabled(!"false".equals(System.getProperty("drs2.trace")));
+        
+        drs2In.clear();
         
-        for (int i = 0; i < drs2In.length; i++) {
-            drs2In[i] = false;
+        synchronized (this) {
+            for (int i = 0; i < boardChanged.length; i++) {
+                boardChanged[i] = true;
+            }
+        }
+    }
+    
+    /**
+     * Liefert die Messung der Zeit von der Taste bis zur
+     * Lampe.
+     * 
+     * @return 
+     */
+    public LatencyTracer getTracer() {
+        return tracer;
+    }
+    
+    /**
+     * Zusammenfassung der gesendeten Telegramme und der
+     * Schreib-Threads aller Platinen.
+     * 
+     * @return 
+     */
+    public String boardSummary() {
+        var buf = new StringBuilder("Boards\r\n");
+        for (Uart board: boards) {
+            buf.append("  ").append(board.summary()).append("\r\n");
         }
         
-        blockChanged = true;
+        return buf.toString();
     }
     
     /**
@@ -88,7 +211,7 @@ public class Connector implements TickerEvent {
         for (int i = 0; i < INPUT_COUNT; i++) {
             buf.append(i);
             buf.append(": ");
-            buf.append(drs2In[i]);
+            buf.append(drs2In.get(i));
             buf.append("\r\n");
         }
         
@@ -96,7 +219,7 @@ public class Connector implements TickerEvent {
         for (int i = 0; i < INPUT_COUNT; i++) {
             buf.append(i);
             buf.append(": ");
-            buf.append(drs2Out[i]);
+            buf.append(drs2Out.get(i));
             buf.append("\r\n");
         }
         
@@ -110,7 +233,118 @@ public class Connector implements TickerEvent {
      * @return 
      */
     public boolean isInSet(int portNo) {
-        return drs2In[portNo];
+        return drs2In.get(portNo);
+    }
+    
+    /**
+     * Meldet zurück, ob der Ausgang gesetzt ist.
+     * 
+     * @param portNo
+     * @return 
+     */
+    public synchronized boolean isOutSet(int portNo) {
+        return (portNo >= 0) && (portNo < drs2Out.size()) && drs2Out.get(portNo);
+    }
+    
+    /**
+     * Meldet ein Objekt für Änderungen an einem Eingang an.
+     * 
+     * @param portNo
+     * @param listener 
+     */
+    public void subscribe(int portNo, InputEvent listener) {
+        var list = subscribers[portNo];
+        if (list == null) {
+            list = NO_SUBSCRIBERS;
+        }
+        
+        var newList = new InputEvent[list.length + 1];
+        System.arraycopy(list, 0, newList, 0, list.length);
+        newList[list.length] = listener;
+        subscribers[portNo] = newList;
+    }
+    
+    /**
+     * Übernimmt bis zu 32 Eingänge ab portNo von der
+     * Uart. Die geänderten Bits werden mit einer
+     * Wortoperation ermittelt, nur deren angemeldete
+     * Objekte werden benachrichtigt.
+     * 
+     * @param portNo erster Eingang
+     * @param len Anzahl der Eingänge
+     * @param values neue Werte, portNo liegt im niederwertigsten Bit
+     * @param nanoTime Empfangszeitpunkt des Telegramms
+     * @param count aktueller Tick
+     * @return Maske der geänderten Eingänge
+     */
+    int updateInputs(int portNo, int len, int values, long nanoTime, int count) {
+        int changed = drs2In.setBits(portNo, len, values);
+        int pending = changed;
+        while (pending != 0) {
+            int bit = Integer.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+            tracer.inputEdge(portNo + bit, nanoTime);
+            dispatch(portNo + bit, ((values >>> bit) & 1) == 1, count);
+        }
+        
+        return changed;
+    }
+    
+    /**
+     * Setzt einen Eingang ohne Platine, z.B. aus einem
+     * Szenario der Simulation. Darf nur im Ticker Thread
+     * aufgerufen werden.
+     * 
+     * @param portNo
+     * @param value
+     * @param count aktueller Tick
+     */
+    public void setInput(int portNo, boolean value, int count) {
+        if (portNo < 0 || portNo >= PORT_COUNT) {
+            throw new IllegalArgumentException("Input " + portNo);
+        }
+        
+        updateInputs(portNo, 1, value ? 1 : 0, System.nanoTime(), count);
+    }
+    
+    private void dispatch(int portNo, boolean value, int count) {
+        var list = subscribers[portNo];
+        if (value) {
+            pressedSince[portNo] = count;
+            if (list != null) {
+                for (InputEvent ev: list) {
+                    ev.pressed(portNo, count);
+                }
+            }
+        } else if (list != null) {
+            var duration = count - pressedSince[portNo];
+            for (InputEvent ev: list) {
+                ev.released(portNo, count, duration);
+            }
+        }
+    }
+    
+    /**
+     * Kopiert alle Ein- und Ausgänge für einen Snapshot.
+     * 
+     * @param inputs
+     * @param outputs 
+     */
+    public synchronized void copyTo(PortBits inputs, PortBits outputs) {
+        inputs.copyFrom(drs2In);
+        outputs.copyFrom(drs2Out);
+    }
+    
+    /**
+     * Liefert bis zu 32 Ausgänge ab portNo für die
+     * Kodierung der Telegramme.
+     * 
+     * @param portNo
+     * @param len
+     * @return 
+     */
+    synchronized int getOutBits(int portNo, int len) {
+        return drs2Out.getBits(portNo, len);
     }
     
     /**
@@ -119,18 +353,32 @@ public class Connector implements TickerEvent {
      * @param portNo
      * @param value 
      */
-    public void setOut(int portNo, boolean value) {
-        if (portNo >= 0 && portNo < drs2Out.length) {
-            if ((portNo >= 96 && portNo <= 103) || (portNo >= 120)) {
-                blockChanged |= drs2Out[portNo] != value;
-            } else {
-                if (drs2Out[portNo] != value) {
-                    System.out.println("Changed by " + portNo + " to " + value);
+    public synchronized void setOut(int portNo, boolean value) {
+        if (portNo >= 0 && portNo < drs2Out.size()) {
+            if (drs2Out.set(portNo, value)) {
+                log.log(EventCode.OUTPUT_CHANGED, null, portNo, value ? 1 : 0);
+                markChanged(portNo);
+            }
+        }
+    }
+    
+    /**
+     * Setzt alle Ausgänge, deren Bit in mask gesetzt ist,
+     * in einem Schritt auf die Werte aus values. Ausgänge,
+     * die sich dabei insgesamt nicht ändern, lösen kein
+     * neues Telegramm aus.
+     * 
+     * @param mask
+     * @param values 
+     */
+    public synchronized void setOuts(PortBits mask, PortBits values) {
+        if (drs2Out.setAll(mask, values, changedOut)) {
+            for (int i = 0; i < boardPorts.length; i++) {
+                if (changedOut.intersects(boardPorts[i])) {
+                    boardChanged[i] = true;
+                    tracer.outputChanged(i);
                 }
-                outputChanged |= drs2Out[portNo] != value; 
             }
-            
-            drs2Out[portNo] = value;
         }
     }
     
@@ -139,17 +387,11 @@ public class Connector implements TickerEvent {
      * 
      * @param portNo
      */
-    public void toggleOut(int portNo) {
-        if (portNo >= 0 && portNo < drs2Out.length) {
-            if ((portNo >= 96 && portNo <= 103) || (portNo >= 120)) {
-                blockChanged = true;
-            } else {
-                outputChanged = true; 
-            }
-            
-            System.out.println("1Port " + portNo + " is " + drs2Out[portNo]);
-            drs2Out[portNo] = !drs2Out[portNo];
-            System.out.println("2Port " + portNo + " is " + drs2Out[portNo]);
+    public synchronized void toggleOut(int portNo) {
+        if (portNo >= 0 && portNo < drs2Out.size()) {
+            markChanged(portNo);
+            drs2Out.flip(portNo);
+            log.log(EventCode.OUTPUT_TOGGLED, null, portNo, drs2Out.get(portNo) ? 1 : 0);
         }
     }
     
@@ -0,0 +1,206 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Zerlegt den Datenstrom einer Platine in Telegramme.
+ *
+ * Die empfangenen Bytes werden in einen Ringpuffer
+ * geschrieben und schrittweise ausgewertet, auch wenn
+ * ein Telegramm über mehrere Lesevorgänge verteilt
+ * ankommt. Ein Telegramm beginnt mit dem Startzeichen,
+ * gefolgt von einer festen Anzahl Nutzdaten und dem
+ * Endezeichen. Vollständige Telegramme landen mit
+ * Zeitstempel in der FrameQueue.
+ *
+ * @author matthias
+ */
+public class FrameParser {
+    private static final int RING_SIZE = 1024;
+
+    private final byte[] ring = new byte[RING_SIZE];
+    private int readPos = 0;
+    private int writePos = 0;
+
+    private final byte startMarker;
+    private final byte endMarker;
+    private final int frameLen;
+    private final FrameQueue queue;
+
+    private final byte[] frameData = new byte[UartFrame.MAX_LEN];
+    private int framePtr = -1;
+
+    /**
+     * @param startMarker Startzeichen, z.B. 'B'
+     * @param endMarker Endezeichen, z.B. 'X'
+     * @param frameLen Anzahl der Nutzdaten
+     * @param queue Ziel für die Telegramme
+     */
+    public FrameParser(byte startMarker, byte endMarker, int frameLen, FrameQueue queue) {
+        this.startMarker = startMarker;
+        this.endMarker = endMarker;
+        this.frameLen = frameLen;
+        this.queue = queue;
+    }
+
+    /**
+     * Liefert die Anzahl der Bytes, die am Stück in den
+     * Ringpuffer geschrieben werden können.
+     *
+     * @return
+     */
+    public int writableBytes() {
+        int free = RING_SIZE - (writePos - readPos);
+        int toEnd = RING_SIZE - (writePos & (RING_SIZE - 1));
+        return Math.min(free, toEnd);
+    }
+
+    /**
+     * Liefert den Ringpuffer für das Einlesen mit
+     * readBytes.
+     *
+     * @return
+     */
+    public byte[] getRing() {
+        return ring;
+    }
+
+    /**
+     * Liefert die Schreibposition im Ringpuffer.
+     *
+     * @return
+     */
+    public int getWriteOffset() {
+        return writePos & (RING_SIZE - 1);
+    }
+
+    /**
+     * Meldet die Anzahl der in den Ringpuffer
+     * geschriebenen Bytes und wertet sie aus.
+     *
+     * @param len
+     * @return Anzahl der fertigen Telegramme
+     */
+    public int commit(int len) {
+        return commit(len, System.nanoTime());
+    }
+
+    /**
+     * Wie commit(len), die Telegramme erhalten den
+     * angegebenen Zeitstempel, z.B. aus einer Aufzeichnung.
+     *
+     * @param len
+     * @param nanoTime
+     * @return Anzahl der fertigen Telegramme
+     */
+    public int commit(int len, long nanoTime) {
+        writePos += len;
+        return parse(nanoTime);
+    }
+
+    /**
+     * Übernimmt Bytes aus einem beliebigen Puffer, z.B.
+     * Byte für Byte in einer Emulation.
+     *
+     * @param data
+     * @param offset
+     * @param len
+     * @param nanoTime
+     * @return Anzahl der fertigen Telegramme
+     */
+    public int feed(byte[] data, int offset, int len, long nanoTime) {
+        int frames = 0;
+        while (len > 0) {
+            int n = Math.min(len, writableBytes());
+            System.arraycopy(data, offset, ring, getWriteOffset(), n);
+            frames += commit(n, nanoTime);
+            offset += n;
+            len -= n;
+        }
+
+        return frames;
+    }
+
+    /**
+     * Verwirft alle gepufferten Daten und ein
+     * angefangenes Telegramm.
+     */
+    public void reset() {
+        readPos = writePos;
+        framePtr = -1;
+    }
+
+    /**
+     * Meldet zurück, ob gerade kein ASCII Telegramm
+     * empfangen wird.
+     *
+     * @return
+     */
+    protected boolean isIdle() {
+        return framePtr == -1;
+    }
+
+    private int parse(long nanoTime) {
+        int frames = 0;
+        while (readPos != writePos) {
+            byte b = ring[readPos & (RING_SIZE - 1)];
+            readPos++;
+            if (accept(b, nanoTime)) {
+                frames++;
+            }
+        }
+
+        return frames;
+    }
+
+    /**
+     * Wertet ein Byte des Datenstroms aus.
+     *
+     * @param b
+     * @param nanoTime
+     * @return true wenn ein Telegramm fertig wurde.
+     */
+    protected boolean accept(byte b, long nanoTime) {
+        if (framePtr == -1) {
+            if (b == startMarker) {
+                framePtr = 0;
+            }
+        } else if (framePtr >= frameLen) {
+            framePtr = -1;
+            return publish(frameData, frameLen, b == endMarker, UartFrame.TYPE_ASCII, 0, nanoTime);
+        } else {
+            frameData[framePtr++] = b;
+        }
+
+        return false;
+    }
+
+    /**
+     * Stellt ein Telegramm in die Warteschlange.
+     *
+     * @param data
+     * @param len
+     * @param valid
+     * @param type
+     * @param sequence
+     * @param nanoTime
+     * @return false wenn die Warteschlange voll war.
+     */
+    protected boolean publish(byte[] data, int len, boolean valid, int type, int sequence, long nanoTime) {
+        UartFrame frame = queue.claim();
+        if (frame == null) {
+            return false;
+        }
+
+        System.arraycopy(data, 0, frame.data, 0, len);
+        frame.length = len;
+        frame.valid = valid;
+        frame.type = type;
+        frame.sequence = sequence;
+        frame.nanoTime = nanoTime;
+        queue.publish();
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-freie Warteschlange für empfangene Telegramme
+ * zwischen genau einem Lese-Thread und dem Ticker.
+ *
+ * Die Telegramm Objekte werden einmal angelegt und
+ * reihum verwendet. Ist die Warteschlange voll, wird
+ * das neue Telegramm verworfen und gezählt.
+ *
+ * @author matthias
+ */
+public class FrameQueue {
+    private final UartFrame[] frames;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long dropped = 0;
+
+    /**
+     * Legt eine Warteschlange an, die Größe muss eine
+     * Zweierpotenz sein.
+     *
+     * @param size
+     */
+    public FrameQueue(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two: " + size);
+        }
+
+        frames = new UartFrame[size];
+        for (int i = 0; i < size; i++) {
+            frames[i] = new UartFrame();
+        }
+
+        mask = size - 1;
+    }
+
+    /**
+     * Liefert das nächste freie Telegramm zum Befüllen
+     * durch den Lese-Thread oder null, wenn die
+     * Warteschlange voll ist.
+     *
+     * @return
+     */
+    UartFrame claim() {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return null;
+        }
+
+        return frames[(int) t & mask];
+    }
+
+    /**
+     * Gibt das mit claim geholte Telegramm an den
+     * Ticker weiter.
+     */
+    void publish() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Liefert das älteste Telegramm ohne es zu entfernen
+     * oder null, wenn die Warteschlange leer ist.
+     *
+     * @return
+     */
+    public UartFrame peek() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+
+        return frames[(int) h & mask];
+    }
+
+    /**
+     * Entfernt das mit peek geholte Telegramm.
+     */
+    public void release() {
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * Anzahl der wegen Überlauf verworfenen Telegramme.
+     *
+     * @return
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Das InputEvent wird von allen Objekten implementiert,
+ * die über Änderungen an einem Eingang des Connectors
+ * benachrichtigt werden wollen.
+ *
+ * Die Aufrufe erfolgen im Ticker Thread, nur dann
+ * wenn sich der Eingang tatsächlich geändert hat.
+ *
+ * @author matthias
+ */
+public interface InputEvent {
+    /**
+     * Der Eingang wurde aktiv (Taste gedrückt).
+     *
+     * @param portNo
+     * @param count aktueller Tick
+     */
+    public void pressed(int portNo, int count);
+
+    /**
+     * Der Eingang wurde wieder inaktiv (Taste losgelassen).
+     *
+     * @param portNo
+     * @param count aktueller Tick
+     * @param duration Anzahl der Ticks, die der Eingang aktiv war
+     */
+    public void released(int portNo, int count, int duration);
+}
@@ -0,0 +1,78 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Verbindung ohne Gegenstelle für die Simulation. Die
+ * Telegramme an die Platine werden nur gezählt, es
+ * kommen nie Daten zurück. Die Eingänge werden in der
+ * Simulation direkt über Connector.setInput gesetzt,
+ * damit sie unabhängig von Threads immer im selben
+ * Tick ankommen.
+ *
+ * @author matthias
+ */
+public class MemoryTransport implements Transport {
+    private final String name;
+    private volatile long frames = 0;
+    private volatile long bytes = 0;
+
+    public MemoryTransport(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean open() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return 0;
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        return 0;
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        frames++;
+        bytes += len;
+        return len;
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+    }
+
+    /**
+     * Anzahl der geschriebenen Telegramme.
+     *
+     * @return
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Anzahl der geschriebenen Bytes.
+     *
+     * @return
+     */
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Bitfeld für die Ein- und Ausgänge des Connectors.
+ *
+ * Die Bits werden in long Worten gehalten, Bit n liegt
+ * in Wort n / 64 an der Stelle n % 64. Damit lassen
+ * sich die Telegramme der Platinen mit wenigen
+ * Wortoperationen kodieren und dekodieren.
+ *
+ * @author matthias
+ */
+public class PortBits {
+    private final long[] words;
+    private final int size;
+
+    /**
+     * Legt ein Bitfeld mit der angegebenen Anzahl
+     * Bits an, alle Bits sind gelöscht.
+     *
+     * @param size
+     */
+    public PortBits(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Liefert die Anzahl der Bits.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Liefert den Wert eines Bits.
+     *
+     * @param index
+     * @return
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Setzt den Wert eines Bits.
+     *
+     * @param index
+     * @param value
+     * @return true wenn sich das Bit geändert hat.
+     */
+    public boolean set(int index, boolean value) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        long old = words[w];
+        long now = value ? (old | bit) : (old & ~bit);
+        words[w] = now;
+        return old != now;
+    }
+
+    /**
+     * Invertiert ein Bit.
+     *
+     * @param index
+     */
+    public void flip(int index) {
+        words[index >>> 6] ^= 1L << index;
+    }
+
+    /**
+     * Löscht alle Bits.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    /**
+     * Übernimmt alle Bits aus einem gleich großen Bitfeld.
+     *
+     * @param other
+     */
+    public void copyFrom(PortBits other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Liefert bis zu 32 Bits ab der angegebenen Position
+     * als int, das Bit an der Position pos landet im
+     * niederwertigsten Bit.
+     *
+     * @param pos
+     * @param len Anzahl der Bits, 1 bis 32
+     * @return
+     */
+    public int getBits(int pos, int len) {
+        int w = pos >>> 6;
+        int shift = pos & 63;
+        long value = words[w] >>> shift;
+        if (shift + len > 64) {
+            value |= words[w + 1] << (64 - shift);
+        }
+
+        return (int) (value & lowMask(len));
+    }
+
+    /**
+     * Setzt bis zu 32 Bits ab der angegebenen Position.
+     *
+     * @param pos
+     * @param len Anzahl der Bits, 1 bis 32
+     * @param value
+     * @return Maske der geänderten Bits, ausgerichtet wie value.
+     */
+    public int setBits(int pos, int len, int value) {
+        int changed = (getBits(pos, len) ^ value) & (int) lowMask(len);
+        if (changed == 0) {
+            return 0;
+        }
+
+        int w = pos >>> 6;
+        int shift = pos & 63;
+        long c = (changed & 0xffffffffL);
+        words[w] ^= c << shift;
+        if (shift + len > 64) {
+            words[w + 1] ^= c >>> (64 - shift);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Übernimmt alle Bits aus values, deren Bit in
+     * mask gesetzt ist. Die übrigen Bits bleiben
+     * unverändert.
+     *
+     * @param mask
+     * @param values
+     * @param changed erhält die Maske der geänderten Bits, darf null sein.
+     * @return true wenn sich mindestens ein Bit geändert hat.
+     */
+    public boolean setAll(PortBits mask, PortBits values, PortBits changed) {
+        boolean any = false;
+        for (int i = 0; i < words.length; i++) {
+            long old = words[i];
+            long m = mask.words[i];
+            long now = (old & ~m) | (values.words[i] & m);
+            words[i] = now;
+            if (changed != null) {
+                changed.words[i] = old ^ now;
+            }
+
+            any |= old != now;
+        }
+
+        return any;
+    }
+
+    /**
+     * Prüft, ob sich die beiden Bitfelder überschneiden.
+     *
+     * @param other
+     * @return
+     */
+    public boolean intersects(PortBits other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Prüft, ob Bits außerhalb des anderen Bitfelds
+     * gesetzt sind.
+     *
+     * @param other
+     * @return
+     */
+    public boolean hasBitsOutside(PortBits other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & ~other.words[i]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Setzt einen Bereich von Bits.
+     *
+     * @param from erstes Bit
+     * @param to erstes Bit nach dem Bereich
+     */
+    public void setRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            words[i >>> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * Wendet die Polarität eines Telegramms per XOR an, so
+     * dass aktive Eingänge als gesetzte Bits erscheinen.
+     *
+     * @param raw Rohdaten vom Telegramm
+     * @param polarity Bits, die low aktiv sind
+     * @return
+     */
+    public static int normalize(int raw, int polarity) {
+        return raw ^ polarity;
+    }
+
+    private static long lowMask(int len) {
+        return (len >= 64) ? -1L : (1L << len) - 1;
+    }
+}
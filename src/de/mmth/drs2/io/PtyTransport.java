@@ -0,0 +1,147 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Verbindung über ein Pseudo-Terminal, z.B. zu einem
+ * externen Platinen Simulator, der mit
+ * socat -d -d pty,raw,echo=0 pty,raw,echo=0
+ * verbunden ist.
+ *
+ * Das Terminal wird mit stty auf raw gestellt, ein
+ * eigener Thread liest die Daten in einen Ringpuffer.
+ *
+ * @author matthias
+ */
+public class PtyTransport implements Transport, Runnable {
+    private final String path;
+    private final ByteRing received = new ByteRing(4096);
+    private final byte[] readBuffer = new byte[256];
+    private InputStream in;
+    private OutputStream out;
+    private Thread reader;
+    private volatile Runnable listener;
+
+    public PtyTransport(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return path;
+    }
+
+    @Override
+    public boolean open() {
+        try {
+            try {
+                new ProcessBuilder("stty", "-F", path, "raw", "-echo").inheritIO().start().waitFor();
+            } catch (IOException ex) {
+                System.out.println("stty not available: " + ex.getMessage());
+            }
+
+            in = new FileInputStream(path);
+            out = new FileOutputStream(path);
+        } catch (IOException ex) {
+            System.out.println("Open " + path + " failed: " + ex.getMessage());
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        reader = new Thread(this, "PtyReader " + path);
+        reader.setDaemon(true);
+        reader.start();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (reader != null) {
+            reader.interrupt();
+        }
+
+        try {
+            if (in != null) {
+                in.close();
+            }
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Liest blockierend vom Terminal, solange der Ringpuffer
+     * Platz hat, und meldet neue Daten an den Empfänger.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int len = in.read(readBuffer, 0, Math.min(readBuffer.length, Math.max(1, received.free())));
+                if (len < 0) {
+                    break;
+                }
+
+                int offset = 0;
+                while (offset < len) {
+                    offset += received.put(readBuffer, offset, len - offset);
+                    notifyListener();
+                    if (offset < len) {
+                        Thread.sleep(1);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            System.out.println("Read " + path + " failed: " + ex.getMessage());
+        } catch (InterruptedException ex) {
+            // beendet
+        }
+    }
+
+    private void notifyListener() {
+        Runnable l = listener;
+        if (l != null) {
+            l.run();
+        }
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return received.available();
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        return received.get(buffer, offset, len);
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        try {
+            out.write(buffer, 0, len);
+            out.flush();
+            return len;
+        } catch (IOException ex) {
+            System.out.println("Write " + path + " failed: " + ex.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+        this.listener = listener;
+    }
+}
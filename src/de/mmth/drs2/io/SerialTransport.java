@@ -0,0 +1,72 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortDataListener;
+import com.fazecast.jSerialComm.SerialPortEvent;
+
+/**
+ * Verbindung über eine serielle Schnittstelle mit
+ * jSerialComm. Der Empfänger wird im Lese-Thread von
+ * jSerialComm aufgerufen.
+ *
+ * @author matthias
+ */
+public class SerialTransport implements Transport {
+    private final String portName;
+    private final SerialPort comPort;
+
+    public SerialTransport(String portName) {
+        this.portName = portName;
+        this.comPort = SerialPort.getCommPort(portName);
+    }
+
+    @Override
+    public String getName() {
+        return portName;
+    }
+
+    @Override
+    public boolean open() {
+        return comPort.openPort();
+    }
+
+    @Override
+    public void close() {
+        comPort.removeDataListener();
+        comPort.closePort();
+    }
+
+    @Override
+    public int bytesAvailable() {
+        return comPort.bytesAvailable();
+    }
+
+    @Override
+    public int read(byte[] buffer, int len, int offset) {
+        return comPort.readBytes(buffer, len, offset);
+    }
+
+    @Override
+    public int write(byte[] buffer, int len) {
+        return comPort.writeBytes(buffer, len);
+    }
+
+    @Override
+    public void setDataListener(Runnable listener) {
+        comPort.addDataListener(new SerialPortDataListener() {
+            @Override
+            public int getListeningEvents() {
+                return SerialPort.LISTENING_EVENT_DATA_AVAILABLE;
+            }
+
+            @Override
+            public void serialEvent(SerialPortEvent event) {
+                listener.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Verbindung einer Uart zu einer Platine.
+ *
+ * Neben der seriellen Schnittstelle gibt es einen
+ * Emulator im Speicher und eine Variante über ein
+ * Pseudo-Terminal, damit die Steuerung auch ohne die
+ * Platinen läuft.
+ *
+ * @author matthias
+ */
+public interface Transport {
+    /**
+     * Liefert den Namen der Verbindung.
+     *
+     * @return
+     */
+    public String getName();
+
+    /**
+     * Öffnet die Verbindung.
+     *
+     * @return false wenn die Verbindung nicht geöffnet werden konnte.
+     */
+    public boolean open();
+
+    /**
+     * Schließt die Verbindung.
+     */
+    public void close();
+
+    /**
+     * Anzahl der Bytes, die ohne Warten gelesen
+     * werden können.
+     *
+     * @return
+     */
+    public int bytesAvailable();
+
+    /**
+     * Liest bis zu len Bytes ab offset in den Puffer.
+     *
+     * @param buffer
+     * @param len
+     * @param offset
+     * @return Anzahl der gelesenen Bytes, -1 bei Fehlern.
+     */
+    public int read(byte[] buffer, int len, int offset);
+
+    /**
+     * Schreibt len Bytes aus dem Puffer.
+     *
+     * @param buffer
+     * @param len
+     * @return Anzahl der geschriebenen Bytes, -1 bei Fehlern.
+     */
+    public int write(byte[] buffer, int len);
+
+    /**
+     * Meldet den Empfänger an, der aufgerufen wird, sobald
+     * Daten zum Lesen anliegen. Der Aufruf erfolgt in
+     * einem Thread der Verbindung.
+     *
+     * @param listener
+     */
+    public void setDataListener(Runnable listener);
+}
@@ -4,10 +4,15 @@
  */
 package de.mmth.drs2.io;
 
-import com.fazecast.jSerialComm.SerialPort;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.jfr.FrameDroppedEvent;
+import de.mmth.drs2.jfr.FrameReceivedEvent;
+import de.mmth.drs2.log.EventCode;
+import de.mmth.drs2.metrics.LatencyTracer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Das Uart Objekt verwaltet die Kommunikation
@@ -25,71 +30,134 @@ import de.mmth.drs2.TickerEvent;
 public final class Uart implements TickerEvent {
     private final static int PENDING_TRAIN_DURATION = 10000;
 
-    private final SerialPort comPort;
+    private final Transport comPort;
     private final Config config;
     private boolean actEinfahrt1 = false;
     private byte STATUS_MARKER = (byte) 'B';
     private final byte OUTPUT_MARKER = (byte) 'C';
+    private final byte DELTA_MARKER = (byte) 'D';
     private final byte STATUS_END = (byte)'X';
-    private byte RECEIVE_MARKER = (byte) 'B';
-    private byte RECEIVE_END = (byte) 'X';
-    private int STATUS_LEN = 7;
     
-    private final int IoInputStart = 56; // Input start der IO Platine(n)
-    private final int IoOutputStart = 120; // Output start der IO Platine(n)
+    private final BoardConfig board;
+    private final int inputStart;
+    private final int outputStart;
     
     /**
-     * Erzeugt ein neues Uart Objekt und meldet es
-     * am ticker an.
+     * Erzeugt für jede Platine ein Uart Objekt, meldet
+     * es am Ticker und am Connector an. Jede Uart hat
+     * ihren eigenen Lese- und Schreib-Thread, die
+     * Platinen werden also unabhängig voneinander bedient.
+     * 
+     * uart1 ist die Platine mit dem Block, uart2 die
+     * erste DRS2.
      * 
      * @param config
-     * @param portName1
-     * @param portName2
-     * @param inputPolarity
+     * @param boards
+     * @param transports Verbindung zu den Platinen, gleiche Reihenfolge wie boards
      */
-    public static void createUarts(Config config, String portName1, String portName2, int[] inputPolarity) {
-        config.uart1 = new Uart(config, portName1, inputPolarity, false);
-        config.ticker.add(config.uart1);
-        config.uart2 = new Uart(config, portName2, inputPolarity, true);
-        config.ticker.add(config.uart2);
+    public static void createUarts(Config config, BoardConfig[] boards, Transport[] transports) {
+        var deltaFrames = Boolean.getBoolean("drs2.deltaframes");
+        var binary = Boolean.getBoolean("drs2.io.binary");
+        
+        config.uarts = new Uart[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            var uart = new Uart(config, boards[i], transports[i]);
+            config.uarts[i] = uart;
+            config.ticker.add(TickPhase.INPUT, uart.getName(), uart);
+            
+            var ports = new PortBits(Connector.PORT_COUNT);
+            boards[i].getProtocol().markOutputs(ports, boards[i].getOutputStart());
+            config.connector.addBoard(uart, ports);
+            
+            uart.setDeltaFrames(deltaFrames);
+            uart.setBinaryProtocol(binary);
+            
+            if (boards[i].isBlock() && config.uart1 == null) {
+                config.uart1 = uart;
+            } else if (uart.isDRS2 && config.uart2 == null) {
+                config.uart2 = uart;
+            }
+        }
     }
     
-    private final int[] inputPolarity;
-    private int statusPtr = -1;
-    private final byte[] byteBuffer = new byte[1];
-    private final byte[] statusMsg = new byte[32];
+    private final int inputPolarityLow;
+    private final int inputPolarityHigh;
+    private final FrameQueue frameQueue = new FrameQueue(64);
+    private final FrameParser parser;
+    private final UartWriter writer;
+    private final byte[] frameBuffer = new byte[20];
     private final boolean isDRS2;
+    
+    private final byte[] lastFrame = new byte[20];
+    private final byte[] deltaBuffer = new byte[40];
+    private int lastFrameLen = 0;
+    private volatile boolean outputLost = false;
+    private boolean deltaFrames = false;
+    private long sentFrames = 0;
+    private long skippedFrames = 0;
+    private long deltaFrameCount = 0;
+    
+    private boolean binaryRequested = false;
+    private volatile boolean binaryMode = false;
+    private final AtomicInteger txSequence = new AtomicInteger();
+    private final byte[] commandData = new byte[1];
+    private int rxSequence = -1;
+    private long frameTime = 0;
+    private long reportedDrops = 0;
+    private long sequenceGaps = 0;
+    
     /**
-     * Öffnet den Port zum Wechselstrom Block
+     * Öffnet den Port zu einer Platine
      * 
      * @param config
-     * @param portName 
+     * @param board
+     * @param transport 
      */
-    private Uart(Config config, String portName, int[] inputPolarity, boolean isDRS2) {
+    private Uart(Config config, BoardConfig board, Transport transport) {
         this.config = config;
-        this.inputPolarity = inputPolarity;
-        this.isDRS2 = isDRS2;
+        this.board = board;
+        this.inputStart = board.getInputStart();
+        this.outputStart = board.getOutputStart();
+        long polarity = board.getPolarityMask();
+        this.inputPolarityLow = (int) polarity;
+        this.inputPolarityHigh = (int) (polarity >>> 32);
+        this.isDRS2 = board.getProtocol() == BoardProtocol.DRS2;
         
-        if (isDRS2) {
-            STATUS_MARKER = 'B';
-            STATUS_LEN = 6;
-        } else {
-            STATUS_MARKER = 'U';
-            STATUS_LEN = 6;
-            RECEIVE_MARKER = 'Z';
-            RECEIVE_END = 'T';
+        STATUS_MARKER = isDRS2 ? (byte) 'B' : (byte) 'U';
+        parser = createParser(board, frameQueue);
+        comPort = transport;
+        System.out.println("Open Port " + transport.getName());
+        if (!comPort.open()) {
+            System.out.println("Open Port " + transport.getName() + " failed.");
         }
         
-        comPort = SerialPort.getCommPort(portName);
-        System.out.println("Open Port " + portName);
-        comPort.openPort();
-        
         System.out.println("ClearUART");
         clearUART();
+        comPort.setDataListener(this::readAvailable);
+        
+        writer = new UartWriter(transport.getName(), comPort, this);
+        writer.start();
         System.out.println("Get status.");
         sendCommand(UartCommand.GET_STATUS);
     }
     
+    /**
+     * Legt den Parser für die Rückmeldungen einer Platine
+     * an: B...X bei der DRS2, Z...T und binäre Telegramme
+     * bei der IO Platine.
+     * 
+     * @param board
+     * @param queue
+     * @return 
+     */
+    static FrameParser createParser(BoardConfig board, FrameQueue queue) {
+        if (board.getProtocol() == BoardProtocol.DRS2) {
+            return new FrameParser((byte) 'B', (byte) 'X', 6, queue);
+        }
+        
+        return new BinaryFrameParser((byte) 'Z', (byte) 'T', 6, queue);
+    }
+    
     private int fromHex(byte val) {
         if (val >= '0' && val <= '9') {
             return val - '0';
@@ -100,37 +168,79 @@ public final class Uart implements TickerEvent {
         } else return -1;
     }
     
-    private void processIoBytes(byte[] status) {
-        boolean changed = false;
+    /**
+     * Übernimmt die Eingänge der IO Platine. Der Connector
+     * meldet nur die Eingänge weiter, die sich gegenüber
+     * dem letzten Status geändert haben.
+     * 
+     * @param status
+     * @param count 
+     */
+    private void processIoBytes(byte[] status, int count) {
         //int inputVals = fromHex(status[1]) * 16 + fromHex(status[2]);
         int inputVals = (fromHex(status[2]) << 12) + (fromHex(status[3]) << 8) + (fromHex(status[4]) << 4) + fromHex(status[5]);
+        processIoInputs(inputVals, count);
+    }
+    
+    /**
+     * Name der Platine aus der Konfiguration.
+     * 
+     * @return 
+     */
+    public String getName() {
+        return board.getName();
+    }
+    
+    /**
+     * Beschreibung der Platine.
+     * 
+     * @return 
+     */
+    public BoardConfig getBoard() {
+        return board;
+    }
+    
+    /**
+     * Übernimmt die 16 Eingänge der IO Platine, gemeinsam
+     * für das ASCII und das binäre Protokoll.
+     * 
+     * @param inputVals
+     * @param count 
+     */
+    private void processIoInputs(int inputVals, int count) {
         //System.out.println("Inputs: " + Integer.toHexString(inputVals));
-        inputVals ^= 0x30;
+        inputVals = PortBits.normalize(inputVals, inputPolarityLow & 0xffff);
         
         //System.out.println("Inputs: " + Integer.toHexString(inputVals));
-        for (var i = IoInputStart; i < IoInputStart + 16; i++) {
-            var newState  = (inputVals & 1) == 1;
-            if (config.connector.drs2In[i] != newState) {
-                changed = true;
-                System.out.print(i + " " + newState + ", ");
-            }
-            config.connector.drs2In[i] = newState;
-            inputVals >>= 1;
+        int changed = config.connector.updateInputs(inputStart, 16, inputVals, frameTime, count);
+        if (changed == 0) {
+            return;
         }
-        if (changed) {
-            System.out.println("changed IO.");
-            if (config.connector.drs2In[Const.BLOCK_AH_IN]) {
-              if (!actEinfahrt1) {
-                  // Streckenblock M, Einfahrt von Weiß nach Rot
-                  actEinfahrt1 = true;
-                  if (!config.signale[0].isFahrt()) {
-                    config.stoerungsmelder.meldung();
-                  }
-                  config.pendingTrainM = PENDING_TRAIN_DURATION;
+        
+        logChanged(inputStart, changed, inputVals);
+        if (!board.isBlock()) {
+            return;
+        }
+        
+        if (config.connector.isInSet(Const.BLOCK_AH_IN)) {
+          if (!actEinfahrt1) {
+              // Streckenblock M, Einfahrt von Weiß nach Rot
+              actEinfahrt1 = true;
+              if (!config.signale[0].isFahrt()) {
+                config.stoerungsmelder.meldung();
               }
-            } else {
-              actEinfahrt1 = false;
-            }
+              config.pendingTrainM = PENDING_TRAIN_DURATION;
+          }
+        } else {
+          actEinfahrt1 = false;
+        }
+    }
+    
+    private void logChanged(int portNo, int changed, int values) {
+        while (changed != 0) {
+            int bit = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            config.log.log(EventCode.INPUT_CHANGED, board.getName(), portNo + bit, (values >>> bit) & 1);
         }
     }
     
@@ -185,57 +295,55 @@ public final class Uart implements TickerEvent {
         }
     } */
     
-    private void processInputBytes(byte[] buffer) {
-        var pos = 0;
-        boolean changed = false;
-        for (var i = 0; i < STATUS_LEN; i++) {
-            var b = buffer[i];
-            var pol = inputPolarity[i];
-            for (var j = 0; j < 8; j++) {
-                if (pos == 32) {
-                    pos += 8; // 8 Bit vom Block Status überspringen
-                }
-            
-                var newState = (b & 1) != (pol & 1);
-                if (config.connector.drs2In[pos] != newState) {
-                    changed = true;
-                    System.out.print(pos + " " + newState + ", ");
-                }
-                config.connector.drs2In[pos++] = newState;
-                
-                b >>= 1;
-                pol >>= 1;
-            }
+    /**
+     * Übernimmt die Eingänge der DRS2. Die ersten vier
+     * Bytes ergeben die Eingänge 0 bis 31, die beiden
+     * folgenden die Eingänge 40 bis 55, jeweils ab dem
+     * Anfang des Eingangsbereichs der Platine. Der Bereich
+     * von 32 bis 39 gehört zum Block.
+     * 
+     * @param buffer
+     * @param count 
+     */
+    private void processInputBytes(byte[] buffer, int count) {
+        int low = PortBits.normalize(littleEndian(buffer, 0, 4), inputPolarityLow);
+        int high = PortBits.normalize(littleEndian(buffer, 4, 2), inputPolarityHigh);
+        
+        int changedLow = config.connector.updateInputs(inputStart, 32, low, frameTime, count);
+        int changedHigh = config.connector.updateInputs(inputStart + 40, 16, high, frameTime, count);
+        logChanged(inputStart, changedLow, low);
+        logChanged(inputStart + 40, changedHigh, high);
+    }
+    
+    private static int littleEndian(byte[] buffer, int offset, int len) {
+        int value = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            value = (value << 8) | (buffer[offset + i] & 0xff);
         }
         
-        if (changed) {
-            System.out.println("changed.");
+        return value;
+    }
+    
+    private static void putLittleEndian(byte[] buffer, int offset, int len, int value) {
+        for (int i = 0; i < len; i++) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
         }
     }
     
     /**
      * Füllt den Sendepuffer mit den Statuswerten aus drs2Out.
-     * Der Bereich von 32 bis 39 gehört zum Block und nicht
+     * Der Bereich von 96 bis 103 gehört zum Block und nicht
      * zum DRS2, er wird deshalb übersprungen.
      * @param buffer 
      */
     private void fillupOutputBuffer(byte[] buffer) {
-        var outputs = config.connector.drs2Out;
-        var pos = 0;
-        for (var i = 1; i < 15; i++) {
-            if (i == 13) {
-                pos += 8; // Status vom Block
-            }
-            var b = 0; 
-            for (var j = 0; j < 8; j++) {
-                b >>= 1;
-                
-                if (outputs[pos++]) {
-                    b |= 0x80;
-                }
-            }
-            
-            buffer[i] = (byte) b;
+        var outputs = config.connector;
+        synchronized (outputs) {
+            putLittleEndian(buffer, 1, 4, outputs.getOutBits(outputStart, 32));
+            putLittleEndian(buffer, 5, 4, outputs.getOutBits(outputStart + 32, 32));
+            putLittleEndian(buffer, 9, 4, outputs.getOutBits(outputStart + 64, 32));
+            putLittleEndian(buffer, 13, 2, outputs.getOutBits(outputStart + 104, 16));
         }
     }
     
@@ -246,101 +354,496 @@ public final class Uart implements TickerEvent {
      * @param buffer 
      */
     private void fillupStatusBuffer(byte[] buffer) {
-        var outputs = config.connector.drs2Out;
-        var pos = 96;
-        var b = 0; 
-        for (var j = 0; j < 8; j++) {
-            b >>= 1;
-
-            if (outputs[pos++]) {
-                b |= 0x80;
-            }
-        }
-
-        buffer[1] = (byte) (b | 0x80);
+        buffer[1] = (byte) (config.connector.getOutBits(outputStart + 96, 8) | 0x80);
     }
     
     /**
      * Füllt die Ausgabe-Bits in den Buffer für die serielle
-     * Schnittstelle. Die zusätzlichen neuen Outputs liegen
-     * im Bereich von 120 bis 128 (1 Platine) bzw. bis 136
-     * (2 Platinen).
+     * Schnittstelle. Die 16 Ausgänge der IO Platine liegen
+     * ab dem Anfang ihres Ausgangsbereichs, bei der ersten
+     * Platine 120 bis 135.
      * 
      * @param buffer 
+     * @param outputs
      */
-    private void fillupIOBuffer(byte[] buffer) {
-        var outputs = config.connector.drs2Out;
-        var pos = IoOutputStart;
+    private void fillupIOBuffer(byte[] buffer, int outputs) {
         var ix = 0;
         
         buffer[ix++] = 'X';
         for (var i = 0; i < 16; i++) {
-            buffer[ix++] = (byte) (outputs[pos ++] ? ('a' + i) : ('A' + i));
+            buffer[ix++] = (byte) (((outputs & 1) == 1) ? ('a' + i) : ('A' + i));
+            outputs >>>= 1;
         }
         buffer[ix] = 'y';
-        System.out.println(new String(buffer));
     }
     
     /**
-     * Liest Rückmeldungen vom Block ein.
+     * Wird vom Lese-Thread von jSerialComm aufgerufen, sobald
+     * Daten anliegen. Alle verfügbaren Bytes werden in einem
+     * Aufruf in den Ringpuffer gelesen und zerlegt. Fertige
+     * Telegramme wecken den Ticker auf.
+     */
+    private void readAvailable() {
+        synchronized (parser) {
+            int available;
+            while ((available = comPort.bytesAvailable()) > 0) {
+                int len = Math.min(available, parser.writableBytes());
+                int read = comPort.read(parser.getRing(), len, parser.getWriteOffset());
+                if (read <= 0) {
+                    break;
+                }
+                
+                if (parser.commit(read) > 0) {
+                    config.ticker.wakeup();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Verarbeitet die vom Lese-Thread empfangenen
+     * Rückmeldungen vom Block bzw. der DRS2. Der
+     * Ticker ruft diese Funktion zu Beginn jedes Ticks
+     * und sofort nach dem Empfang eines Telegramms auf.
      * 
      * @param count 
      */
     @Override
     public void tick(int count) {
-        while (comPort.bytesAvailable() > 0) {
-            comPort.readBytes(byteBuffer, 1);
-            //System.out.println("Read: " + Integer.toHexString(byteBuffer[0] & 0xff) + ", ptr: " + statusPtr);
-            if ((statusPtr == -1) && (byteBuffer[0] == RECEIVE_MARKER)) {
-                statusPtr = 0;
-            } else {
-                if (statusPtr < 0) {
-                    //System.out.write(byteBuffer[0]);
-                } else if (statusPtr >= STATUS_LEN) {
-                    if (isDRS2) {
-                        if (byteBuffer[0] == RECEIVE_END) {
-                        // process status
-                            processInputBytes(statusMsg);
-                            statusPtr = -1;
-                        } else {
-                            // invalid status message
-                            System.out.println("Invalid DRS2 status package dropped.");
-                            statusPtr = -1;
+        if (outputLost) {
+            // Das letzte Ausgabetelegramm wurde nicht
+            // geschrieben, alle Ausgänge neu senden.
+            outputLost = false;
+            lastFrameLen = 0;
+            sendOutputs(null);
+        }
+        
+        long dropped = frameQueue.getDropped();
+        if (dropped != reportedDrops) {
+            frameDropped("queue full", dropped - reportedDrops);
+            reportedDrops = dropped;
+        }
+        
+        UartFrame frame;
+        while ((frame = frameQueue.peek()) != null) {
+            frameTime = frame.getNanoTime();
+            frameReceived(frame);
+            if (frame.isValid()) {
+                if (isDRS2) {
+                    processInputBytes(frame.getData(), count);
+                } else if (frame.getType() != UartFrame.TYPE_ASCII) {
+                    processBinaryFrame(frame, count);
+                } else {
+                    if (binaryMode) {
+                        // Die Platine wurde neu gestartet und
+                        // spricht wieder ASCII.
+                        config.log.log(EventCode.IO_ASCII_FALLBACK, board.getName());
+                        binaryMode = false;
+                        if (binaryRequested) {
+                            requestBinary();
                         }
-                    } else {
-                      if (byteBuffer[0] == RECEIVE_END) {
-                          processIoBytes(statusMsg);
-                          statusPtr = -1;
-                      } else {
-                          // invalid status message
-                          System.out.println("Invalid IO status package dropped: " + (new String(statusMsg)));
-                          statusPtr = -1;
-                          
-                          if (new String(statusMsg).startsWith("No ")) {
-                            sendCommand(UartCommand.GET_STATUS);
-                          }
-                      }
                     }
-                } else {
-                    statusMsg[statusPtr] = byteBuffer[0];
-                    statusPtr++;
-                    //System.out.println("cnt: " + statusPtr + ", read: " + byteBuffer[0] + ", exp: " + STATUS_LEN + ", msg: " + (new String(statusMsg)));
+                    processIoBytes(frame.getData(), count);
+                }
+            } else if (isDRS2) {
+                // invalid status message
+                config.log.log(EventCode.FRAME_INVALID, board.getName());
+                frameDropped("invalid", 1);
+            } else {
+                // invalid status message
+                var msg = frame.toString();
+                frameDropped("invalid", 1);
+                config.log.log(EventCode.FRAME_INVALID_IO, msg);
+                if (msg.startsWith("No ")) {
+                    frameQueue.release();
+                    sendCommand(UartCommand.GET_STATUS);
+                    continue;
                 }
             }
             
+            frameQueue.release();
+        }
+    }
+    
+    private void frameReceived(UartFrame frame) {
+        var event = new FrameReceivedEvent();
+        if (event.shouldCommit()) {
+            event.board = getName();
+            event.frameType = frame.getType();
+            event.sequence = frame.getSequence();
+            event.length = frame.getLength();
+            event.queueDelay = System.nanoTime() - frame.getNanoTime();
+            event.commit();
+        }
+    }
+    
+    private void frameDropped(String reason, long frames) {
+        var event = new FrameDroppedEvent();
+        if (event.shouldCommit()) {
+            event.board = getName();
+            event.reason = reason;
+            event.frames = frames;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Verarbeitet ein Telegramm im BinaryProtocol. Lücken
+     * in der Folgenummer werden gezählt, sie zeigen
+     * verlorene Telegramme an.
+     * 
+     * @param frame
+     * @param count 
+     */
+    private void processBinaryFrame(UartFrame frame, int count) {
+        int seq = frame.getSequence();
+        if (rxSequence >= 0 && seq != ((rxSequence + 1) & 0xf)) {
+            sequenceGaps++;
+        }
+        rxSequence = seq;
+        
+        byte[] data = frame.getData();
+        switch (frame.getType()) {
+            case BinaryProtocol.TYPE_HELLO:
+                config.log.log(EventCode.IO_BINARY, board.getName(), data[0]);
+                binaryMode = true;
+                // Ausgänge vollständig im neuen Protokoll senden
+                lastFrameLen = 0;
+                sendCommand(UartCommand.UPDATE_OUTPUTS);
+                break;
+                
+            case BinaryProtocol.TYPE_INPUTS:
+                processIoInputs(littleEndian(data, 0, 2), count);
+                break;
+                
+            default:
+                config.log.log(EventCode.FRAME_UNKNOWN, board.getName(), frame.getType());
+                frameDropped("unknown type", 1);
+                break;
+        }
+    }
+    
+    /**
+     * Fordert das binäre Protokoll bei der IO Platine an.
+     * 
+     * Die Anforderung "Xby" hat die Form eines
+     * ASCII Ausgabetelegramms. Eine Firmware ohne das
+     * binäre Protokoll schaltet damit den Ausgang 1 der
+     * Platine ein und bleibt bei ASCII. Deshalb folgt
+     * sofort ein vollständiges Ausgabetelegramm, das
+     * den Ausgang wieder richtig setzt. Das 'y' schließt
+     * das Telegramm ab, damit die alte Firmware das
+     * folgende 'X' nicht verschluckt.
+     * 
+     * @param binary 
+     */
+    public void setBinaryProtocol(boolean binary) {
+        if (isDRS2) {
+            return;
         }
+        
+        binaryRequested = binary;
+        if (binary) {
+            requestBinary();
+        }
+    }
+    
+    private void requestBinary() {
+        writer.submitCommand(UartCommand.BINARY_HELLO);
+        lastFrameLen = 0;
+        sendOutputs(null);
+    }
+    
+    /**
+     * Meldet zurück, ob mit der IO Platine binär
+     * kommuniziert wird.
+     * 
+     * @return 
+     */
+    public boolean isBinaryMode() {
+        return binaryMode;
+    }
+    
+    /**
+     * Anzahl der binären Telegramme mit falscher Prüfsumme.
+     * 
+     * @return 
+     */
+    public long getCrcErrors() {
+        return isDRS2 ? 0 : ((BinaryFrameParser) parser).getCrcErrors();
+    }
+    
+    /**
+     * Anzahl der Neusynchronisationen nach fehlerhaften
+     * binären Telegrammen.
+     * 
+     * @return 
+     */
+    public long getResyncs() {
+        return isDRS2 ? 0 : ((BinaryFrameParser) parser).getResyncs();
+    }
+    
+    /**
+     * Anzahl der Lücken in den Folgenummern der
+     * empfangenen binären Telegramme.
+     * 
+     * @return 
+     */
+    public long getSequenceGaps() {
+        return sequenceGaps;
+    }
+    
+    /**
+     * Liefert den Schreib-Thread mit seinen Messwerten.
+     * 
+     * @return 
+     */
+    public UartWriter getWriter() {
+        return writer;
+    }
+    
+    /**
+     * Anzahl der Telegramme, die wegen einer vollen
+     * Warteschlange verworfen wurden.
+     * 
+     * @return 
+     */
+    public long getDroppedFrames() {
+        return frameQueue.getDropped();
     }
     
     private void clearUART() {
-      byte[] buffer = new byte[2];
-      while (comPort.bytesAvailable() > 0) {
-          comPort.readBytes(buffer, 1);
-          System.out.println(buffer[0]);
+      synchronized (parser) {
+        byte[] buffer = new byte[2];
+        while (comPort.bytesAvailable() > 0) {
+            comPort.read(buffer, 1, 0);
+            System.out.println(buffer[0]);
+        }
+        
+        parser.reset();
       }
     }
     
+    /**
+     * Vergleicht das Ausgabetelegramm mit dem zuletzt
+     * gesendeten. Unveränderte Telegramme werden nicht
+     * gesendet. Bei eingeschalteten Delta-Telegrammen
+     * wird das Telegramm durch ein kürzeres ersetzt,
+     * welches nur die geänderten Bytes enthält.
+     * 
+     * Wartet im UartWriter noch ein Telegramm, wird
+     * das vollständige Telegramm gesendet. Es ersetzt
+     * das wartende, ein Delta würde dessen Änderungen
+     * verlieren.
+     * 
+     * @param buffer
+     * @param len
+     * @return Anzahl der zu sendenden Bytes, 0 wenn nichts zu senden ist.
+     */
+    private int filterOutputFrame(byte[] buffer, int len) {
+        if (lastFrameLen != len) {
+            System.arraycopy(buffer, 0, lastFrame, 0, len);
+            lastFrameLen = len;
+            sentFrames++;
+            return len;
+        }
+        
+        int changed = 0;
+        for (int i = 1; i < len - 1; i++) {
+            if (buffer[i] != lastFrame[i]) {
+                changed++;
+            }
+        }
+        
+        if (changed == 0) {
+            skippedFrames++;
+            return 0;
+        }
+        
+        var deltaLen = isDRS2 ? 3 + 2 * changed : 2 + changed;
+        var useDelta = deltaFrames && !binaryMode && (deltaLen < len) && !writer.isOutputPending();
+        var ix = isDRS2 ? 2 : 1;
+        for (int i = 1; i < len - 1; i++) {
+            if (buffer[i] != lastFrame[i]) {
+                lastFrame[i] = buffer[i];
+                if (useDelta) {
+                    if (isDRS2) {
+                        // Offset und Wert des geänderten Bytes
+                        deltaBuffer[ix++] = (byte) i;
+                        deltaBuffer[ix++] = buffer[i];
+                    } else {
+                        // die Buchstaben der IO Platine enthalten
+                        // bereits die Nummer des Ausgangs
+                        deltaBuffer[ix++] = buffer[i];
+                    }
+                }
+            }
+        }
+        
+        sentFrames++;
+        if (!useDelta) {
+            return len;
+        }
+        
+        if (isDRS2) {
+            deltaBuffer[0] = DELTA_MARKER;
+            deltaBuffer[1] = (byte) changed;
+            deltaBuffer[ix++] = STATUS_END;
+        } else {
+            deltaBuffer[0] = 'X';
+            deltaBuffer[ix++] = 'y';
+        }
+        
+        System.arraycopy(deltaBuffer, 0, buffer, 0, ix);
+        deltaFrameCount++;
+        return ix;
+    }
+    
+    /**
+     * Meldet, dass ein Ausgabetelegramm nicht vollständig
+     * geschrieben wurde. Im nächsten Tick werden alle
+     * Ausgänge neu gesendet. Wird vom Schreib-Thread
+     * aufgerufen.
+     */
+    void outputWriteFailed() {
+        outputLost = true;
+    }
+    
+    /**
+     * Schaltet die Delta-Telegramme ein. Die Firmware
+     * der Platine muss das 'D' Kommando der DRS2 bzw.
+     * verkürzte X...y Telegramme der IO Platine
+     * unterstützen.
+     * 
+     * @param deltaFrames 
+     */
+    public void setDeltaFrames(boolean deltaFrames) {
+        this.deltaFrames = deltaFrames;
+    }
+    
+    /**
+     * Anzahl der gesendeten Ausgabetelegramme.
+     * 
+     * @return 
+     */
+    public long getSentFrames() {
+        return sentFrames;
+    }
+    
+    /**
+     * Anzahl der unveränderten und deshalb nicht
+     * gesendeten Ausgabetelegramme.
+     * 
+     * @return 
+     */
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+    
+    /**
+     * Anzahl der als Delta gesendeten Ausgabetelegramme.
+     * 
+     * @return 
+     */
+    public long getDeltaFrames() {
+        return deltaFrameCount;
+    }
+    
+    /**
+     * Zählerstände der Platine und des Schreib-Threads,
+     * um eine ausgelastete Schnittstelle zu erkennen.
+     * 
+     * @return 
+     */
+    public String summary() {
+        var buf = new StringBuilder();
+        buf.append(getName()).append(": sent ").append(sentFrames)
+                .append(", skipped ").append(skippedFrames)
+                .append(", delta ").append(deltaFrameCount)
+                .append(", input dropped ").append(getDroppedFrames());
+        if (binaryMode) {
+            buf.append(", crc errors ").append(getCrcErrors())
+                    .append(", resyncs ").append(getResyncs())
+                    .append(", sequence gaps ").append(sequenceGaps);
+        }
+
+        buf.append("\r\n    ").append(writer);
+        return buf.toString();
+    }
+    
+    /**
+     * Übergibt ein Kommando an den Schreib-Thread. Das
+     * Ausgabetelegramm wird sofort aus dem Connector
+     * aufgebaut, alle anderen Kommandos werden erst beim
+     * Senden kodiert. Die Funktion wartet nie auf die
+     * serielle Schnittstelle.
+     * 
+     * @param cmdNo 
+     */
     public void sendCommand(UartCommand cmdNo) {
-        byte[] buffer = new byte[20];
+        if (cmdNo == UartCommand.UPDATE_OUTPUTS) {
+            sendOutputs(null);
+            return;
+        }
+        
+        if (cmdNo == UartCommand.GET_STATUS) {
+            // Nach einer Neusynchronisation wird wieder
+            // das vollständige Ausgabetelegramm gesendet.
+            lastFrameLen = 0;
+        }
+        
+        writer.submitCommand(cmdNo);
+    }
+    
+    /**
+     * Baut das Ausgabetelegramm aus dem Connector auf und
+     * übergibt es an den Schreib-Thread. Die Messungen in
+     * trace werden beendet, sobald es geschrieben ist.
+     * 
+     * @param trace Kette der Messungen oder null
+     */
+    public void sendOutputs(LatencyTracer.Trace trace) {
+        int bytesToSend;
+        int outputs = 0;
+        if (isDRS2) {
+            frameBuffer[0] = OUTPUT_MARKER;
+            frameBuffer[15] = STATUS_END;
+            fillupOutputBuffer(frameBuffer);
+
+            bytesToSend = 16;
+        } else {
+            outputs = config.connector.getOutBits(outputStart, 16);
+            fillupIOBuffer(frameBuffer, outputs);
+
+            bytesToSend = 18;
+        }
+
+        bytesToSend = filterOutputFrame(frameBuffer, bytesToSend);
+        if (bytesToSend > 0 && binaryMode) {
+            bytesToSend = BinaryProtocol.encode16(frameBuffer, BinaryProtocol.TYPE_OUTPUTS,
+                    txSequence.getAndIncrement(), outputs);
+        }
+        
+        if (bytesToSend > 0) {
+            writer.submitOutput(frameBuffer, bytesToSend, trace);
+        } else {
+            while (trace != null) {
+                var next = trace.getNext();
+                trace.discard();
+                trace = next;
+            }
+        }
+    }
+    
+    /**
+     * Kodiert ein Einzelkommando, wird vom Schreib-Thread
+     * direkt vor dem Senden aufgerufen.
+     * 
+     * @param cmdNo
+     * @param buffer
+     * @return Anzahl der zu sendenden Bytes
+     */
+    int encodeCommand(UartCommand cmdNo, byte[] buffer) {
         var bytesToSend = 1;
         
         switch (cmdNo) {
@@ -351,29 +854,21 @@ public final class Uart implements TickerEvent {
             case GET_STATUS:
                 clearUART();
                 
-                if (isDRS2) {
+                if (binaryMode) {
+                    return BinaryProtocol.encode(buffer, BinaryProtocol.TYPE_STATUS,
+                            txSequence.getAndIncrement(), commandData, 0);
+                } else if (isDRS2) {
                     buffer[0] = 'Q';
                 } else {
                     buffer[0] = 'X';
                     buffer[1] = 'z';
                     bytesToSend = 2;
-                    statusPtr = -1;
                 }
                 break;
                 
             case UPDATE_OUTPUTS:
-                if (isDRS2) {
-                    buffer[0] = OUTPUT_MARKER;
-                    buffer[15] = STATUS_END;
-                    fillupOutputBuffer(buffer);
-
-                    bytesToSend = 16;
-                } else {
-                    fillupIOBuffer(buffer);
-
-                    bytesToSend = 18;
-                }
-                break;
+                // wird direkt in sendCommand aufgebaut
+                return 0;
                 
             case BLOCK1:
                 buffer[0] = 'i';
@@ -406,14 +901,22 @@ public final class Uart implements TickerEvent {
             case FLIP4:
                 buffer[0] = 'P';
                 break;
+                
+            case BINARY_HELLO:
+                buffer[0] = 'X';
+                buffer[1] = 'b';
+                buffer[2] = 'y';
+                return 3;
         }
         
-        comPort.writeBytes(buffer, bytesToSend);
-        System.out.print("Sent: ");
-        for (var i = 0; i < bytesToSend; i++) {
-            System.out.print(Integer.toHexString(buffer[i] & 0xff) + " ");
+        if (binaryMode) {
+            // Einzelkommandos werden im binären Protokoll verpackt
+            commandData[0] = buffer[0];
+            return BinaryProtocol.encode(buffer, BinaryProtocol.TYPE_COMMAND,
+                    txSequence.getAndIncrement(), commandData, 1);
         }
-        System.out.println();
+        
+        return bytesToSend;
     }
-    
+
 }
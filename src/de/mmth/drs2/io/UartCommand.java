@@ -19,5 +19,6 @@ public enum UartCommand {
     FLIP2,
     FLIP3,
     FLIP4,
-    UPDATE_OUTPUTS
+    UPDATE_OUTPUTS,
+    BINARY_HELLO
 }
@@ -0,0 +1,93 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+/**
+ * Ein vollständig empfangenes Statustelegramm einer
+ * Platine ohne Start- und Endezeichen.
+ *
+ * Die Objekte werden von der FrameQueue einmal angelegt
+ * und immer wieder verwendet.
+ *
+ * @author matthias
+ */
+public final class UartFrame {
+    /**
+     * Maximale Länge der Nutzdaten eines Telegramms.
+     */
+    public static final int MAX_LEN = 32;
+
+    /**
+     * Statustelegramm im ASCII Protokoll.
+     */
+    public static final int TYPE_ASCII = 0;
+
+    final byte[] data = new byte[MAX_LEN];
+    int length;
+    boolean valid;
+    int type;
+    int sequence;
+    long nanoTime;
+
+    /**
+     * Liefert die Nutzdaten des Telegramms.
+     *
+     * @return
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Liefert die Anzahl der Nutzdaten Bytes.
+     *
+     * @return
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Meldet zurück, ob das Endezeichen korrekt war.
+     *
+     * @return
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Liefert die Art des Telegramms, TYPE_ASCII oder
+     * einer der Typen aus dem BinaryProtocol.
+     *
+     * @return
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Liefert die Folgenummer eines binären Telegramms.
+     *
+     * @return
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Zeitpunkt des Empfangs als System.nanoTime.
+     *
+     * @return
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    @Override
+    public String toString() {
+        return new String(data, 0, length);
+    }
+}
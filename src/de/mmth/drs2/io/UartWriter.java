@@ -0,0 +1,310 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.io;
+
+import de.mmth.drs2.jfr.FrameSentEvent;
+import de.mmth.drs2.metrics.LatencyTracer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schreibt die Telegramme einer Uart in einem eigenen
+ * Thread, damit der Ticker nie auf die serielle
+ * Schnittstelle warten muss.
+ *
+ * Für die Ausgänge gibt es genau einen Platz, ein neues
+ * Ausgabetelegramm ersetzt ein noch nicht gesendetes.
+ * Die Uart sendet deshalb nur dann ein Delta, wenn
+ * kein Telegramm wartet.
+ * Einzelkommandos wie BLOCK1 oder GET_STATUS werden in
+ * der Reihenfolge ihres Eintreffens vor dem nächsten
+ * Ausgabetelegramm gesendet. Alle Puffer werden einmal
+ * angelegt, die Sperren werden nur für das Umkopieren
+ * weniger Bytes gehalten.
+ *
+ * Messungen des LatencyTracer reisen mit dem
+ * Ausgabetelegramm und werden nach dem Schreiben
+ * beendet. Ersetzt ein Telegramm ein noch nicht
+ * gesendetes, übernimmt es dessen Messungen.
+ *
+ * @author matthias
+ */
+public class UartWriter extends Thread {
+    private static final int FRAME_SIZE = 20;
+    private static final int COMMAND_SLOTS = 32;
+    private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final Transport comPort;
+    private final Uart uart;
+
+    private final Object lock = new Object();
+    private final byte[] pendingOutput = new byte[FRAME_SIZE];
+    private int pendingOutputLen = 0;
+    private long pendingOutputSince;
+    private LatencyTracer.Trace pendingTrace;
+    private final UartCommand[] commands = new UartCommand[COMMAND_SLOTS];
+    private final long[] commandSince = new long[COMMAND_SLOTS];
+    private int commandHead = 0;
+    private int commandCount = 0;
+
+    private final byte[] writeBuffer = new byte[FRAME_SIZE];
+
+    private volatile long framesWritten = 0;
+    private volatile long framesReplaced = 0;
+    private volatile long commandsDropped = 0;
+    private volatile long bytesWritten = 0;
+    private volatile long lastLatency = 0;
+    private volatile long maxLatency = 0;
+    private volatile long bytesPerSecond = 0;
+    private long windowStart = System.nanoTime();
+    private long windowBytes = 0;
+
+    /**
+     * @param name Name des Ports für den Thread Namen
+     * @param comPort
+     * @param uart Uart, welche die Kommandos kodiert
+     */
+    UartWriter(String name, Transport comPort, Uart uart) {
+        super("UartWriter " + name);
+        this.comPort = comPort;
+        this.uart = uart;
+        setDaemon(true);
+    }
+
+    /**
+     * Übergibt ein Ausgabetelegramm. Ein noch nicht
+     * gesendetes Ausgabetelegramm wird ersetzt.
+     *
+     * @param frame
+     * @param len
+     * @param trace Messungen, die mit diesem Telegramm enden, oder null
+     */
+    public void submitOutput(byte[] frame, int len, LatencyTracer.Trace trace) {
+        synchronized (lock) {
+            if (trace != null) {
+                pendingTrace = (pendingTrace == null) ? trace : pendingTrace.append(trace);
+            }
+
+            if (pendingOutputLen > 0) {
+                framesReplaced++;
+            } else {
+                pendingOutputSince = System.nanoTime();
+            }
+
+            System.arraycopy(frame, 0, pendingOutput, 0, len);
+            pendingOutputLen = len;
+        }
+
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Stellt ein Einzelkommando in die Warteschlange. Ist
+     * sie voll, wird das Kommando verworfen und gezählt.
+     *
+     * @param cmd
+     */
+    public void submitCommand(UartCommand cmd) {
+        synchronized (lock) {
+            if (commandCount == COMMAND_SLOTS) {
+                commandsDropped++;
+                return;
+            }
+
+            int ix = (commandHead + commandCount) % COMMAND_SLOTS;
+            commands[ix] = cmd;
+            commandSince[ix] = System.nanoTime();
+            commandCount++;
+        }
+
+        LockSupport.unpark(this);
+    }
+
+    @Override
+    public void run() {
+        while (!isInterrupted()) {
+            UartCommand cmd = null;
+            LatencyTracer.Trace trace = null;
+            long since = 0;
+            int len = 0;
+            synchronized (lock) {
+                if (commandCount > 0) {
+                    cmd = commands[commandHead];
+                    since = commandSince[commandHead];
+                    commands[commandHead] = null;
+                    commandHead = (commandHead + 1) % COMMAND_SLOTS;
+                    commandCount--;
+                } else if (pendingOutputLen > 0) {
+                    len = pendingOutputLen;
+                    since = pendingOutputSince;
+                    System.arraycopy(pendingOutput, 0, writeBuffer, 0, len);
+                    pendingOutputLen = 0;
+                    trace = pendingTrace;
+                    pendingTrace = null;
+                }
+            }
+
+            if (cmd != null) {
+                len = uart.encodeCommand(cmd, writeBuffer);
+            }
+
+            if (len == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            write(len, since, trace, cmd);
+        }
+    }
+
+    private void write(int len, long since, LatencyTracer.Trace trace, UartCommand cmd) {
+        var event = new FrameSentEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int written = comPort.write(writeBuffer, len);
+        long now = System.nanoTime();
+        event.end();
+        if (event.shouldCommit()) {
+            event.board = uart.getName();
+            event.command = (cmd != null) ? cmd.name() : "";
+            event.length = len;
+            event.queueDelay = start - since;
+            event.commit();
+        }
+
+        while (trace != null) {
+            // next vor written lesen, danach gehört die
+            // Messung wieder dem Ticker
+            var next = trace.getNext();
+            trace.written(now);
+            trace = next;
+        }
+
+        long latency = now - since;
+        lastLatency = latency;
+        if (latency > maxLatency) {
+            maxLatency = latency;
+        }
+
+        if ((cmd == null) && (written < len)) {
+            uart.outputWriteFailed();
+        }
+
+        framesWritten++;
+        if (written > 0) {
+            bytesWritten += written;
+            windowBytes += written;
+        }
+
+        if (now - windowStart >= RATE_WINDOW) {
+            bytesPerSecond = windowBytes * RATE_WINDOW / (now - windowStart);
+            windowBytes = 0;
+            windowStart = now;
+        }
+    }
+
+    /**
+     * Meldet zurück, ob ein Ausgabetelegramm noch auf das
+     * Senden wartet. Da nur der Ticker Ausgabetelegramme
+     * übergibt, kann im Ticker danach kein neues
+     * hinzukommen.
+     *
+     * @return
+     */
+    public boolean isOutputPending() {
+        synchronized (lock) {
+            return pendingOutputLen > 0;
+        }
+    }
+
+    /**
+     * Anzahl der wartenden Telegramme und Kommandos.
+     *
+     * @return
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return commandCount + ((pendingOutputLen > 0) ? 1 : 0);
+        }
+    }
+
+    /**
+     * Anzahl der geschriebenen Telegramme und Kommandos.
+     *
+     * @return
+     */
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * Anzahl der Ausgabetelegramme, die vor dem Senden
+     * durch ein neueres ersetzt wurden.
+     *
+     * @return
+     */
+    public long getFramesReplaced() {
+        return framesReplaced;
+    }
+
+    /**
+     * Anzahl der wegen voller Warteschlange verworfenen
+     * Kommandos.
+     *
+     * @return
+     */
+    public long getCommandsDropped() {
+        return commandsDropped;
+    }
+
+    /**
+     * Anzahl der insgesamt geschriebenen Bytes.
+     *
+     * @return
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Geschriebene Bytes pro Sekunde im letzten
+     * abgeschlossenen Messfenster.
+     *
+     * @return
+     */
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Zeit vom Übergeben bis zum Abschluss des Schreibens
+     * beim letzten Telegramm in Nanosekunden.
+     *
+     * @return
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Größte bisher gemessene Schreiblatenz in Nanosekunden.
+     *
+     * @return
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + ": queue " + getQueueDepth()
+                + ", frames " + framesWritten
+                + ", replaced " + framesReplaced
+                + ", dropped " + commandsDropped
+                + ", " + bytesPerSecond + " B/s"
+                + ", latency " + TimeUnit.NANOSECONDS.toMicros(lastLatency) + "us"
+                + " (max " + TimeUnit.NANOSECONDS.toMicros(maxLatency) + "us)";
+    }
+}
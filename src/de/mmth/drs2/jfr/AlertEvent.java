@@ -0,0 +1,24 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Eine Meldung an den Fahrdienstleiter über
+ * Config.alert.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.Alert")
+@Label("Meldung")
+@Category({"DRS2", "Stellwerk"})
+public class AlertEvent extends Event {
+    @Label("Meldung")
+    public String message;
+}
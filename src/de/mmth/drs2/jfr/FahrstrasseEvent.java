@@ -0,0 +1,38 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eine Fahrstraße wurde verschlossen, aufgelöst oder
+ * hat ihren Zustand geändert.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.Fahrstrasse")
+@Label("Fahrstraße")
+@Category({"DRS2", "Stellwerk"})
+@StackTrace(false)
+public class FahrstrasseEvent extends Event {
+    @Label("Fahrstraße")
+    public String route;
+
+    @Label("Aktion")
+    public String action;
+
+    @Label("Zustand")
+    public String state;
+
+    @Label("Vorheriger Zustand")
+    public String previousState;
+
+    @Label("Verschlossen")
+    public boolean locked;
+}
@@ -0,0 +1,32 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ein oder mehrere Telegramme einer Platine wurden
+ * verworfen.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.FrameDropped")
+@Label("Telegramm verworfen")
+@Category({"DRS2", "Uart"})
+@StackTrace(false)
+public class FrameDroppedEvent extends Event {
+    @Label("Platine")
+    public String board;
+
+    @Label("Grund")
+    public String reason;
+
+    @Label("Anzahl")
+    public long frames;
+}
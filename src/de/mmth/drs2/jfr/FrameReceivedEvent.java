@@ -0,0 +1,43 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Telegramm einer Platine wurde im Ticker
+ * verarbeitet.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.FrameReceived")
+@Label("Telegramm empfangen")
+@Category({"DRS2", "Uart"})
+@StackTrace(false)
+public class FrameReceivedEvent extends Event {
+    @Label("Platine")
+    public String board;
+
+    @Label("Typ")
+    @Description("0 für ASCII, sonst Typ aus dem BinaryProtocol")
+    public int frameType;
+
+    @Label("Folgenummer")
+    public int sequence;
+
+    @Label("Länge")
+    public int length;
+
+    @Label("Wartezeit")
+    @Description("Empfang bis zur Verarbeitung im Ticker")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueDelay;
+}
@@ -0,0 +1,43 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Telegramm oder Kommando wurde an eine Platine
+ * geschrieben. Die Dauer des Ereignisses ist die Dauer
+ * des Schreibens.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.FrameSent")
+@Label("Telegramm gesendet")
+@Category({"DRS2", "Uart"})
+@StackTrace(false)
+public class FrameSentEvent extends Event {
+    @Label("Platine")
+    public String board;
+
+    @Label("Kommando")
+    @Description("Einzelkommando oder leer für ein Ausgabetelegramm")
+    public String command;
+
+    @Label("Länge")
+    @DataAmount
+    public int length;
+
+    @Label("Wartezeit")
+    @Description("Übergabe an den Schreib-Thread bis zum Beginn des Schreibens")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueDelay;
+}
@@ -0,0 +1,31 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Das Signalbild eines Signals hat sich geändert.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.Signal")
+@Label("Signalbild")
+@Category({"DRS2", "Stellwerk"})
+@StackTrace(false)
+public class SignalEvent extends Event {
+    @Label("Signal")
+    public String signal;
+
+    @Label("Signalbild")
+    public String aspect;
+
+    @Label("Vorheriges Signalbild")
+    public String previousAspect;
+}
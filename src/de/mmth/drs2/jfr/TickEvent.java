@@ -0,0 +1,39 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Tick des Tickers vom Aufwachen bis zum Ende der
+ * UI Phase. Anfang und Ende des Ereignisses sind Anfang
+ * und Ende des Ticks.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.Tick")
+@Label("Tick")
+@Category({"DRS2", "Ticker"})
+@Description("Ein Durchlauf aller Phasen des Tickers")
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("Tick")
+    public int count;
+
+    @Label("Verspätung")
+    @Description("Aufwachen nach dem Termin des Ticks")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lateness;
+
+    @Label("Kommandos")
+    @Description("Anzahl der ausgeführten Kommandos aus der Oberfläche")
+    public int commands;
+}
@@ -0,0 +1,35 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eine Weiche wurde umgestellt oder ihr
+ * Störungszustand hat sich geändert.
+ *
+ * @author matthias
+ */
+@Name("de.mmth.drs2.Weiche")
+@Label("Weiche")
+@Category({"DRS2", "Stellwerk"})
+@StackTrace(false)
+public class WeicheEvent extends Event {
+    @Label("Weiche")
+    public String weiche;
+
+    @Label("Aktion")
+    public String action;
+
+    @Label("Plus")
+    public boolean plus;
+
+    @Label("Zustand")
+    public String state;
+}
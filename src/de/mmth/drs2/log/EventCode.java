@@ -0,0 +1,64 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.log;
+
+/**
+ * Ereignisse des EventLog. Jedes Ereignis hat eine
+ * Kategorie, eine Stufe und eine Vorlage für den Text.
+ *
+ * Die Vorlage wird erst im Thread des EventLog
+ * ausgefüllt. {s} steht für das Objekt des Eintrags,
+ * {0} bis {2} für die Zahlen, {0b} bis {2b} für eine
+ * Zahl als true (ungleich 0) oder false.
+ *
+ * @author matthias
+ */
+public enum EventCode {
+    ALERT(LogCategory.SYSTEM, LogLevel.INFO, "{s}"),
+
+    INPUT_CHANGED(LogCategory.INPUT, LogLevel.INFO, "{s}: input {0} changed to {1b}"),
+
+    OUTPUT_CHANGED(LogCategory.OUTPUT, LogLevel.DEBUG, "Output {0} changed to {1b}"),
+    OUTPUT_TOGGLED(LogCategory.OUTPUT, LogLevel.DEBUG, "Output {0} toggled to {1b}"),
+
+    FRAME_INVALID(LogCategory.SERIAL, LogLevel.WARN, "{s}: invalid status package dropped"),
+    FRAME_INVALID_IO(LogCategory.SERIAL, LogLevel.WARN, "Invalid IO status package dropped: {s}"),
+    FRAME_UNKNOWN(LogCategory.SERIAL, LogLevel.WARN, "{s}: unknown IO frame type {0} dropped"),
+    IO_BINARY(LogCategory.SERIAL, LogLevel.INFO, "{s}: IO board binary protocol version {0}"),
+    IO_ASCII_FALLBACK(LogCategory.SERIAL, LogLevel.WARN, "{s}: IO board fell back to ASCII protocol"),
+
+    RED_SET(LogCategory.ROUTE, LogLevel.DEBUG, "Set red: {s}"),
+    RED_TIMER_ADDED(LogCategory.ROUTE, LogLevel.DEBUG, "Add red timer {s}, time: {0}"),
+    RED_TIMER_EXPIRED(LogCategory.ROUTE, LogLevel.DEBUG, "Clear red {s}, time: {0}"),
+
+    SHUNT_STEP(LogCategory.SHUNT, LogLevel.INFO, "Action: {s}, param: {0}, param2: {1b}"),
+    SHUNT_PARSE_SWITCH(LogCategory.SHUNT, LogLevel.DEBUG, "Weiche {0} Stellung {1b}"),
+    SHUNT_CHECK_SWITCH(LogCategory.SHUNT, LogLevel.DEBUG, "Weiche {0}: plus {1b}, minus gefordert {2b}"),
+
+    BLOCK_VORBLOCK(LogCategory.BLOCK, LogLevel.INFO, "Starte Vorblocken."),
+    BLOCK_WIEDERHOLSPERRE(LogCategory.BLOCK, LogLevel.INFO, "Wiederholsperre setzen.");
+
+    private final LogCategory category;
+    private final LogLevel level;
+    private final String template;
+
+    private EventCode(LogCategory category, LogLevel level, String template) {
+        this.category = category;
+        this.level = level;
+        this.template = template;
+    }
+
+    public LogCategory getCategory() {
+        return category;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Protokoll der Ereignisse, ohne dass der Ticker auf
+ * die Ausgabe warten muss.
+ *
+ * Ein Eintrag besteht aus einem EventCode, einem Objekt
+ * und bis zu drei Zahlen. Er wird in einen Ringpuffer
+ * mit fest angelegten Einträgen kopiert, beliebig viele
+ * Threads dürfen gleichzeitig schreiben. Erst der
+ * Thread des EventLog füllt die Vorlage aus und schreibt
+ * den Text auf die Konsole und in die Datei. Ist der
+ * Ringpuffer voll, wird der Eintrag verworfen und
+ * gezählt.
+ *
+ * Die Stufe wird je Kategorie eingestellt, Einträge
+ * unterhalb der Stufe werden bereits beim Aufruf von
+ * log verworfen. Auf der Konsole erscheinen nur die
+ * Einträge ab der Stufe für die Konsole.
+ *
+ * Die Datei wird bei Erreichen der maximalen Größe in
+ * name.1 umbenannt, ältere Dateien rücken bis name.n
+ * auf.
+ *
+ * @author matthias
+ */
+public class EventLog {
+    private static final int RING_SIZE = 1024;
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final class Slot {
+        private volatile long sequence;
+        private EventCode code;
+        private Object ref;
+        private long time;
+        private long p0;
+        private long p1;
+        private long p2;
+    }
+
+    private final Slot[] ring = new Slot[RING_SIZE];
+    private final int mask = RING_SIZE - 1;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final int[] levels = new int[LogCategory.values().length];
+    private volatile LogLevel consoleLevel = LogLevel.INFO;
+    private PrintStream console = System.out;
+    private String prefix = "";
+
+    private File file;
+    private long maxSize;
+    private int maxFiles;
+    private Writer out;
+    private long fileSize;
+
+    private Thread thread;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public EventLog() {
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new Slot();
+            ring[i].sequence = i;
+        }
+
+        setLevel(LogLevel.INFO);
+    }
+
+    /**
+     * Setzt die Stufe für alle Kategorien.
+     *
+     * @param level
+     */
+    public final void setLevel(LogLevel level) {
+        for (var category: LogCategory.values()) {
+            setLevel(category, level);
+        }
+    }
+
+    /**
+     * Setzt die Stufe einer Kategorie.
+     *
+     * @param category
+     * @param level
+     */
+    public void setLevel(LogCategory category, LogLevel level) {
+        levels[category.ordinal()] = level.ordinal();
+    }
+
+    public LogLevel getLevel(LogCategory category) {
+        return LogLevel.values()[levels[category.ordinal()]];
+    }
+
+    /**
+     * Übernimmt die Stufen aus einer Einstellung wie
+     * "INFO,OUTPUT=DEBUG,SERIAL=WARN". Ein Eintrag ohne
+     * Kategorie gilt für alle Kategorien.
+     *
+     * @param spec
+     */
+    public void configure(String spec) {
+        for (String part: spec.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                setLevel(LogLevel.valueOf(part.toUpperCase()));
+            } else {
+                setLevel(LogCategory.valueOf(part.substring(0, eq).trim().toUpperCase()),
+                        LogLevel.valueOf(part.substring(eq + 1).trim().toUpperCase()));
+            }
+        }
+    }
+
+    /**
+     * Stufe, ab der die Einträge auch auf der Konsole
+     * ausgegeben werden. OFF schaltet die Konsole ab.
+     *
+     * @param level
+     */
+    public void setConsoleLevel(LogLevel level) {
+        consoleLevel = level;
+    }
+
+    /**
+     * Leitet die Konsolenausgabe um.
+     *
+     * @param console
+     */
+    public void setConsole(PrintStream console) {
+        this.console = console;
+    }
+
+    /**
+     * Text vor jeder Zeile, z.B. der Name einer Instanz.
+     *
+     * @param prefix
+     */
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Schreibt zusätzlich in die angegebene Datei. Muss
+     * vor start aufgerufen werden.
+     *
+     * @param fileName
+     * @param maxSize Größe in Bytes, ab der die Datei gewechselt wird
+     * @param maxFiles Anzahl der aufbewahrten alten Dateien
+     * @throws IOException
+     */
+    public void openFile(String fileName, long maxSize, int maxFiles) throws IOException {
+        this.file = new File(fileName);
+        this.maxSize = maxSize;
+        this.maxFiles = maxFiles;
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        fileSize = file.length();
+    }
+
+    /**
+     * Startet den Thread, der die Einträge ausgibt.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this::run, "EventLog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gibt alle wartenden Einträge im aufrufenden Thread
+     * aus, wenn das EventLog ohne eigenen Thread läuft
+     * (StationHost). Es darf immer nur ein Thread
+     * gleichzeitig poll aufrufen.
+     *
+     * @return true wenn Einträge geschrieben wurden.
+     */
+    public boolean poll() {
+        boolean any = drain();
+        if (any) {
+            flush();
+        }
+
+        return any;
+    }
+
+    /**
+     * Gibt alle wartenden Einträge aus und beendet den
+     * Thread.
+     */
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+            thread = null;
+        }
+
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Prüft, ob ein Ereignis mit der eingestellten Stufe
+     * protokolliert wird.
+     *
+     * @param code
+     * @return
+     */
+    public boolean isEnabled(EventCode code) {
+        return code.getLevel().ordinal() >= levels[code.getCategory().ordinal()];
+    }
+
+    public void log(EventCode code) {
+        log(code, null, 0, 0, 0);
+    }
+
+    public void log(EventCode code, Object ref) {
+        log(code, ref, 0, 0, 0);
+    }
+
+    public void log(EventCode code, Object ref, long p0) {
+        log(code, ref, p0, 0, 0);
+    }
+
+    public void log(EventCode code, Object ref, long p0, long p1) {
+        log(code, ref, p0, p1, 0);
+    }
+
+    /**
+     * Legt einen Eintrag im Ringpuffer ab. Der Aufruf
+     * wartet nie, legt keine Objekte an und darf aus
+     * jedem Thread erfolgen.
+     *
+     * @param code
+     * @param ref Objekt für {s}, der Text wird erst im Thread des
+     * EventLog gebildet. Daher nur unveränderliche Werte wie
+     * String oder Enum übergeben, keine Objekte der Logik.
+     * @param p0
+     * @param p1
+     * @param p2
+     */
+    public void log(EventCode code, Object ref, long p0, long p1, long p2) {
+        if (!isEnabled(code)) {
+            return;
+        }
+
+        Slot slot;
+        long pos;
+        while (true) {
+            pos = tail.get();
+            slot = ring[(int) pos & mask];
+            long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        slot.code = code;
+        slot.ref = ref;
+        slot.time = System.currentTimeMillis();
+        slot.p0 = p0;
+        slot.p1 = p1;
+        slot.p2 = p2;
+        slot.sequence = pos + 1;
+    }
+
+    /**
+     * Anzahl der Einträge, die wegen eines vollen
+     * Ringpuffers verworfen wurden.
+     *
+     * @return
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void run() {
+        boolean stopping = false;
+        while (true) {
+            boolean any = drain();
+            flush();
+            if (stopping) {
+                break;
+            }
+
+            if (!any) {
+                LockSupport.parkNanos(IDLE_WAIT);
+            }
+
+            stopping = Thread.currentThread().isInterrupted();
+        }
+
+        closeFile();
+    }
+
+    private boolean drain() {
+        boolean any = false;
+        while (true) {
+            var slot = ring[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                return any;
+            }
+
+            var code = slot.code;
+            var ref = slot.ref;
+            long time = slot.time;
+            long p0 = slot.p0;
+            long p1 = slot.p1;
+            long p2 = slot.p2;
+            slot.ref = null;
+            slot.sequence = head + RING_SIZE;
+            head++;
+            any = true;
+            write(code, ref, time, p0, p1, p2);
+        }
+    }
+
+    private void write(EventCode code, Object ref, long time, long p0, long p1, long p2) {
+        line.setLength(0);
+        line.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).format(TIME_FORMAT))
+                .append(' ').append(code.getLevel())
+                .append(' ').append(code.getCategory())
+                .append(' ');
+        // Auf der Konsole ohne Zeit, Stufe und Kategorie
+        int messageStart = line.length();
+        line.append(prefix);
+        format(code.getTemplate(), ref, p0, p1, p2);
+
+        if (code.getLevel().compareTo(consoleLevel) >= 0) {
+            console.println(line.substring(messageStart));
+        }
+
+        if (out != null) {
+            line.append(System.lineSeparator());
+            try {
+                out.append(line);
+                fileSize += utf8Length(line);
+                if (fileSize >= maxSize) {
+                    rotate();
+                }
+            } catch (IOException ex) {
+                console.println("Event log " + file + " stopped: " + ex.getMessage());
+                out = null;
+            }
+        }
+    }
+
+    /**
+     * Länge des Textes in Bytes nach der Umwandlung in
+     * UTF-8, ohne den Text umzuwandeln.
+     *
+     * @param text
+     * @return
+     */
+    private static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // Das Paar wird zu 4 Bytes, das zweite Zeichen zählt nicht.
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return bytes;
+    }
+
+    private void format(String template, Object ref, long p0, long p1, long p2) {
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            int end = (c == '{') ? template.indexOf('}', i) : -1;
+            if (end < 0) {
+                line.append(c);
+                i++;
+                continue;
+            }
+
+            String key = template.substring(i + 1, end);
+            switch (key) {
+                case "s":
+                    line.append(ref);
+                    break;
+                case "0":
+                    line.append(p0);
+                    break;
+                case "1":
+                    line.append(p1);
+                    break;
+                case "2":
+                    line.append(p2);
+                    break;
+                case "0b":
+                    line.append(p0 != 0);
+                    break;
+                case "1b":
+                    line.append(p1 != 0);
+                    break;
+                case "2b":
+                    line.append(p2 != 0);
+                    break;
+                default:
+                    line.append(template, i, end + 1);
+                    break;
+            }
+
+            i = end + 1;
+        }
+    }
+
+    private void flush() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException ex) {
+                console.println("Event log " + file + " stopped: " + ex.getMessage());
+                out = null;
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        for (int i = maxFiles - 1; i > 0; i--) {
+            var from = new File(file.getPath() + "." + i);
+            if (from.exists()) {
+                var to = new File(file.getPath() + "." + (i + 1));
+                to.delete();
+                from.renameTo(to);
+            }
+        }
+
+        if (maxFiles > 0) {
+            var old = new File(file.getPath() + ".1");
+            old.delete();
+            if (!file.renameTo(old)) {
+                console.println("Event log " + file + " could not be rotated.");
+            }
+        } else {
+            file.delete();
+        }
+
+        open();
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ex) {
+                console.println("Event log " + file + " not closed: " + ex.getMessage());
+            }
+
+            out = null;
+        }
+    }
+}
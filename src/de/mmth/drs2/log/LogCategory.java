@@ -0,0 +1,49 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.log;
+
+/**
+ * Kategorien des EventLog. Für jede Kategorie wird
+ * eine eigene Stufe eingestellt.
+ *
+ * @author matthias
+ */
+public enum LogCategory {
+    /**
+     * Meldungen an den Fahrdienstleiter und allgemeine
+     * Ereignisse.
+     */
+    SYSTEM,
+
+    /**
+     * Geänderte Eingänge der Platinen.
+     */
+    INPUT,
+
+    /**
+     * Geänderte Ausgänge im Connector.
+     */
+    OUTPUT,
+
+    /**
+     * Telegramme und Protokoll der Uarts.
+     */
+    SERIAL,
+
+    /**
+     * Fahrstraßen und Rot-Weiß Ausleuchtung.
+     */
+    ROUTE,
+
+    /**
+     * Rangierfahrten.
+     */
+    SHUNT,
+
+    /**
+     * Streckenblock.
+     */
+    BLOCK
+}
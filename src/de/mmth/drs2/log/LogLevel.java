@@ -0,0 +1,39 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.log;
+
+/**
+ * Stufen des EventLog, aufsteigend nach Wichtigkeit.
+ *
+ * @author matthias
+ */
+public enum LogLevel {
+    /**
+     * Einzelheiten für die Fehlersuche, z.B. jeder
+     * geänderte Ausgang.
+     */
+    DEBUG,
+
+    /**
+     * Normale Ereignisse im Betrieb.
+     */
+    INFO,
+
+    /**
+     * Verworfene Telegramme und ähnliche Störungen, die
+     * der Betrieb selbst ausgleicht.
+     */
+    WARN,
+
+    /**
+     * Fehler, die einen Eingriff erfordern.
+     */
+    ERROR,
+
+    /**
+     * Nur als Einstellung, schaltet eine Kategorie ab.
+     */
+    OFF
+}
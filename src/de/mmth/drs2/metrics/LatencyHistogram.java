@@ -0,0 +1,217 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogramm für Laufzeiten in Nanosekunden mit festen
+ * Klassen nach Art von HdrHistogram: je Zweierpotenz
+ * gibt es 16 gleich breite Klassen, der relative Fehler
+ * liegt damit unter 7%. Werte bis etwa 68 Sekunden
+ * werden unterschieden, größere landen in der letzten
+ * Klasse.
+ *
+ * record legt keine Objekte an und darf nur von einem
+ * Thread aufgerufen werden. Andere Threads können
+ * jederzeit lesen, die Werte sind dann höchstens um
+ * die gerade laufende Messung unvollständig.
+ *
+ * @author matthias
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_EXP = 36;
+    private static final int BUCKETS = SUB + (MAX_EXP - SUB_BITS + 1) * SUB;
+
+    private final long[] counts = new long[BUCKETS];
+    private volatile long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+    /**
+     * Nimmt einen Messwert auf.
+     *
+     * @param nanos
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        counts[indexOf(nanos)]++;
+        total += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+
+        count++;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        if (exp > MAX_EXP) {
+            return BUCKETS - 1;
+        }
+
+        int shift = exp - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB - 1);
+        return SUB + shift * SUB + sub;
+    }
+
+    /**
+     * Obergrenze der Werte einer Klasse.
+     *
+     * @param index
+     * @return
+     */
+    private static long upperBound(int index) {
+        if (index < SUB) {
+            return index;
+        }
+
+        int shift = (index - SUB) / SUB;
+        int sub = (index - SUB) % SUB;
+        return ((long) (SUB + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Anzahl der Messwerte.
+     *
+     * @return
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Summe aller Messwerte in Nanosekunden.
+     *
+     * @return
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Größter Messwert in Nanosekunden. Bei einem mit
+     * setDifference gebildeten Histogramm ist es die
+     * Obergrenze der höchsten belegten Klasse.
+     *
+     * @return
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Liefert den Wert, unter dem der angegebene Anteil
+     * der Messwerte liegt, als Obergrenze der Klasse.
+     *
+     * @param percentile 0 bis 100
+     * @return
+     */
+    public long getPercentile(double percentile) {
+        long n = count;
+        if (n == 0) {
+            return 0;
+        }
+
+        long limit = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += counts[i];
+            if (sum >= limit) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Übernimmt alle Werte aus einem anderen Histogramm.
+     *
+     * @param other
+     */
+    public void copyFrom(LatencyHistogram other) {
+        count = other.count;
+        System.arraycopy(other.counts, 0, counts, 0, BUCKETS);
+        total = other.total;
+        max = other.max;
+    }
+
+    /**
+     * Addiert die Werte eines anderen Histogramms, z.B.
+     * um alle Objekte einer Klasse zusammenzufassen.
+     *
+     * @param other
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        total += other.total;
+        max = Math.max(max, other.max);
+        count += other.count;
+    }
+
+    /**
+     * Bildet die Messwerte, die in now aber noch nicht
+     * in before enthalten sind, also die eines Intervalls.
+     *
+     * @param now
+     * @param before
+     */
+    public void setDifference(LatencyHistogram now, LatencyHistogram before) {
+        long n = 0;
+        long highest = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = now.counts[i] - before.counts[i];
+            counts[i] = c;
+            n += c;
+            if (c > 0) {
+                highest = upperBound(i);
+            }
+        }
+
+        total = now.total - before.total;
+        max = Math.min(highest, now.max);
+        count = n;
+    }
+
+    /**
+     * Löscht alle Messwerte.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+
+        total = 0;
+        max = 0;
+        count = 0;
+    }
+
+    @Override
+    public String toString() {
+        long n = count;
+        return "n " + n
+                + ", mean " + micros(n > 0 ? total / n : 0)
+                + ", p50 " + micros(getPercentile(50))
+                + ", p99 " + micros(getPercentile(99))
+                + ", max " + micros(max);
+    }
+
+    private static String micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+    }
+}
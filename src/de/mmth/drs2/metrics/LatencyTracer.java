@@ -0,0 +1,391 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.metrics;
+
+import de.mmth.drs2.TickerEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Misst die Zeit von der Betätigung eines Tastenpaares
+ * bis die erste dadurch geänderte Lampe tatsächlich an
+ * die Platine geschrieben wurde.
+ *
+ * Eine Messung läuft durch vier Abschnitte:
+ * <ul>
+ * <li>Entprellen: Empfang des Telegramms mit der letzten
+ * Tastenflanke bis zum Aufruf von whenPressed.</li>
+ * <li>Logik: Aufruf von whenPressed bis zum ersten
+ * geänderten Ausgang. Ändert whenPressed selbst keinen
+ * Ausgang, bleibt die Messung bis zu OPEN_TICKS Ticks
+ * offen, z.B. für Lampen, die erst über das Zeitrad
+ * oder die Logik späterer Ticks gesetzt werden. In
+ * dieser Zeit zählt der erste geänderte Ausgang, auch
+ * ein blinkender, der nicht von der Taste stammt.</li>
+ * <li>Ausgabe: geänderter Ausgang bis zur Übergabe des
+ * Telegramms an den Schreib-Thread in der OUTPUT Phase.</li>
+ * <li>Seriell: Übergabe bis das Telegramm geschrieben
+ * ist, also Warteschlange und Schnittstelle.</li>
+ * </ul>
+ *
+ * Die Messungen liegen in einem festen Vorrat und werden
+ * nicht neu angelegt. Der Schreib-Thread markiert eine
+ * Messung nur als geschrieben, ausgewertet wird sie im
+ * Ticker Thread. Damit hat jedes Histogramm genau einen
+ * schreibenden Thread.
+ *
+ * @author matthias
+ */
+public class LatencyTracer implements TickerEvent {
+    private static final int POOL_SIZE = 32;
+    private static final int OPEN_TICKS = 50;
+    private static final int FREE = 0;
+    private static final int OPEN = 1;
+    private static final int PENDING = 2;
+    private static final int WRITTEN = 3;
+    private static final int DISCARDED = 4;
+
+    /**
+     * Messstelle für ein Tastenpaar.
+     */
+    public static final class Point {
+        final String group;
+        final String name;
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram debounce = new LatencyHistogram();
+        final LatencyHistogram logic = new LatencyHistogram();
+        final LatencyHistogram output = new LatencyHistogram();
+        final LatencyHistogram serial = new LatencyHistogram();
+
+        Point(String group, String name) {
+            this.group = group;
+            this.name = name;
+        }
+    }
+
+    /**
+     * Eine laufende Messung. Sie wird vom Connector an die
+     * Uart und von dort an den Schreib-Thread übergeben.
+     * Mehrere Messungen für dasselbe Telegramm werden über
+     * next verkettet.
+     */
+    public static final class Trace {
+        private volatile int state = FREE;
+        private Point point;
+        private long edge;
+        private long begin;
+        private long firstOut;
+        private long submitted;
+        private long written;
+        private int deadline;
+        private Trace next;
+
+        /**
+         * Nächste Messung, die mit demselben Telegramm
+         * geschrieben wird.
+         *
+         * @return
+         */
+        public Trace getNext() {
+            return next;
+        }
+
+        /**
+         * Hängt eine weitere Kette an diese an.
+         *
+         * @param other
+         * @return Anfang der gemeinsamen Kette.
+         */
+        public Trace append(Trace other) {
+            var last = this;
+            while (last.next != null) {
+                last = last.next;
+            }
+
+            last.next = other;
+            return this;
+        }
+
+        /**
+         * Das Telegramm wurde geschrieben. Wird vom
+         * Schreib-Thread für jede Messung der Kette
+         * aufgerufen, danach darf die Messung nicht mehr
+         * verwendet werden.
+         *
+         * @param nanoTime
+         */
+        public void written(long nanoTime) {
+            written = nanoTime;
+            state = WRITTEN;
+        }
+
+        /**
+         * Das Telegramm wurde nicht gesendet, weil sich
+         * nichts geändert hat.
+         */
+        public void discard() {
+            state = DISCARDED;
+        }
+    }
+
+    private final List<Point> points = new ArrayList<>();
+    private final Trace[] pool = new Trace[POOL_SIZE];
+    private final long[] edges;
+    private Trace[] pending = new Trace[0];
+    private Trace current = null;
+    private boolean inCall = false;
+    private int tickCount = 0;
+    private volatile boolean enabled = true;
+
+    private volatile long completed = 0;
+    private volatile long withoutOutput = 0;
+    private volatile long dropped = 0;
+    private volatile long discarded = 0;
+
+    /**
+     * @param portCount Anzahl der Eingänge des Connectors
+     */
+    public LatencyTracer(int portCount) {
+        edges = new long[portCount];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = new Trace();
+        }
+    }
+
+    /**
+     * Meldet ein Tastenpaar an.
+     *
+     * @param group Klasse des Empfängers, z.B. Fahrstrasse
+     * @param name Tasten und Name des Empfängers
+     * @return
+     */
+    public synchronized Point register(String group, String name) {
+        var point = new Point(group, name);
+        points.add(point);
+        return point;
+    }
+
+    /**
+     * Schaltet die Messung ein oder aus.
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ein Eingang hat sich geändert. nanoTime ist der
+     * Empfangszeitpunkt des Telegramms.
+     *
+     * @param portNo
+     * @param nanoTime
+     */
+    public void inputEdge(int portNo, long nanoTime) {
+        edges[portNo] = nanoTime;
+    }
+
+    /**
+     * Beginnt eine Messung unmittelbar vor dem Aufruf von
+     * whenPressed. Ausgangspunkt ist die spätere der beiden
+     * letzten Flanken der Tasten. Eine noch offene Messung
+     * ohne Ausgang wird abgeschlossen.
+     *
+     * @param point
+     * @param taste1
+     * @param taste2
+     */
+    public void begin(Point point, int taste1, int taste2) {
+        if (!enabled || inCall) {
+            return;
+        }
+
+        if (current != null) {
+            closeWithoutOutput();
+        }
+
+        long edge = Math.max(edges[taste1], edges[taste2]);
+        if (edge == 0) {
+            return;
+        }
+
+        Trace trace = acquire();
+        if (trace == null) {
+            dropped++;
+            return;
+        }
+
+        trace.point = point;
+        trace.edge = edge;
+        trace.begin = System.nanoTime();
+        trace.firstOut = 0;
+        trace.next = null;
+        trace.state = OPEN;
+        current = trace;
+        inCall = true;
+    }
+
+    /**
+     * Beendet den Abschnitt whenPressed. Hat der Aufruf
+     * noch keinen Ausgang einer Platine geändert, bleibt
+     * die Messung bis zu OPEN_TICKS Ticks offen.
+     */
+    public void end() {
+        inCall = false;
+        var trace = current;
+        if (trace != null) {
+            trace.deadline = tickCount + OPEN_TICKS;
+        }
+    }
+
+    private void closeWithoutOutput() {
+        withoutOutput++;
+        current.state = FREE;
+        current = null;
+    }
+
+    private Trace acquire() {
+        for (Trace trace: pool) {
+            if (trace.state == FREE) {
+                return trace;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Ein Ausgang der angegebenen Platine hat sich
+     * geändert. Nur der erste geänderte Ausgang einer
+     * laufenden Messung zählt.
+     *
+     * @param board
+     */
+    public void outputChanged(int board) {
+        var trace = current;
+        if (trace == null) {
+            return;
+        }
+
+        current = null;
+        trace.firstOut = System.nanoTime();
+        trace.state = PENDING;
+        if (board >= pending.length) {
+            var newPending = new Trace[board + 1];
+            System.arraycopy(pending, 0, newPending, 0, pending.length);
+            pending = newPending;
+        }
+
+        trace.next = pending[board];
+        pending[board] = trace;
+    }
+
+    /**
+     * Übernimmt die Messungen, die auf das nächste
+     * Telegramm der Platine warten.
+     *
+     * @param board
+     * @return Kette der Messungen oder null.
+     */
+    public Trace takePending(int board) {
+        if (board >= pending.length || pending[board] == null) {
+            return null;
+        }
+
+        var head = pending[board];
+        pending[board] = null;
+        long now = System.nanoTime();
+        for (var trace = head; trace != null; trace = trace.next) {
+            trace.submitted = now;
+        }
+
+        return head;
+    }
+
+    /**
+     * Wertet die geschriebenen Messungen aus und schließt
+     * eine offene Messung nach OPEN_TICKS ohne Ausgang.
+     *
+     * @param count
+     */
+    @Override
+    public void tick(int count) {
+        tickCount = count;
+        if ((current != null) && !inCall && (count - current.deadline >= 0)) {
+            closeWithoutOutput();
+        }
+
+        for (Trace trace: pool) {
+            int state = trace.state;
+            if (state == WRITTEN) {
+                var point = trace.point;
+                point.total.record(trace.written - trace.edge);
+                point.debounce.record(trace.begin - trace.edge);
+                point.logic.record(trace.firstOut - trace.begin);
+                point.output.record(trace.submitted - trace.firstOut);
+                point.serial.record(trace.written - trace.submitted);
+                completed++;
+                trace.state = FREE;
+            } else if (state == DISCARDED) {
+                discarded++;
+                trace.state = FREE;
+            }
+        }
+    }
+
+    /**
+     * Erstellt die Auswertung, zuerst je Art der Aktion
+     * mit allen Abschnitten, dann die Gesamtzeit je
+     * Tastenpaar, jeweils nach dem 99% Wert sortiert.
+     *
+     * @return
+     */
+    public synchronized String summary() {
+        Map<String, Point> groups = new LinkedHashMap<>();
+        for (Point point: points) {
+            var sum = groups.computeIfAbsent(point.group, g -> new Point(g, ""));
+            sum.total.add(point.total);
+            sum.debounce.add(point.debounce);
+            sum.logic.add(point.logic);
+            sum.output.add(point.output);
+            sum.serial.add(point.serial);
+        }
+
+        Comparator<Point> byP99 = Comparator.comparingLong((Point p) -> p.total.getPercentile(99)).reversed();
+        var buf = new StringBuilder();
+        buf.append("Button to lamp latency, completed ").append(completed)
+                .append(", without output ").append(withoutOutput)
+                .append(", unchanged ").append(discarded)
+                .append(", dropped ").append(dropped).append("\r\n");
+        groups.values().stream()
+                .filter(p -> p.total.getCount() > 0)
+                .sorted(byP99)
+                .forEach(p -> {
+                    buf.append("  ").append(p.group).append(": ").append(p.total).append("\r\n");
+                    buf.append("    debounce: ").append(p.debounce).append("\r\n");
+                    buf.append("    logic: ").append(p.logic).append("\r\n");
+                    buf.append("    output: ").append(p.output).append("\r\n");
+                    buf.append("    serial: ").append(p.serial).append("\r\n");
+                });
+
+        List<Point> sorted = new ArrayList<>(points);
+        sorted.sort(byP99);
+        for (Point point: sorted) {
+            if (point.total.getCount() > 0) {
+                buf.append("  ").append(point.group).append(' ').append(point.name)
+                        .append(": ").append(point.total).append("\r\n");
+            }
+        }
+
+        return buf.toString();
+    }
+}
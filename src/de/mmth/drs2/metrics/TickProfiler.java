@@ -0,0 +1,176 @@
+/*
+ * DRS2 Stellpultsteuerung für Raspberry Pi
+ * (c) 2026 Matthias Thiele
+ */
+package de.mmth.drs2.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sammelt die Laufzeiten der Ticker Callbacks.
+ *
+ * Für jeden Callback, jede Phase, die Dauer des ganzen
+ * Ticks und die Verspätung beim Aufwachen gibt es ein
+ * LatencyHistogram. Die Messung kostet zwei Aufrufe von
+ * System.nanoTime je Callback und legt keine Objekte
+ * an, sie kann also dauerhaft eingeschaltet bleiben.
+ *
+ * Die Zusammenfassung wird nach Klasse und Name
+ * gruppiert und kann in der Oberfläche angezeigt oder
+ * regelmäßig ausgegeben werden.
+ *
+ * @author matthias
+ */
+public class TickProfiler {
+    /**
+     * Gruppe für die Messwerte des Tickers selbst.
+     */
+    public static final String TICKER = "Ticker";
+
+    private static class Probe {
+        final String group;
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LatencyHistogram previous = new LatencyHistogram();
+        final LatencyHistogram interval = new LatencyHistogram();
+
+        Probe(String group, String name) {
+            this.group = group;
+            this.name = name;
+        }
+    }
+
+    private final List<Probe> probes = new ArrayList<>();
+    private volatile boolean enabled = true;
+
+    private final LatencyHistogram tickDuration = register(TICKER, "tick");
+    private final LatencyHistogram jitter = register(TICKER, "wakeup jitter");
+
+    /**
+     * Meldet eine Messstelle an.
+     *
+     * @param group Klasse der Komponente
+     * @param name Name der Komponente
+     * @return Histogramm, in das der Ticker misst.
+     */
+    public synchronized LatencyHistogram register(String group, String name) {
+        var probe = new Probe(group, name);
+        probes.add(probe);
+        return probe.histogram;
+    }
+
+    /**
+     * Schaltet die Messung ein oder aus.
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Histogramm der Dauer eines ganzen Ticks.
+     *
+     * @return
+     */
+    public LatencyHistogram getTickDuration() {
+        return tickDuration;
+    }
+
+    /**
+     * Histogramm der Verspätung beim Aufwachen gegenüber
+     * dem Termin des Ticks.
+     *
+     * @return
+     */
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Erstellt eine Zusammenfassung aller Messstellen,
+     * zuerst je Klasse, dann die einzelnen Objekte, jeweils
+     * nach dem größten Messwert sortiert.
+     *
+     * @param sinceLast true: nur die Werte seit dem letzten
+     * Aufruf mit sinceLast, false: alle Werte seit dem Start.
+     * @param overruns Anzahl der Überläufe des Tickers
+     * @return
+     */
+    public synchronized String summary(boolean sinceLast, long overruns) {
+        Map<String, LatencyHistogram> groups = new LinkedHashMap<>();
+        List<Probe> sorted = new ArrayList<>(probes);
+        for (Probe probe: probes) {
+            if (sinceLast) {
+                var now = new LatencyHistogram();
+                now.copyFrom(probe.histogram);
+                probe.interval.setDifference(now, probe.previous);
+                probe.previous.copyFrom(now);
+            } else {
+                probe.interval.copyFrom(probe.histogram);
+            }
+
+            groups.computeIfAbsent(probe.group, g -> new LatencyHistogram()).add(probe.interval);
+        }
+
+        sorted.sort(Comparator.comparingLong((Probe p) -> p.interval.getMax()).reversed());
+
+        var buf = new StringBuilder();
+        buf.append("Tick profile").append(sinceLast ? " (interval)" : " (total)")
+                .append(", overruns ").append(overruns).append("\r\n");
+        groups.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> e) -> e.getValue().getMax()).reversed())
+                .forEach(e -> buf.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append("\r\n"));
+        for (Probe probe: sorted) {
+            if (probe.interval.getCount() > 0) {
+                buf.append("    ").append(probe.group);
+                if (!probe.name.isEmpty()) {
+                    buf.append(' ').append(probe.name);
+                }
+
+                buf.append(": ").append(probe.interval).append("\r\n");
+            }
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * Startet einen Thread, der in festen Abständen die
+     * Zusammenfassung des letzten Intervalls ausgibt.
+     *
+     * @param periodMillis
+     * @param overruns liefert die Anzahl der Überläufe
+     * @param details weitere Angaben, die nach der
+     * Zusammenfassung ausgegeben werden, z.B. die Platinen
+     * @return
+     */
+    public Thread startLog(long periodMillis, LongSupplier overruns, Supplier<String> details) {
+        var thread = new Thread(() -> {
+            try {
+                for (;;) {
+                    Thread.sleep(periodMillis);
+                    if (enabled) {
+                        System.out.print(summary(true, overruns.getAsLong()));
+                        System.out.print(details.get());
+                    }
+                }
+            } catch (InterruptedException ex) {
+                // Ende
+            }
+        }, "TickProfiler");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
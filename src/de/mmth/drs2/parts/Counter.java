@@ -6,17 +6,16 @@ package de.mmth.drs2.parts;
 
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 
 /**
  *
  * @author pi
  */
 public class Counter implements TastenEvent, TickerEvent {
-    private final int NOT_ACTIVE = -1;
-    private final int ACTIVATE = -2;
     private final int ACTIVE_CYCLES = 5;
     
-    private int shutdown = NOT_ACTIVE;
+    private final TimingWheel.Entry shutdown = new TimingWheel.Entry(this);
     private Config config;
     private int port;
     private String name;
@@ -25,34 +24,29 @@ public class Counter implements TastenEvent, TickerEvent {
         this.config = config;
         this.name = name;
         this.port = outputPort;
-        config.ticker.add(this);
     }
     
+    /**
+     * Schaltet den Zähler ein und meldet die
+     * Abschaltung im Zeitrad an.
+     */
     @Override
     public void whenPressed(int taste1, int taste2) {
-        shutdown = ACTIVATE;
+        config.connector.setOut(port, true);
+        config.alert("Zähler " + name + " aktiviert.");
+        config.ticker.scheduleIn(shutdown, ACTIVE_CYCLES + 1);
     }
 
+    /**
+     * Wird vom Zeitrad nach Ablauf der Einschaltzeit
+     * aufgerufen.
+     * 
+     * @param count 
+     */
     @Override
     public void tick(int count) {
-        switch (shutdown) {
-            case NOT_ACTIVE:
-                // do nothing
-                break;
-                
-            case ACTIVATE:
-                shutdown = count + ACTIVE_CYCLES;
-                config.connector.setOut(port, true);
-                config.alert("Zähler " + name + " aktiviert.");
-                break;
-                
-            default:
-                if (count > shutdown) {
-                    shutdown = NOT_ACTIVE;
-                    config.connector.setOut(port, false);
-                    config.alert("Zähler " + name + " deaktiviert.");
-                }
-        }
+        config.connector.setOut(port, false);
+        config.alert("Zähler " + name + " deaktiviert.");
     }
     
 }
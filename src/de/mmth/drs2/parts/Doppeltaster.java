@@ -7,7 +7,10 @@ package de.mmth.drs2.parts;
 
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.InputEvent;
+import de.mmth.drs2.metrics.LatencyTracer;
 
 /**
  * Aktionen im DRS 2 Stellpult erfolgen normalerweise
@@ -18,9 +21,12 @@ import de.mmth.drs2.io.Connector;
  * und gibt ein einmaliges TastenEvent nach knapp
  * einer Sekunde ab.
  * 
+ * Der Doppeltaster wird nur aufgerufen, solange
+ * mindestens eine der beiden Tasten gedrückt ist.
+ * 
  * @author pi
  */
-public class Doppeltaster implements TickerEvent {
+public class Doppeltaster implements TickerEvent, InputEvent {
     private static final int ACTIVATION_COUNT = 2;
     private static final int ALERT_COUNT = 80;
     
@@ -33,20 +39,57 @@ public class Doppeltaster implements TickerEvent {
     private boolean triggerActivation = false;
     private Config config;
     private boolean actionOnRelease;
+    private final TimingWheel.Entry pollTimer = new TimingWheel.Entry(this);
+    private LatencyTracer tracer;
+    private LatencyTracer.Point tracePoint;
+    
+    /**
+     * Sobald eine der beiden Tasten gedrückt wird,
+     * startet die Abfrage noch im selben Tick, wie
+     * zuvor beim Aufruf in jedem Tick.
+     * 
+     * @param portNo
+     * @param count 
+     */
+    @Override
+    public void pressed(int portNo, int count) {
+        if (!pollTimer.isScheduled()) {
+            config.ticker.schedule(pollTimer, count);
+        }
+    }
+
+    /**
+     * Das Loslassen wird von der laufenden Abfrage
+     * erkannt.
+     * 
+     * @param portNo
+     * @param count
+     * @param duration 
+     */
+    @Override
+    public void released(int portNo, int count, int duration) {
+    }
     
     /**
-     * Mit jedem TickerEvent wird der Zustand der
-     * beiden Taster eingelesen. Wenn beide eine
-     * voreingestellte Zeit gedrückt sind, wird
-     * einmalig ein TastenEvent erzeugt.
+     * Solange eine Taste gedrückt ist, wird mit jedem
+     * Tick der Zustand der beiden Taster eingelesen.
+     * Wenn beide eine voreingestellte Zeit gedrückt
+     * sind, wird einmalig ein TastenEvent erzeugt.
+     * 
      * @param count 
      */
     @Override
     public void tick(int count) {
-        if (!config.tastenAnschalter) {
-            return;
+        if (config.tastenAnschalter) {
+            poll();
         }
         
+        if ((taste1Count > 0) || (taste2Count > 0) || drs2.isInSet(taste1) || drs2.isInSet(taste2)) {
+            config.ticker.schedule(pollTimer, count + 1);
+        }
+    }
+    
+    private void poll() {
         if (drs2.isInSet(taste1)) {
             taste1Count++;
         } else {
@@ -64,7 +107,7 @@ public class Doppeltaster implements TickerEvent {
             if (actionOnRelease) {
               triggerActivation = true;
             } else {
-              activateWhenPressed.whenPressed(taste1, taste2);  
+              activate();
             }
         }
         
@@ -82,7 +125,20 @@ public class Doppeltaster implements TickerEvent {
         
         if (triggerActivation && (taste1Count == 0) && (taste2Count == 0)) {
             triggerActivation = false;
+            activate();
+        }
+    }
+    
+    /**
+     * Ruft den Empfänger auf und misst dabei die Zeit
+     * von der Taste bis zur Lampe.
+     */
+    private void activate() {
+        tracer.begin(tracePoint, taste1, taste2);
+        try {
             activateWhenPressed.whenPressed(taste1, taste2);
+        } finally {
+            tracer.end();
         }
     }
     
@@ -101,7 +157,6 @@ public class Doppeltaster implements TickerEvent {
      */
     public void init(Config config, TastenEvent activateWhenPressed, int taste1, int taste2, boolean actionOnRelease) {
         this.config = config;
-        config.ticker.add(this);
         this.drs2 = config.connector;
         this.activateWhenPressed = activateWhenPressed;
         this.taste1 = taste1;
@@ -109,6 +164,13 @@ public class Doppeltaster implements TickerEvent {
         this.taste2 = taste2;
         taste2Count = 0;
         this.actionOnRelease = actionOnRelease;
+        this.tracer = drs2.getTracer();
+        var target = (activateWhenPressed instanceof ColorMarker)
+                ? " " + ((ColorMarker) activateWhenPressed).getName() : "";
+        this.tracePoint = tracer.register(activateWhenPressed.getClass().getSimpleName(),
+                taste1 + "+" + taste2 + target);
+        drs2.subscribe(taste1, this);
+        drs2.subscribe(taste2, this);
     }
     
     public void init(Config config, TastenEvent activateWhenPressed, int taste1, int taste2) {
@@ -6,13 +6,18 @@ package de.mmth.drs2.parts;
 
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.InputEvent;
 
 /**
+ * Der Einfachtaster meldet das Drücken einer einzelnen
+ * Taste. Er wird nur aufgerufen, solange die Taste
+ * gedrückt ist.
  *
  * @author pi
  */
-public class Einfachtaster implements TickerEvent {
+public class Einfachtaster implements TickerEvent, InputEvent {
     private static final int ACTIVATION_COUNT = 2;
     private static final int ALERT_COUNT = 160;
     
@@ -21,6 +26,7 @@ public class Einfachtaster implements TickerEvent {
     private int taste;
     private int tasteCount;
     private Config config;
+    private final TimingWheel.Entry pollTimer = new TimingWheel.Entry(this);
     
     /**
      * Mit dieser Funktion initialisiert das Objekt, welches
@@ -35,16 +41,42 @@ public class Einfachtaster implements TickerEvent {
      */
     public void init(Config config, TastenEvent activateWhenPressed, int taste) {
         this.config = config;
-        config.ticker.add(this);
         this.drs2 = config.connector;
         this.activateWhenPressed = activateWhenPressed;
         this.taste = taste;
         tasteCount = 0;
+        drs2.subscribe(taste, this);
     }
     
     /**
-     * Mit jedem TickerEvent wird der Zustand
-     * der Taste eingelesen. Wenn sie eine
+     * Beim Drücken der Taste startet die Abfrage
+     * noch im selben Tick.
+     * 
+     * @param portNo
+     * @param count 
+     */
+    @Override
+    public void pressed(int portNo, int count) {
+        if (!pollTimer.isScheduled()) {
+            config.ticker.schedule(pollTimer, count);
+        }
+    }
+
+    /**
+     * Das Loslassen wird von der laufenden Abfrage
+     * erkannt.
+     * 
+     * @param portNo
+     * @param count
+     * @param duration 
+     */
+    @Override
+    public void released(int portNo, int count, int duration) {
+    }
+    
+    /**
+     * Solange die Taste gedrückt ist, wird mit jedem
+     * Tick der Zustand der Taste eingelesen. Wenn sie eine
      * voreingestellte Zeit gedrückt ist, wird
      * einmalig ein TastenEvent erzeugt.
      * 
@@ -65,6 +97,10 @@ public class Einfachtaster implements TickerEvent {
         if (tasteCount == ALERT_COUNT) {
             config.alert("Taste " + taste + " hängt.");
         }
+        
+        if (tasteCount > 0) {
+            config.ticker.schedule(pollTimer, count + 1);
+        }
     }
         
     
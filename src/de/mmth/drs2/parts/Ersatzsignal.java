@@ -7,6 +7,7 @@ package de.mmth.drs2.parts;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 
 /**
  * Diese Klasse verwaltet die Ansteuerung der Ersatzsignale.
@@ -30,6 +31,7 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
     private Doppeltaster loeschtaste;
   private Signal signal;
   private int[] weichen;
+    private final TimingWheel.Entry zeitrelais = new TimingWheel.Entry(this);
     
     /**
      * Initialisiert das Ersatzsignal.
@@ -57,7 +59,6 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
         
         loeschtaste = new Doppeltaster();
         loeschtaste.init(conf, this, Const.HaGT, signalT);
-        conf.ticker.add(this);
     }
 
     /**
@@ -93,6 +94,9 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
                     conf.alert(name + ": Es ist bereits eine Fahrt freigegeben - " + otherName);
                 } else {
                     isFahrt = true;
+                    if (fahrtBis == 0) {
+                        conf.ticker.scheduleIn(zeitrelais, 1);
+                    }
                 }
               }
               break;
@@ -106,7 +110,9 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
 
     /**
      * Simuliert das Zeitrelais welches das Signal
-     * nach 90 Sekunden wieder abschaltet.
+     * nach 90 Sekunden wieder abschaltet. Wird vom
+     * Zeitrad beim Einschalten und nach Ablauf der
+     * Fahrtzeit aufgerufen.
      * 
      * @param count 
      */
@@ -119,9 +125,11 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
                 fahrtBis = count + FAHRT_DURATION;
                 conf.alert("Ersatzsignal " + this.toString());
                 conf.ersatzsignalCounter.whenPressed(0, 0);
-            }
-            
-            if (count >= fahrtBis) {
+                conf.ticker.schedule(zeitrelais, fahrtBis);
+                for (var fahrstrasse: conf.fahrstrassen) {
+                    fahrstrasse.wake();
+                }
+            } else if (count >= fahrtBis) {
                 // nach 90 Sekunden Ersatzsignal abschalten
                 hp0();
             }
@@ -135,7 +143,28 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
      */
     @Override
     public String toString() {
-        return name + " : " + (isFahrt ? "Fahrt" : "Halt");
+        return describe(name, isFahrt);
+    }
+    
+    /**
+     * Textform eines Ersatzsignalzustands, z.B. für die
+     * Anzeige aus einem Snapshot.
+     * 
+     * @param name
+     * @param fahrt
+     * @return 
+     */
+    public static String describe(String name, boolean fahrt) {
+        return name + " : " + (fahrt ? "Fahrt" : "Halt");
+    }
+    
+    /**
+     * Liefert den Namen des Ersatzsignals zurück.
+     * 
+     * @return 
+     */
+    public String getName() {
+        return name;
     }
     
     /**
@@ -157,6 +186,7 @@ public class Ersatzsignal implements TastenEvent, TickerEvent {
         isFahrt = false;
         conf.connector.setOut(signalLampe, isFahrt);
         fahrtBis = 0;
+        conf.ticker.cancel(zeitrelais);
         conf.alert("Ersatzsignal " + this.toString());
     }
 }
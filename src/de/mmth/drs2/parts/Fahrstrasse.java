@@ -4,9 +4,13 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
+import de.mmth.drs2.jfr.FahrstrasseEvent;
+import de.mmth.drs2.log.EventCode;
 
 /**
  * Diese Klasse verwaltet die Funktionen zum
@@ -60,6 +64,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
     private boolean pendingTrain;
     
     private int state = DORMANT;
+    private int reportedState = DORMANT;
     private int nextStep = -1;
     private Gleismarker ausfahrtsGleis;
     private int ersatzSignalNummer;
@@ -79,6 +84,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
     
     private Weichenlaufkette weichenlauf;
     private boolean pendingWeichenlauf;
+    private final TimingWheel.Entry stepTimer = new TimingWheel.Entry(this);
     
     /**
      * Initialisiert die Parameter der Fahrstraße.
@@ -142,8 +148,18 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         isInbound = signalNummer < SIGNAL_FIRST_OUTBOUND;
         
         weichenlauf = new Weichenlaufkette(this.plusWeichen, this.minusWeichen);
-        config.ticker.add(weichenlauf);
-        config.ticker.add(this);
+    }
+    
+    /**
+     * Meldet die Fahrstraße für den nächsten Tick im
+     * Zeitrad an, z.B. weil ein Ersatzsignal auf Fahrt
+     * gestellt wurde.
+     */
+    public void wake() {
+        int next = config.ticker.getTickCount() + 1;
+        if (!stepTimer.isScheduled() || (stepTimer.getDeadline() > next)) {
+            config.ticker.schedule(stepTimer, next);
+        }
     }
     
     /**
@@ -178,6 +194,12 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                   fahrstrassenfestlegung();
                 }
         }
+        
+        if (state != reportedState) {
+            report("state");
+        }
+        
+        wake();
     }
     
     /**
@@ -188,7 +210,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
      */
     private void fahrstrassenaufloesung() {
       if (isLocked()) {
-        config.alert("Manuelle Auflösung der Fahrstraße gestartet.");
+        config.alert(AlertCategory.ROUTE, "Manuelle Auflösung der Fahrstraße gestartet.");
       } else {
         return;
       }
@@ -225,65 +247,65 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
      * versucht nun die Fahrstraße einzurichten.
      */
     private void fahrstrassenfestlegung() {
-        config.alert("Die Fahrstrasse " + name + " wurde ausgewählt.");
+        config.alert(AlertCategory.ROUTE, "Die Fahrstrasse " + name + " wurde ausgewählt.");
         if (isLocked) {
-            config.alert("Die Fahrstrasse " + name + " ist bereits verrigelt.");
+            config.alert(AlertCategory.ROUTE, "Die Fahrstrasse " + name + " ist bereits verrigelt.");
             return;
         }
         
         if (!isInbound && !isFree()) {
-            config.alert("Der Streckenblock ist noch belegt.");
+            config.alert(AlertCategory.ROUTE, "Der Streckenblock ist noch belegt.");
             return;
         }
         
         if (!isInbound && streckeAus.isLocked()) {
-            config.alert("Der Ausfahrtsperrmelder ist noch aktiv.");
+            config.alert(AlertCategory.ROUTE, "Der Ausfahrtsperrmelder ist noch aktiv.");
             return;
         }
         
         // Zielgleis prüfen
         if (isInbound && bahnhofsGleis.isInUse()) {
-            config.alert("Das Zielgleis ist bereits belegt.");
+            config.alert(AlertCategory.ROUTE, "Das Zielgleis ist bereits belegt.");
             return;
         }
         
         // Weichenstellung prüfen.
         for (Weiche plusWeiche : plusWeichen) {
             if (!plusWeiche.isPlus()) {
-                config.alert("Die Weiche " + plusWeiche.getName() + " ist nicht in Plus Stellung.");
+                config.alert(AlertCategory.ROUTE, "Die Weiche " + plusWeiche.getName() + " ist nicht in Plus Stellung.");
                 return;
             }
             if (plusWeiche.isRunning()) {
-                config.alert("Die Weiche " + plusWeiche.getName() + " ist gestört oder läuft noch um.");
+                config.alert(AlertCategory.ROUTE, "Die Weiche " + plusWeiche.getName() + " ist gestört oder läuft noch um.");
                 return;
             }
         }
         
         if ((pruefungPlus != null) && !pruefungPlus.isPlus()) {
-            config.alert("Die Weiche " + pruefungPlus.getName() + " ist nicht in Plus Stellung.");
+            config.alert(AlertCategory.ROUTE, "Die Weiche " + pruefungPlus.getName() + " ist nicht in Plus Stellung.");
             return;
         }
         
         for (Weiche minusWeiche : minusWeichen) {
             if (minusWeiche.isPlus()) {
-                config.alert("Die Weiche " + minusWeiche.getName() + " ist nicht in Minus Stellung.");
+                config.alert(AlertCategory.ROUTE, "Die Weiche " + minusWeiche.getName() + " ist nicht in Minus Stellung.");
                 return;
             }
             if (minusWeiche.isRunning()) {
-                config.alert("Die Weiche " + minusWeiche.getName() + " ist gestört oder läuft noch um.");
+                config.alert(AlertCategory.ROUTE, "Die Weiche " + minusWeiche.getName() + " ist gestört oder läuft noch um.");
                 return;
             }
         }
         
         if ((pruefungMinus != null) && pruefungMinus.isPlus()) {
-            config.alert("Die Weiche " + pruefungMinus.getName() + " ist nicht in Minus Stellung.");
+            config.alert(AlertCategory.ROUTE, "Die Weiche " + pruefungMinus.getName() + " ist nicht in Minus Stellung.");
             return;
         }
         
         if (schluesselweiche1 != -1) {
             Schluesselweiche sw = config.schluesselweichen[schluesselweiche1];
             if (sw.isLocked()) {
-                config.alert("Die Schlüsselweiche " + sw.getName() + " ist nicht verschlossen.");
+                config.alert(AlertCategory.ROUTE, "Die Schlüsselweiche " + sw.getName() + " ist nicht verschlossen.");
                 return;
             }
         }
@@ -291,7 +313,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         if (schluesselweiche2 != -1) {
             Schluesselweiche sw = config.schluesselweichen[schluesselweiche2];
             if (sw.isLocked()) {
-                config.alert("Die Schlüsselweiche " + sw.getName() + " ist nicht verschlossen.");
+                config.alert(AlertCategory.ROUTE, "Die Schlüsselweiche " + sw.getName() + " ist nicht verschlossen.");
                 return;
             }
         }
@@ -337,11 +359,12 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         state = INIT;
         if (isInbound && pendingTrain) {
             state = WAIT_FOR_HP1;
-            config.alert("Begonnene Fahrt wird fortgesetzt.");
+            config.alert(AlertCategory.ROUTE, "Begonnene Fahrt wird fortgesetzt.");
         }
         
         reportWait = true;
-        config.alert("Die Fahrstraße " + name + " wurde verschlossen.");
+        report("locked");
+        config.alert(AlertCategory.ROUTE, "Die Fahrstraße " + name + " wurde verschlossen.");
     }
     
     /**
@@ -353,19 +376,19 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
      */
     public void unlock(boolean ohneZugfahrt) {
         if (!isLocked) {
-            config.alert("Die Fahrstraße ist nicht verschlossen.");
+            config.alert(AlertCategory.ROUTE, "Die Fahrstraße ist nicht verschlossen.");
             return;
         }
         
         for (var w: fahrwegWeichen) {
           if (w.isRed()) {
-            config.alert("Die Weiche " + w.getName() + " wird noch befahren.");
+            config.alert(AlertCategory.ROUTE, "Die Weiche " + w.getName() + " wird noch befahren.");
             return;
           }
         }
         
         if (isInbound && !ohneZugfahrt && !this.bahnhofsGleis.isInUse()) {
-          config.alert("Der Zug hat das Zielgleis noch nicht erreicht: " + bahnhofsGleis.getName());
+          config.alert(AlertCategory.ROUTE, "Der Zug hat das Zielgleis noch nicht erreicht: " + bahnhofsGleis.getName());
           return;
         }
         
@@ -400,7 +423,48 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         } else if (streckeAus != null) {
           streckeAus.fahrstrassenauflösung();
         }
-        config.alert("Die Fahrstraße " + name + " wurde aufgelöst.");
+        report("unlocked");
+        config.alert(AlertCategory.ROUTE, "Die Fahrstraße " + name + " wurde aufgelöst.");
+    }
+    
+    /**
+     * Meldet eine Aktion oder einen Zustandswechsel an den
+     * Flight Recorder.
+     * 
+     * @param action 
+     */
+    private void report(String action) {
+        var event = new FahrstrasseEvent();
+        if (event.shouldCommit()) {
+            event.route = name;
+            event.action = action;
+            event.state = stateName(state);
+            event.previousState = stateName(reportedState);
+            event.locked = isLocked;
+            event.commit();
+        }
+        
+        reportedState = state;
+    }
+    
+    private static String stateName(int state) {
+        switch (state) {
+            case DORMANT: return "DORMANT";
+            case INBOUND_RED: return "INBOUND_RED";
+            case INIT: return "INIT";
+            case SIGNAL_HP0: return "SIGNAL_HP0";
+            case DONE: return "DONE";
+            case AUSFAHRT1: return "AUSFAHRT1";
+            case AUSFAHRT2: return "AUSFAHRT2";
+            case INCOMMING_TRAIN: return "INCOMMING_TRAIN";
+            case OUTGOING_TRAIN: return "OUTGOING_TRAIN";
+            case WAIT_FOR_HP1: return "WAIT_FOR_HP1";
+            case EINFAHRT1: return "EINFAHRT1";
+            case SET_HP1: return "SET_HP1";
+            case WAIT_FOR_TRAIN: return "WAIT_FOR_TRAIN";
+            case WAITERSATZ: return "WAITERSATZ";
+            default: return "WEICHE " + state;
+        }
     }
     
     /**
@@ -469,8 +533,44 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         return false;
     }
     
+    /**
+     * Meldet zurück, ob das Ersatzsignal zu dieser Fahrstraße
+     * auf Fahrt steht, die Ersatzsignalfahrt aber noch nicht
+     * begonnen hat.
+     * 
+     * @return 
+     */
+    private boolean isErsatzsignalPending() {
+        return !ersatzSignalFahrt && (ersatzSignalNummer >= 0)
+                && config.ersatzsignale[ersatzSignalNummer].isFahrt();
+    }
+    
+    /**
+     * Wird vom Zeitrad aufgerufen, solange die Fahrstraße
+     * aktiv ist. Eine ruhende Fahrstraße wird nicht
+     * aufgerufen.
+     * 
+     * @param count 
+     */
     @Override
     public void tick(int count) {
+        step(count);
+        if (state != reportedState) {
+            report("state");
+        }
+        
+        if (pendingWeichenlauf || isErsatzsignalPending()) {
+            config.ticker.schedule(stepTimer, count + 1);
+        } else if ((state != DORMANT) || ersatzSignalFahrt) {
+            config.ticker.schedule(stepTimer, Math.max(nextStep, count + 1));
+        }
+    }
+    
+    private void step(int count) {
+        if (pendingWeichenlauf) {
+            weichenlauf.tick(count);
+        }
+        
         if (isInbound) {
             if (!ersatzSignalFahrt && (ersatzSignalNummer >= 0) 
                     && config.ersatzsignale[ersatzSignalNummer].isFahrt()
@@ -508,7 +608,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
         
         if (pendingWeichenlauf) {
           if (weichenlauf.hasError()) {
-            config.alert("Weichenlaufkette konnte nicht komplett ausgeführt werden.");
+            config.alert(AlertCategory.ROUTE, "Weichenlaufkette konnte nicht komplett ausgeführt werden.");
             pendingWeichenlauf = false;
           } else if (weichenlauf.isReady()) {
             fahrstrassenfestlegung();
@@ -531,7 +631,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 return; // do nothing
                 
             case INIT:
-                config.alert("Fahrt mit Ersatzsignal gestartet.");
+                config.alert(AlertCategory.ROUTE, "Fahrt mit Ersatzsignal gestartet.");
                 state = SIGNAL_HP0;
                 setRed(count, bahnhofsGleis); // damit setWhite funktioniert
                 nextStep = count + STEP_LONG_WAIT;
@@ -554,7 +654,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 break;
                 
             case AUSFAHRT2:
-                config.alert("Bahnhof verlassen.");
+                config.alert(AlertCategory.ROUTE, "Bahnhof verlassen.");
                 fahrwegWeichen[fahrwegWeichen.length - 1].white();
                 ausfahrtsGleis.clear();
                 nextStep = count + STEP_LONG_WAIT;
@@ -569,7 +669,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 break;
                 
             case DONE:
-                config.alert("Zugfahrt beendet.");
+                config.alert(AlertCategory.ROUTE, "Zugfahrt beendet.");
                 bahnhofsGleis.clear();
                 lastRed = null;
                 ersatzSignalFahrt = false;
@@ -586,10 +686,10 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 int weiche = state;
                 
                 if (weiche < fahrwegWeichen.length) {
-                    config.alert("Zug bei Weiche " + fahrwegWeichen[weiche].getName());
+                    config.alert(AlertCategory.ROUTE, "Zug bei Weiche " + fahrwegWeichen[weiche].getName());
                     setRed(count, fahrwegWeichen[weiche]);
                 } else {
-                    config.alert("Ausfahrtsgleis erreicht.");
+                    config.alert(AlertCategory.ROUTE, "Ausfahrtsgleis erreicht.");
                     nextStep = count + STEP_SHORT_WAIT;
                     state = AUSFAHRT1;
                     break;
@@ -632,7 +732,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
             case WAIT_FOR_TRAIN:
                 nextStep = count + STEP_SHORT_WAIT;
                 if (bahnhofsGleis.isInUse()) {
-                    config.alert("Fahrt gestartet in Richtung " + streckeAus.getName());
+                    config.alert(AlertCategory.ROUTE, "Fahrt gestartet in Richtung " + streckeAus.getName());
                     state = WAIT_FOR_HP1; // Fahrstraße wurde ausgewählt.
                     reportWait = true;
                     if (verbundeneFahrt >= 0) {
@@ -640,7 +740,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                     }
                 } else {
                     if (reportWait) {
-                        config.alert("Warte auf Zug: " + name);
+                        config.alert(AlertCategory.ROUTE, "Warte auf Zug: " + name);
                         reportWait = false;
                     }
                 }
@@ -665,14 +765,14 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                     state = INBOUND_RED;
                 } else {
                     if (reportWait) {
-                        config.alert("Zug wartet auf HP1.");
+                        config.alert(AlertCategory.ROUTE, "Zug wartet auf HP1.");
                         reportWait = false;
                     }
                 }
                 break;
                 
             case INBOUND_RED:
-                config.alert("Zug fährt aus.");
+                config.alert(AlertCategory.ROUTE, "Zug fährt aus.");
                 setRed(count, signal);
                 nextStep = count + STEP_LONG_WAIT;
                 state = SIGNAL_HP0;
@@ -692,7 +792,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 break;
                 
             case AUSFAHRT2:
-                config.alert("Fahrt abgeschlossen.");
+                config.alert(AlertCategory.ROUTE, "Fahrt abgeschlossen.");
                 fahrwegWeichen[fahrwegWeichen.length - 1].white();
                 nextStep = count + STEP_LONG_WAIT;
                 state = OUTGOING_TRAIN;
@@ -701,7 +801,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
             case OUTGOING_TRAIN:
                 nextStep = count + STEP_LONG_WAIT;
                 // Ausfahrtsgleis erreicht
-                config.alert("Bahnhof verlassen.");
+                config.alert(AlertCategory.ROUTE, "Bahnhof verlassen.");
                 unlock(false);
                 streckeAus.fahrstrassenauflösung();
                 state = DONE;
@@ -724,11 +824,11 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                   setRed(count, fahrwegWeichen[weiche]);
                   nextStep = count + STEP_WEICHE_WEICHE;
                 } else if (weiche < fahrwegWeichen.length) {
-                  config.alert("Zug bei Weiche " + fahrwegWeichen[weiche].getName());
+                  config.alert(AlertCategory.ROUTE, "Zug bei Weiche " + fahrwegWeichen[weiche].getName());
                   setRed(count, fahrwegWeichen[weiche]);
                   nextStep = count + STEP_WEICHE_WEICHE;
                 } else {
-                  config.alert("Ausfahrtsgleis erreicht.");
+                  config.alert(AlertCategory.ROUTE, "Ausfahrtsgleis erreicht.");
                   nextStep = count + STEP_WEICHE_GLEIS;
                   state = AUSFAHRT1;
                   break;
@@ -741,7 +841,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
     
     private void checkPendingHalt() {
         if (pendingHalt) {
-            config.alert("Signal auf Halt.");
+            config.alert(AlertCategory.ROUTE, "Signal auf Halt.");
             signal.halt(true);
             pendingHalt = false;
         }
@@ -777,7 +877,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 nextStep = count + STEP_LONG_WAIT;
                 state = WAIT_FOR_TRAIN; // Fahrstraße wurde ausgewählt.
                 reportWait = true;
-                config.alert("Warte auf Zugfahrt " + name);
+                config.alert(AlertCategory.ROUTE, "Warte auf Zugfahrt " + name);
                 break;
                 
             case WAIT_FOR_TRAIN:
@@ -792,7 +892,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                         config.pendingTrainM = 0;
                     }
                     //config.stoerungsmelder.meldung();
-                    config.alert("Fahrt gestartet: " + name);
+                    config.alert(AlertCategory.ROUTE, "Fahrt gestartet: " + name);
                     nextStep = count + STEP_LONG_WAIT;
                 } else {
                     nextStep = count + STEP_SHORT_WAIT;
@@ -815,14 +915,14 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                     state = INBOUND_RED;
                 } else {
                     if (reportWait) {
-                        config.alert("Zug wartet auf HP1.");
+                        config.alert(AlertCategory.ROUTE, "Zug wartet auf HP1.");
                         reportWait = false;
                     }
                 }
                 break;
                 
             case INBOUND_RED:
-                config.alert("Zug im Signalblock: " + signal.getName());
+                config.alert(AlertCategory.ROUTE, "Zug im Signalblock: " + signal.getName());
                 setRed(count, signal);
                 nextStep = count + STEP_VERY_SHORT_WAIT;
                 state = SIGNAL_HP0; // Signal wieder auf Halt zurückstellen.
@@ -839,7 +939,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 
             case EINFAHRT1:
                 // Zielgleis erreicht
-                config.alert("Zielgleis erreicht: " + bahnhofsGleis.getName());
+                config.alert(AlertCategory.ROUTE, "Zielgleis erreicht: " + bahnhofsGleis.getName());
                 setRed(count, bahnhofsGleis);
                 if (!ersatzSignalFahrt) {
                     streckeEin.trainArrived();
@@ -859,7 +959,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                     break;
                 }
                 
-                config.alert("Ersatzsignalfahrt beendet.");
+                config.alert(AlertCategory.ROUTE, "Ersatzsignalfahrt beendet.");
                 ersatzSignalFahrt = false;
                 state = DORMANT;
                 break;
@@ -872,7 +972,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                 if (weiche == 0) {
                     // erste Weiche, es gibt keinen Vorgänger, sondern nur
                     // den Streckenabschnitt zum Einfahrtssignal.
-                    config.alert("Zug verlässt Signalblock.");
+                    config.alert(AlertCategory.ROUTE, "Zug verlässt Signalblock.");
                     streckeEin.activateGleiskontakt(ersatzSignalFahrt);
                     setRed(count, fahrwegWeichen[weiche]);
                     nextStep = count + STEP_WEICHE_WEICHE;
@@ -880,12 +980,12 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
                     // signal geht erst beim Befahren der ersten Weiche auf HP0
                     signal.halt();
                 } else if (weiche < fahrwegWeichen.length) {
-                    config.alert("Zug bei Weiche " + fahrwegWeichen[weiche].getName());
+                    config.alert(AlertCategory.ROUTE, "Zug bei Weiche " + fahrwegWeichen[weiche].getName());
                     setRed(count, fahrwegWeichen[weiche]);
                     nextStep = count + STEP_WEICHE_WEICHE;
                 } else {
                     // Zielgleis wird angefahren
-                    config.alert("Zielgleis wird angefahren.");
+                    config.alert(AlertCategory.ROUTE, "Zielgleis wird angefahren.");
                     nextStep = count + STEP_WEICHE_GLEIS;
                     state = EINFAHRT1;
                     return;
@@ -908,7 +1008,7 @@ public class Fahrstrasse implements TastenEvent, TickerEvent {
             
             lastRed = nextRed;
             nextRed.red();
-            System.out.println("set red: " + nextRed.getName());
+            config.log.log(EventCode.RED_SET, nextRed.getName());
         }
     }
 }
@@ -4,6 +4,7 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 
 /**
@@ -43,7 +44,7 @@ public class Gleismarker implements ColorMarker {
     
     @Override
     public void white() {
-        config.alert("Gleismarker " + name + " weiss.");
+        config.alert(AlertCategory.ROUTE, "Gleismarker " + name + " weiss.");
         config.connector.setOut(markerRed, false);
         config.connector.setOut(markerWhite, true);
         isInUse = false;
@@ -51,7 +52,7 @@ public class Gleismarker implements ColorMarker {
 
     @Override
     public void red() {
-        config.alert("Gleismarker " + name + " rot.");
+        config.alert(AlertCategory.ROUTE, "Gleismarker " + name + " rot.");
         config.connector.setOut(markerRed, true);
         config.connector.setOut(markerWhite, false);
         isInUse = true;
@@ -64,7 +65,7 @@ public class Gleismarker implements ColorMarker {
     
     @Override
     public void clear() {
-        config.alert("Gleismarker " + name + " gelöscht.");
+        config.alert(AlertCategory.ROUTE, "Gleismarker " + name + " gelöscht.");
         config.connector.setOut(markerRed, false);
         config.connector.setOut(markerWhite, false);
         isInUse = false;
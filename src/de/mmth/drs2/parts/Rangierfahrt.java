@@ -4,8 +4,11 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
+import de.mmth.drs2.log.EventCode;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,8 +17,8 @@ import java.util.List;
  * @author Matthias Thiele
  */
 public class Rangierfahrt implements TickerEvent {
-    private static int SHORT_DELAY = 20;
-    private static int LONG_DELAY = 80;
+    private static final int SHORT_DELAY = 20;
+    private static final int LONG_DELAY = 80;
     
     private Config config;
     private String name;
@@ -27,6 +30,7 @@ public class Rangierfahrt implements TickerEvent {
     private int rangierSignal;
     private boolean addPendingClear;
     private int waitCounter = 0;
+    private final TimingWheel.Entry actionTimer = new TimingWheel.Entry(this);
     
     
     private enum ActionType {
@@ -106,8 +110,6 @@ public class Rangierfahrt implements TickerEvent {
         for (var part: parts) {
           addStep(part);
         }
-        
-        config.ticker.add(this);
     }
 
     public String getName() {
@@ -122,20 +124,22 @@ public class Rangierfahrt implements TickerEvent {
     public void start() {
         if (position != -1) {
             if (!resume()) {
-                config.alert("Rangierfahrt abgebrochen.");
+                config.alert(AlertCategory.SHUNT, "Rangierfahrt abgebrochen.");
                 position = -1;
+                config.ticker.cancel(actionTimer);
             }
         } else if (!checkStartGleis(fahrweg.get(0).param)) {
-            config.alert("Startgleis ist nicht besetzt.");
+            config.alert(AlertCategory.SHUNT, "Startgleis ist nicht besetzt.");
         } else {
             position = 0;
+            config.ticker.schedule(actionTimer, Math.max(nextAction, config.ticker.getTickCount() + 1));
         }
     }
     
     private boolean resume() {
         Step step = fahrweg.get(position);
         if (step.action == ActionType.Wait) {
-            config.alert("Rangierfahrt wird fortgesetzt.");
+            config.alert(AlertCategory.SHUNT, "Rangierfahrt wird fortgesetzt.");
             position++;
             return true;
         }
@@ -145,10 +149,10 @@ public class Rangierfahrt implements TickerEvent {
     
     private void advance(int count) {
         Step step = fahrweg.get(position);
-        System.out.println(step.toString());
+        config.log.log(EventCode.SHUNT_STEP, step.action, step.param, step.param2 ? 1 : 0);
         nextAction = count + step.delay;
         if (!step.message.isEmpty()) {
-            config.alert(step.message);
+            config.alert(AlertCategory.SHUNT, step.message);
         }
         
         switch (step.action) {
@@ -156,7 +160,7 @@ public class Rangierfahrt implements TickerEvent {
                 if (config.signale[step.param].isSh1()) {
                     position++;
                 } else {
-                    config.alert("Warte auf Sh1");
+                    config.alert(AlertCategory.SHUNT, "Warte auf Sh1");
                 }
                 break;
                 
@@ -164,7 +168,7 @@ public class Rangierfahrt implements TickerEvent {
                 if (config.schluesselweichen[step.param].isLocked()) {
                     position++;
                 } else {
-                    config.alert("Warte auf Schlüsselweiche");
+                    config.alert(AlertCategory.SHUNT, "Warte auf Schlüsselweiche");
                 }
                 break;
                 
@@ -198,24 +202,22 @@ public class Rangierfahrt implements TickerEvent {
                 break;
             
             case CheckWeiche:
-                System.out.println("Weiche " + config.weichen[step.param].isPlus());
-                System.out.println("Wert " + step.param2);
-                System.out.println("Position " + position);
-                System.out.println("Compare " + (config.weichen[step.param].isPlus() == step.param2));
+                config.log.log(EventCode.SHUNT_CHECK_SWITCH, null, step.param,
+                        config.weichen[step.param].isPlus() ? 1 : 0, step.param2 ? 1 : 0);
                 
                 if (config.weichen[step.param].isGestoert()) {
-                    config.alert("Weiche gestört und kann nicht befahren werden.");
+                    config.alert(AlertCategory.SHUNT, "Weiche gestört und kann nicht befahren werden.");
                     return;
                 }
                 
                 if (config.weichen[step.param].isRunning()) {
-                    config.alert("Weiche läuft noch um.");
+                    config.alert(AlertCategory.SHUNT, "Weiche läuft noch um.");
                     return;
                 }
                 
                 if (config.weichen[step.param].isPlus() == step.param2) {
                     if (waitCounter == 0) {
-                        config.alert("Weiche " + config.weichen[step.param].getName() + " in der falschen Position.");
+                        config.alert(AlertCategory.SHUNT, "Weiche " + config.weichen[step.param].getName() + " in der falschen Position.");
                     }
                     
                     waitCounter++;
@@ -231,17 +233,15 @@ public class Rangierfahrt implements TickerEvent {
                 break;
                 
             case CheckWeicheMitStoerung:
-                System.out.println("Weiche " + config.weichen[step.param].isPlus());
-                System.out.println("Wert " + step.param2);
-                System.out.println("Position " + position);
-                System.out.println("Compare " + (config.weichen[step.param].isPlus() == step.param2));
+                config.log.log(EventCode.SHUNT_CHECK_SWITCH, null, step.param,
+                        config.weichen[step.param].isPlus() ? 1 : 0, step.param2 ? 1 : 0);
                 if (config.weichen[step.param].isRunning()) {
-                    config.alert("Weiche läuft noch um.");
+                    config.alert(AlertCategory.SHUNT, "Weiche läuft noch um.");
                     return;
                 }
                 
                 if (config.weichen[step.param].isPlus() == step.param2) {
-                    config.alert("Weiche " + config.weichen[step.param].getName() + " in der falschen Position.");
+                    config.alert(AlertCategory.SHUNT, "Weiche " + config.weichen[step.param].getName() + " in der falschen Position.");
                     config.weichen[step.param].setStoerung();
                     nextAction = count;
                 }
@@ -279,7 +279,7 @@ public class Rangierfahrt implements TickerEvent {
                 break;
                 
             default:
-                config.alert("Unbekanntes Kommando: " + step.action);
+                config.alert(AlertCategory.SHUNT, "Unbekanntes Kommando: " + step.action);
                 position = -1;
         }
     }
@@ -324,14 +324,14 @@ public class Rangierfahrt implements TickerEvent {
         case 'C': // Weichenstellung prüfen und bei Bedarf warten CP3 CM1
           param2 = action.charAt(1) != 'P'; // Plus oder Minusstellung
           weiche = action.charAt(2) - '1'; // Weiche 3, 4, 5, 18, 19, 20 ->1...6
-          System.out.println("Weiche " + weiche + " Stellung " + param2);
+          config.log.log(EventCode.SHUNT_PARSE_SWITCH, null, weiche, param2 ? 1 : 0);
           fahrweg.add(new Step(ActionType.CheckWeiche, weiche, LONG_DELAY, "", param2));
           break;
         
         case 'S': // Weichenstellung prüfen und Störung im Fehlerfall SP6
           param2 = action.charAt(1) != 'P'; // Plus oder Minusstellung
           weiche = action.charAt(2) - '1'; // Weiche 3, 4, 5, 18, 19, 20 ->1...6
-          System.out.println("Weiche " + weiche + " Stellung " + param2);
+          config.log.log(EventCode.SHUNT_PARSE_SWITCH, null, weiche, param2 ? 1 : 0);
           fahrweg.add(new Step(ActionType.CheckWeicheMitStoerung, weiche, LONG_DELAY, "", param2));
           break;
           
@@ -389,10 +389,21 @@ public class Rangierfahrt implements TickerEvent {
         }
     }
     
+    /**
+     * Führt den nächsten Schritt der Rangierfahrt aus.
+     * Wird vom Zeitrad aufgerufen, solange die Fahrt
+     * aktiv ist.
+     * 
+     * @param count 
+     */
     @Override
     public void tick(int count) {
-        if (count >= nextAction && position != -1) {
+        if (position != -1) {
             advance(count);
         }
+        
+        if (position != -1) {
+            config.ticker.schedule(actionTimer, Math.max(nextAction, count + 1));
+        }
     }
 }
@@ -7,18 +7,23 @@ package de.mmth.drs2.parts;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
+import de.mmth.drs2.io.InputEvent;
 
 /**
+ * Der Schlüsselschalter wird nur aufgerufen, solange
+ * der Schalter betätigt ist.
  *
  * @author root
  */
-public class Schluesselschalter implements TickerEvent {
+public class Schluesselschalter implements TickerEvent, InputEvent {
 
     private final Config config;
     private final int schalter;
     private final int fahrstrasse1;
     private final int fahrstrasse2;
     private boolean alertLock;
+    private final TimingWheel.Entry pollTimer = new TimingWheel.Entry(this);
     
     /**
      * Überwacht die Schlüsselschalter A und F.
@@ -36,7 +41,33 @@ public class Schluesselschalter implements TickerEvent {
         this.fahrstrasse1 = fahrstrasse1;
         this.fahrstrasse2 = fahrstrasse2;
         
-        config.ticker.add(this);
+        config.connector.subscribe(schalter, this);
+    }
+    
+    /**
+     * Beim Betätigen des Schalters startet die
+     * Abfrage noch im selben Tick.
+     * 
+     * @param portNo
+     * @param count 
+     */
+    @Override
+    public void pressed(int portNo, int count) {
+        if (!pollTimer.isScheduled()) {
+            config.ticker.schedule(pollTimer, count);
+        }
+    }
+
+    /**
+     * Das Zurückstellen wird von der laufenden
+     * Abfrage erkannt.
+     * 
+     * @param portNo
+     * @param count
+     * @param duration 
+     */
+    @Override
+    public void released(int portNo, int count, int duration) {
     }
     
     /**
@@ -49,6 +80,7 @@ public class Schluesselschalter implements TickerEvent {
         if (config.connector.isInSet(schalter)) {
             condReleaseFahrstrasse(fahrstrasse1);
             condReleaseFahrstrasse(fahrstrasse2);
+            config.ticker.schedule(pollTimer, count + 1);
         }
     }
     
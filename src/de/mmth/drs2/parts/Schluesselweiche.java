@@ -4,8 +4,10 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
 import static de.mmth.drs2.io.Connector.WEICHE_IV_OUT;
 
@@ -60,7 +62,7 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
         
         config.connector.setOut(rot, false);
         config.connector.setOut(weiss, true);
-        config.ticker.add(this);
+        config.ticker.add(TickPhase.LOGIC, name, this);
     }
     
     /**
@@ -83,7 +85,7 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
     public void whenPressed(int taste1, int taste2) {
         if (taste1 == Const.WGT) {
             if (verriegelt) {
-                config.alert("Weiche ist durch eine Fahrstraße verriegelt.");
+                config.alert(AlertCategory.SWITCH, "Weiche ist durch eine Fahrstraße verriegelt.");
             } else {
                 state = 1;
             }
@@ -91,20 +93,20 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
             // Löschtaste wurde betätigt
             switch (state) {
                 case 0:
-                    config.alert("Schlüssel war noch nicht freigegeben.");
+                    config.alert(AlertCategory.SWITCH, "Schlüssel war noch nicht freigegeben.");
                     break;
                     
                 case 1:
                 case 2:
                 case 5:
                     state = 0;
-                    config.alert("Schlüsselfreigabe zurückgenommen.");
+                    config.alert(AlertCategory.SWITCH, "Schlüsselfreigabe zurückgenommen.");
                     config.connector.setOut(wsRelais, false);
                     break;
                     
                 case 3:
                 case 4:
-                    config.alert("Schlüssel wurde bereits entnommen.");
+                    config.alert(AlertCategory.SWITCH, "Schlüssel wurde bereits entnommen.");
                     break;
             } 
         }
@@ -127,7 +129,7 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
                 // Schlüsselfreigabe vom DRS2 Stellpult.
                 state = 2;
                 config.connector.setOut(wsRelais, true);
-                config.alert("Schlüssel freigegeben.");
+                config.alert(AlertCategory.SWITCH, "Schlüssel freigegeben.");
                 break;
                 
             case 2:
@@ -136,7 +138,7 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
                 if (config.connector.isInSet(wsCheck)) {
                     // Schlüssel entnommen.
                     state = 3;
-                    config.alert("Schlüssel entnommen.");
+                    config.alert(AlertCategory.SWITCH, "Schlüssel entnommen.");
                     config.connector.setOut(weiss, false);
                     config.connector.setOut(wsRelais, false);
                 }
@@ -158,11 +160,11 @@ public class Schluesselweiche implements TastenEvent, TickerEvent {
                     // Schlüsselrückgabe.
                     if (config.drs60sw) {
                       state = 0;
-                      config.alert("Schlüssel zurückgegeben und Schlüsselfreigabe beendet.");
+                      config.alert(AlertCategory.SWITCH, "Schlüssel zurückgegeben und Schlüsselfreigabe beendet.");
                     } else {
                     state = 5;
                     config.connector.setOut(weiss, true);
-                    config.alert("Schlüssel zurückgegeben.");
+                    config.alert(AlertCategory.SWITCH, "Schlüssel zurückgegeben.");
                     }
                 }
                 break;
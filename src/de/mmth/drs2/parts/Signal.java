@@ -4,10 +4,15 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 import de.mmth.drs2.io.Connector;
+import de.mmth.drs2.io.PortBits;
+import de.mmth.drs2.jfr.SignalEvent;
 
 /**
  * Diese Klasse kapselt die Definition und 
@@ -27,6 +32,7 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
     
     private boolean isFahrt = false;
     private boolean isSh1 = false;
+    private int reportedAspect = -1;
     private int fahrwegMarker = -1;
     private Doppeltaster sigTaste;
     private Doppeltaster sh1Taste;
@@ -42,6 +48,9 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
     
     private int changeState = 0;
     private int nextAction = Integer.MAX_VALUE;
+    private final TimingWheel.Entry stepTimer = new TimingWheel.Entry(this);
+    private final PortBits lampMask = new PortBits(Connector.PORT_COUNT);
+    private final PortBits lampValues = new PortBits(Connector.PORT_COUNT);
     
     /**
      * Zur Initialisierung wird der PortEpander Connector
@@ -91,13 +100,29 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
             sh1Taste = new Doppeltaster();
             sh1Taste.init(config, this, Const.SGT, sigTaste);
         }
-        config.ticker.add(this);
+        for (int lamp: new int[] {sigFahrt, sigHalt, vorsigFahrt, vorsigHalt, fahrwegWhite, fahrwegRed, sh1Lampe}) {
+            if (lamp >= 0) {
+                lampMask.set(lamp, true);
+            }
+        }
+        if (name.equals("Sig P3")) {
+            config.ticker.add(TickPhase.LOGIC, name + " Fadenbruch", count -> checkFadenbruch());
+        }
         isFahrt = false;
         changeState = 1;
-        nextAction = 0;
+        startUmschaltung();
         updateView();
     }
     
+    /**
+     * Startet die zeitverzögerte Umschaltung der
+     * Signalbilder über das Zeitrad.
+     */
+    private void startUmschaltung() {
+        nextAction = 0;
+        config.ticker.scheduleIn(stepTimer, 1);
+    }
+    
     public void halt() {
         halt(false);
     }
@@ -119,12 +144,12 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
     public void halt(boolean delayedAction) {
         if (isSh1) {
             isSh1 = false;
-            config.alert("Signal " + name + " auf SH0 gestellt.");
+            config.alert(AlertCategory.SIGNAL, "Signal " + name + " auf SH0 gestellt.");
         } else if (isFahrt) {
             isFahrt = false;
             
             changeState = (delayedAction) ? 4 : 1;
-            nextAction = 0;
+            startUmschaltung();
         }
         
         updateView();
@@ -140,7 +165,7 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
         if (!isGestoert) {
             isFahrt = true;
             changeState = 1;
-            nextAction = 0;
+            startUmschaltung();
             updateView();
         }
     }
@@ -188,12 +213,26 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
      */
     @Override
     public String toString() {
-        if (isGestoert) {
+        return describe(name, isGestoert, isSh1, isFahrt);
+    }
+    
+    /**
+     * Textform eines Signalzustands, z.B. für die Anzeige
+     * aus einem Snapshot.
+     * 
+     * @param name
+     * @param gestoert
+     * @param sh1
+     * @param fahrt
+     * @return 
+     */
+    public static String describe(String name, boolean gestoert, boolean sh1, boolean fahrt) {
+        if (gestoert) {
             return name + " (Gestört)";
-        } else if (isSh1) {
+        } else if (sh1) {
             return name + ": sh1";
         } else {
-            return name + ": " + (isFahrt ? "hp1/2" : "hp0");
+            return name + ": " + (fahrt ? "hp1/2" : "hp0");
         }
     }
     
@@ -208,49 +247,96 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
     
     /**
      * Aktualisiert den Zustand der Anzeigelampen
-     * gemäß der aktuellen Fahrt Einstellung.
+     * gemäß der aktuellen Fahrt Einstellung. Alle
+     * Lampen des Signals werden in einem Schritt
+     * an den Connector übergeben.
      */
     private void updateView() {
         if (isGestoert) {
-            conn.setOut(sigFahrt, false);
-            conn.setOut(sigHalt, false);
-            conn.setOut(vorsigFahrt, false);
-            conn.setOut(vorsigHalt, false);            
-            conn.setOut(sh1Lampe, false);            
+            lamp(sigFahrt, false);
+            lamp(sigHalt, false);
+            lamp(vorsigFahrt, false);
+            lamp(vorsigHalt, false);            
+            lamp(sh1Lampe, false);            
         } else {
-            conn.setOut(sh1Lampe, isSh1);
+            lamp(sh1Lampe, isSh1);
             
             switch (changeState) {
                 case 0: // Normale Anzeige
-                    conn.setOut(sigFahrt, isFahrt);
-                    conn.setOut(sigHalt, !isFahrt);
-                    conn.setOut(vorsigHalt, !isFahrt);
-                    conn.setOut(vorsigFahrt, isFahrt);
+                    lamp(sigFahrt, isFahrt);
+                    lamp(sigHalt, !isFahrt);
+                    lamp(vorsigHalt, !isFahrt);
+                    lamp(vorsigFahrt, isFahrt);
                     break;
                     
                 case 1: // Signal wird umgeschaltet
-                    conn.setOut(sigFahrt, false);
-                    conn.setOut(sigHalt, false);
-                    conn.setOut(vorsigHalt, false);
-                    conn.setOut(vorsigFahrt, false);
+                    lamp(sigFahrt, false);
+                    lamp(sigHalt, false);
+                    lamp(vorsigHalt, false);
+                    lamp(vorsigFahrt, false);
                     break;
                     
                 case 2: // neues Signalbild aktiv, Vorsignal noch dunkel
-                    conn.setOut(sigFahrt, isFahrt);
-                    conn.setOut(sigHalt, !isFahrt);
-                    conn.setOut(vorsigHalt, false);
-                    conn.setOut(vorsigFahrt, false);
+                    lamp(sigFahrt, isFahrt);
+                    lamp(sigHalt, !isFahrt);
+                    lamp(vorsigHalt, false);
+                    lamp(vorsigFahrt, false);
                     break;
-                case 3: // warten
+                default: // warten
+                    lamp(sigFahrt, conn.isOutSet(sigFahrt));
+                    lamp(sigHalt, conn.isOutSet(sigHalt));
+                    lamp(vorsigHalt, conn.isOutSet(vorsigHalt));
+                    lamp(vorsigFahrt, conn.isOutSet(vorsigFahrt));
                     break;
             }
             
         }
         
-        conn.setOut(fahrwegWhite, false);
-        conn.setOut(fahrwegRed, false);
+        lamp(fahrwegWhite, false);
+        lamp(fahrwegRed, false);
         if (fahrwegMarker >= 0) {
-            conn.setOut(fahrwegMarker, true);
+            lamp(fahrwegMarker, true);
+        }
+        
+        conn.setOuts(lampMask, lampValues);
+        
+        int aspect = aspect();
+        if (aspect != reportedAspect) {
+            var event = new SignalEvent();
+            if (event.shouldCommit()) {
+                event.signal = name;
+                event.aspect = ASPECTS[aspect];
+                event.previousAspect = (reportedAspect >= 0) ? ASPECTS[reportedAspect] : "";
+                event.commit();
+            }
+            
+            reportedAspect = aspect;
+        }
+    }
+    
+    private static final String[] ASPECTS = {"gestört", "dunkel", "Hp0", "Hp1/2", "Sh1"};
+    
+    /**
+     * Index des angezeigten Signalbilds in ASPECTS. Während
+     * der Umschaltung ist das Signal kurz dunkel.
+     * 
+     * @return 
+     */
+    private int aspect() {
+        if (isGestoert) {
+            return 0;
+        } else if (changeState == 1) {
+            return 1;
+        } else if (isSh1) {
+            return 4;
+        } else {
+            return isFahrt ? 3 : 2;
+        }
+    }
+    
+    private void lamp(int portNo, boolean value) {
+        if (portNo >= 0) {
+            lampValues.set(portNo, value);
         }
     }
 
@@ -341,21 +427,21 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
         if (taste1 == Const.HaGT) {
             if (isSh1) {
                 isSh1 = false;
-                config.alert("Signal " + name + " auf SH0 gestellt.");
+                config.alert(AlertCategory.SIGNAL, "Signal " + name + " auf SH0 gestellt.");
             } else {
                 halt();
-                config.alert("Signal über HaGT auf HP0 gestellt.");
+                config.alert(AlertCategory.SIGNAL, "Signal über HaGT auf HP0 gestellt.");
             }
         } else if (taste1 == Const.SGT) {
             if (checkSh1Weiche()) {
                 if (!isSh1Locked()) {
                     isSh1 = true;
-                    config.alert("Signal " + name + " auf SH1 gestellt.");
+                    config.alert(AlertCategory.SIGNAL, "Signal " + name + " auf SH1 gestellt.");
                 } else {
-                    config.alert("Gleis ist durch Fahrstraße belegt.");
+                    config.alert(AlertCategory.SIGNAL, "Gleis ist durch Fahrstraße belegt.");
                 }
             } else {
-                config.alert("Die Weiche hinter dem Sh Signal " + name + " steht falsch.");
+                config.alert(AlertCategory.SIGNAL, "Die Weiche hinter dem Sh Signal " + name + " steht falsch.");
             }
         }
         
@@ -364,7 +450,6 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
 
     boolean fadenbruchAktiv = false;
     private void checkFadenbruch() {
-      if (name.equals("Sig P3")) {
         if (!isFahrt && conn.isInSet(Const.HAUPTFADEN_DEFEKT)) {
           conn.setOut(sigHalt, config.blinklicht.getBlink());
           fadenbruchAktiv = true;
@@ -372,31 +457,37 @@ public class Signal implements ColorMarker, TastenEvent, TickerEvent {
           fadenbruchAktiv = false;
           updateView();
         }
-      }
     }
     
+    /**
+     * Schaltet die Signalbilder während einer Umschaltung
+     * weiter. Wird vom Zeitrad aufgerufen, solange die
+     * Umschaltung nicht abgeschlossen ist.
+     * 
+     * @param count 
+     */
     @Override
     public void tick(int count) {
-        checkFadenbruch();
-        if (count > nextAction) {
-            if (nextAction == 0) {
-                nextAction = count + 5;
+        if (nextAction == 0) {
+            nextAction = count + 5;
+        } else {
+            if (changeState == 4) {
+                changeState = 1;
+                nextAction = count + 3;
             } else {
-                if (changeState == 4) {
-                    changeState = 1;
-                    nextAction = count + 3;
+                changeState++;
+                if (changeState == 3) {
+                    changeState = 0;
+                    nextAction = Integer.MAX_VALUE;
                 } else {
-                    changeState++;
-                    if (changeState == 3) {
-                        changeState = 0;
-                        nextAction = Integer.MAX_VALUE;
-                    } else {
-                        nextAction = count + 3;
-                    }
+                    nextAction = count + 3;
                 }
             }
-            
-            updateView();
+        }
+
+        updateView();
+        if (nextAction != Integer.MAX_VALUE) {
+            config.ticker.schedule(stepTimer, nextAction + 1);
         }
     }
 }
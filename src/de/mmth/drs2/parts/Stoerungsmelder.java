@@ -6,6 +6,7 @@ package de.mmth.drs2.parts;
 
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
 
 /**
  * Diese Klasse implementiert die Behandlung der
@@ -30,11 +31,13 @@ public class Stoerungsmelder implements TickerEvent, TastenEvent {
     
     private int klingel;
     private int tu;
-    private int melder;
     
     private String lastSignalStoerung = "";
     private Object lastWeichenStoerung = "";
     private int wecker;
+    private final TimingWheel.Entry weckerAus = new TimingWheel.Entry(count -> {
+        config.connector.setOut(wecker, false);
+    });
     
     /**
      * Initialisiert die Ports für die Tastenabschalter und
@@ -93,16 +96,25 @@ public class Stoerungsmelder implements TickerEvent, TastenEvent {
      * Streckenblockmeldung
      */
     public void meldung() {
-        melder = 100;
-        config.connector.setOut(wecker, true);
+        weckerEin(100);
     }
     
     /**
      * Rangiermeldung
      */
     public void rangierMeldung() {
-        melder = 15;
+        weckerEin(15);
+    }
+    
+    /**
+     * Schaltet den Wecker ein und meldet die Abschaltung
+     * nach der angegebenen Anzahl Ticks im Zeitrad an.
+     * 
+     * @param dauer 
+     */
+    private void weckerEin(int dauer) {
         config.connector.setOut(wecker, true);
+        config.ticker.scheduleIn(weckerAus, dauer + 1);
     }
     
     /**
@@ -133,12 +145,6 @@ public class Stoerungsmelder implements TickerEvent, TastenEvent {
           beepW = false;
         }
         
-        if (melder > 0) {
-            melder--;
-        } else {
-            config.connector.setOut(wecker, false);
-        }
-        
         config.connector.setOut(klingel, beepS | beepW | strgT);
         config.connector.setOut(tu, strgT);
     }
@@ -4,9 +4,12 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.log.EventCode;
 import de.mmth.drs2.parts.state.StreckenState;
 
 /**
@@ -88,11 +91,9 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
         
         this.streckeTaster = new Doppeltaster();
         this.streckeTaster.init(config, this, Const.BlGT, streckenTaste);
-        config.ticker.add(streckeTaster);
         
         this.RbHG = new Doppeltaster();
         this.RbHG.init(config, this, Const.RbHGT, streckenTaste);
-        config.ticker.add(RbHG);
         
         streckenState = StreckenState.FREE;
         updateView();
@@ -101,12 +102,10 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
         if (vorblockHilfsTaste >= 0) {
             vbHT = new Doppeltaster();
             vbHT.init(config, this,Const.BlGT, vorblockHilfsTaste);
-            config.ticker.add(vbHT);                
         }
         
         ast = new Doppeltaster();
         ast.init(config, this, Const.AsT, streckenTaste, true);
-        config.ticker.add(ast);
         
         aslt = new Doppeltaster();
         aslt.init(config, this, Const.AsLT, streckenTaste, true);
@@ -115,9 +114,8 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
         fht.init(config, this, Const.FHT, streckenTaste);
         
         useMJ1MJ2 = (streckenTaste == Const.BlockHIn) || (streckenTaste == Const.BlockHOut);
-        config.ticker.add(aslt);
         
-        config.ticker.add(this);
+        config.ticker.add(TickPhase.LOGIC, name, this);
     }
     
   /**
@@ -139,7 +137,7 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
    */
   public void startVorblock() {
     vorblockCount = simulationMode ? VORBLOCK_SIMULATION_COUNT : VORBLOCK_RELAIS_COUNT;
-    System.out.println("Starte Vorblocken.");
+    config.log.log(EventCode.BLOCK_VORBLOCK);
   }
   
   public boolean tryVorblock() {
@@ -264,7 +262,7 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
      * wird die Wiederholsperre gesetzt.
      */
     public void setWiederholsperre() {
-        System.out.println("Wiederholsperre setzen.");
+        config.log.log(EventCode.BLOCK_WIEDERHOLSPERRE);
         sperrmelderState = true;
         updateView();
     }
@@ -308,7 +306,7 @@ public class StreckeAusfahrt2 implements TastenEvent, TickerEvent {
             case Const.BlGT:
                 if (taste2 == vorblockHilfsTaste) {
                     //if (sperrmelderState) {
-                    //  config.alert("Wiederholsperre aktiv, manuelles Vorblocken nicht möglich.");
+                    //  config.alert(AlertCategory.BLOCK, "Wiederholsperre aktiv, manuelles Vorblocken nicht möglich.");
                     //  return;
                     //}
                     // Bei der Ausfahrt über Hilfssignal muss manuell vorgeblockt werden.
@@ -4,8 +4,10 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
 import de.mmth.drs2.parts.state.StreckenState;
 
@@ -75,25 +77,21 @@ public class StreckeEinfahrt2 implements TastenEvent, TickerEvent {
 
       this.rückblockTaster = new Doppeltaster();
       this.rückblockTaster.init(config, this, Const.BlGT, rueckblockTaste);
-      config.ticker.add(rückblockTaster);
 
       this.RbHG = new Doppeltaster();
       this.RbHG.init(config, this, Const.RbHGT, rueckblockTaste);
-      config.ticker.add(RbHG);
 
       streckenState = StreckenState.FREE;
       updateView();
 
       ast = new Doppeltaster();
       ast.init(config, this, Const.AsT, rueckblockTaste, true);
-      config.ticker.add(ast);
 
       aslt = new Doppeltaster();
       aslt.init(config, this, Const.AsLT, rueckblockTaste, true);
-      config.ticker.add(aslt);
 
 
-      config.ticker.add(this);
+      config.ticker.add(TickPhase.LOGIC, name, this);
   }
 
   public String getName() {
@@ -159,7 +157,7 @@ public class StreckeEinfahrt2 implements TastenEvent, TickerEvent {
    */
   public void activateGleiskontakt(boolean mitErsatzsignal) {
       if (mitErsatzsignal && !räummelderState) {
-        config.alert("Anschalttaste wurde nicht betätigt.");
+        config.alert(AlertCategory.BLOCK, "Anschalttaste wurde nicht betätigt.");
       } else {
         räummelderDauerlicht = false;
         räummelderState = true;
@@ -206,9 +204,9 @@ public class StreckeEinfahrt2 implements TastenEvent, TickerEvent {
       case Const.BlGT:
         // Zug ist eingefahren, Strecke wird zurückgeblockt.
         if (isFahrt()) {
-          config.alert("Zug noch nicht eingefahren, Signal noch auf Fahrt.");
+          config.alert(AlertCategory.BLOCK, "Zug noch nicht eingefahren, Signal noch auf Fahrt.");
         } else if (!räummelderState || räummelderDauerlicht) {
-          config.alert("Zug noch nicht eingefahren, Räumungsmelder noch aktiv.");
+          config.alert(AlertCategory.BLOCK, "Zug noch nicht eingefahren, Räumungsmelder noch aktiv.");
         } else {
           startRückblock();
         } 
@@ -218,7 +216,7 @@ public class StreckeEinfahrt2 implements TastenEvent, TickerEvent {
       case Const.RbHGT:
         if (streckenState != StreckenState.FREE) {
           if (config.ersatzsignale[signalId].isFahrt() || config.signale[signalId].isFahrt() || config.signale[signalId].isSh1()) {
-            config.alert("Signal oder Ersatzsignal noch auf Fahrt.");
+            config.alert(AlertCategory.BLOCK, "Signal oder Ersatzsignal noch auf Fahrt.");
           } else {
             startRückblock();
           }
@@ -4,8 +4,10 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.Const;
+import de.mmth.drs2.TickPhase;
 import de.mmth.drs2.TickerEvent;
 import de.mmth.drs2.io.UartCommand;
 import de.mmth.drs2.parts.state.StreckenState;
@@ -65,7 +67,6 @@ public class Streckenblock implements TastenEvent, TickerEvent {
         if (streckenTaste >= 0) {
             this.streckeTaster = new Doppeltaster();
             this.streckeTaster.init(config, this, Const.BlGT, streckenTaste);
-            config.ticker.add(streckeTaster);
         }
         
         streckenState = StreckenState.FREE;
@@ -75,10 +76,9 @@ public class Streckenblock implements TastenEvent, TickerEvent {
         if (!isInbound && vorblockHilfsTaste >= 0) {
             vbHT = new Doppeltaster();
             vbHT.init(config, this, vorblockHilfsTaste, Const.BlGT);
-            config.ticker.add(vbHT);                
         }
         
-        config.ticker.add(this);
+        config.ticker.add(TickPhase.LOGIC, name, this);
     }
 
     /**
@@ -93,7 +93,7 @@ public class Streckenblock implements TastenEvent, TickerEvent {
     public void markUsed(boolean trainArrived) {
         streckenState = trainArrived ? StreckenState.TRAIN_ARRIVED : StreckenState.WAIT_FOR_TRAIN;
         markStrecke();
-        config.alert("Strecke " + name + (isInbound ? " Einf." : " Ausf.") + " vor/rückgeblockt.");
+        config.alert(AlertCategory.BLOCK, "Strecke " + name + (isInbound ? " Einf." : " Ausf.") + " vor/rückgeblockt.");
         if (!isInbound && (sperrRaeumungsmelder != -1)) {
             hide = true;
             rueckblockenUntil = 0;
@@ -169,7 +169,7 @@ public class Streckenblock implements TastenEvent, TickerEvent {
             config.uart1.sendCommand(cmd);
             hide = true;
             if (isInbound) {
-                config.alert("Endfeld " + name + " zurückgeblockt.");
+                config.alert(AlertCategory.BLOCK, "Endfeld " + name + " zurückgeblockt.");
             }
 
             rueckblockenUntil = 0;
@@ -179,7 +179,7 @@ public class Streckenblock implements TastenEvent, TickerEvent {
                 markStrecke();
                 hide = true;
                 if (isInbound) {
-                    config.alert("Endfeld " + name + " zurückgeblockt.");
+                    config.alert(AlertCategory.BLOCK, "Endfeld " + name + " zurückgeblockt.");
                 }
 
                 rueckblockenUntil = 0;
@@ -235,7 +235,7 @@ public class Streckenblock implements TastenEvent, TickerEvent {
             rueckblockenUntil = count + Const.KURBELINDUKTOR_RUNDEN;
             useMJ1MJ2 = !useMJ1MJ2;
             config.connector.setOut(useMJ1MJ2 ? Const.MJ1 : Const.MJ2, true);
-            config.alert("Vor-/ Rückblocken " + name + " gestartet.");
+            config.alert(AlertCategory.BLOCK, "Vor-/ Rückblocken " + name + " gestartet.");
             if (name.equals("M")) {
                 config.uart1.sendCommand(UartCommand.BLOCK1);
             } else {
@@ -245,7 +245,7 @@ public class Streckenblock implements TastenEvent, TickerEvent {
             if (count > rueckblockenUntil) {
                 config.connector.setOut(Const.MJ1, false);
                 config.connector.setOut(Const.MJ2, false);
-                config.alert("Vor-/ Rückblocken " + name + " beendet.");
+                config.alert(AlertCategory.BLOCK, "Vor-/ Rückblocken " + name + " beendet.");
                 rueckblockenUntil = Integer.MAX_VALUE;
             }
         }
@@ -4,8 +4,11 @@
  */
 package de.mmth.drs2.parts;
 
+import de.mmth.drs2.AlertCategory;
 import de.mmth.drs2.Config;
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.TimingWheel;
+import de.mmth.drs2.jfr.WeicheEvent;
 import de.mmth.drs2.parts.state.SwitchState;
 
 /**
@@ -27,6 +30,7 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
     private boolean isActive;
     private boolean pendingClearGestoert;
     private SwitchState state = SwitchState.OK;
+    private final TimingWheel.Entry blinkTimer = new TimingWheel.Entry(this);
     
     /**
      * Übergibt die zugeordnete Tastereingänge und
@@ -53,7 +57,6 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
             taste.init(config, this, taste1, taste2);
         }
         updateOutput();
-        config.ticker.add(this);
     }
 
     /**
@@ -77,17 +80,22 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
     
     public void setState(SwitchState state) {
       this.state = state;
+      report((state == SwitchState.OK) ? "fault cleared" : "fault");
       
       if (state == SwitchState.OK) {
         updateOutput();
         blink = 1;
       }
+      
+      startBlink();
     }
     
     public boolean starteUmlauf() {
       if (state == SwitchState.OK) {
         inPlusStellung = !inPlusStellung;
         blink = BLINK_DURATION;
+        startBlink();
+        report("throw");
         return true;
       } else {
         return false;
@@ -116,12 +124,12 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
     public void whenPressed(int taste1, int taste2) {
         if (lockCount > 0) {
             // Verrigelte Weichen können nicht umgestellt werden.
-            config.alert("Eine verrigelte Weiche kann nicht umgestellt werden: " + name);
+            config.alert(AlertCategory.SWITCH, "Eine verrigelte Weiche kann nicht umgestellt werden: " + name);
             return;
         }
         
         if (isActive) {
-          config.alert("Aktuell befahrene Weichen können nicht umgestellt werden: " + name);
+          config.alert(AlertCategory.SWITCH, "Aktuell befahrene Weichen können nicht umgestellt werden: " + name);
           return;
         }
         
@@ -151,7 +159,25 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
         }
         
         updateOutput();
-        config.alert("Weiche " + name + " umgeschaltet nach " + (inPlusStellung ? "Plus" : "Minus"));
+        startBlink();
+        report("throw");
+        config.alert(AlertCategory.SWITCH, "Weiche " + name + " umgeschaltet nach " + (inPlusStellung ? "Plus" : "Minus"));
+    }
+    
+    /**
+     * Meldet eine Aktion an den Flight Recorder.
+     * 
+     * @param action 
+     */
+    private void report(String action) {
+        var event = new WeicheEvent();
+        if (event.shouldCommit()) {
+            event.weiche = name;
+            event.action = action;
+            event.plus = inPlusStellung;
+            event.state = state.name();
+            event.commit();
+        }
     }
 
     /**
@@ -195,7 +221,7 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
      */
     @Override
     public void red() {
-      config.alert("Weiche " + name + " befahren.");
+      config.alert(AlertCategory.SWITCH, "Weiche " + name + " befahren.");
         isActive = true;
         updateOutput();
     }
@@ -228,7 +254,7 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
      */
     public void unlock() {
         if (lockCount == 0) {
-            config.alert("Fehler - die Weiche " + name + " war nicht gesperrt.");
+            config.alert(AlertCategory.SWITCH, "Fehler - die Weiche " + name + " war nicht gesperrt.");
         } else {
             lockCount--;
         }
@@ -294,8 +320,27 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
         }
     }
     
+    /**
+     * Meldet die Weiche für die Blinkanzeige im Zeitrad an,
+     * solange sie umläuft oder aufgefahren ist.
+     */
+    private void startBlink() {
+        if (((blink > 0) || (state == SwitchState.AUFGEFAHREN)) && !blinkTimer.isScheduled()) {
+            config.ticker.scheduleIn(blinkTimer, 1);
+        }
+    }
+    
+    /**
+     * Schreibt die Anzeigelampen neu, z.B. nach einem Lampentest.
+     */
+    public void refresh() {
+        updateOutput();
+    }
+    
     /**
      * Hier wird das Blinklicht beim Umschalten simuliert.
+     * Wird vom Zeitrad in jedem Tick aufgerufen, solange die
+     * Weiche umläuft oder aufgefahren ist.
      * @param count 
      */
     @Override
@@ -307,10 +352,15 @@ public class Weiche implements TickerEvent, TastenEvent, ColorMarker {
                 if (pendingClearGestoert) {
                     pendingClearGestoert = false;
                     state = SwitchState.OK;
+                    report("fault cleared");
                 }
                 updateOutput();
             }
         }
+        
+        if ((blink > 0) || (state == SwitchState.AUFGEFAHREN)) {
+            config.ticker.schedule(blinkTimer, count + 1);
+        }
     }
     
     @Override
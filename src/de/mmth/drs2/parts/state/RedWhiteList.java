@@ -5,6 +5,8 @@
 package de.mmth.drs2.parts.state;
 
 import de.mmth.drs2.TickerEvent;
+import de.mmth.drs2.log.EventCode;
+import de.mmth.drs2.log.EventLog;
 import de.mmth.drs2.parts.ColorMarker;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,9 +30,14 @@ public class RedWhiteList implements TickerEvent {
   }
   
   private final List<RWData> activeReds = new ArrayList<>();
+  private final EventLog log;
+  
+  public RedWhiteList(EventLog log) {
+    this.log = log;
+  }
   
   public void add(int expirationTime, ColorMarker nextRed, boolean clear) {
-    System.out.println("Add red timer " + nextRed.getName() + ", Time: " + expirationTime);
+    log.log(EventCode.RED_TIMER_ADDED, nextRed.getName(), expirationTime);
     var data = new RWData(expirationTime, nextRed, clear);
     activeReds.add(data);
     nextRed.red();
@@ -38,16 +45,17 @@ public class RedWhiteList implements TickerEvent {
   
   @Override
   public void tick(int count) {
-    for (var d: activeReds) {
+    for (int i = 0; i < activeReds.size(); i++) {
+      var d = activeReds.get(i);
       if (d.expirationTime < count) {
-        System.out.println("Clear red " + d.nextRed.getName() + ", Time: " + d.expirationTime);
+        log.log(EventCode.RED_TIMER_EXPIRED, d.nextRed.getName(), d.expirationTime);
         if (d.clear) {
           d.nextRed.clear();
         } else {
           d.nextRed.white();
         }
         
-        activeReds.remove(d);
+        activeReds.remove(i);
         break;
       }
     }